@@ -0,0 +1,73 @@
+package com.tenshiku.joinsounds.benchmark;
+
+import com.tenshiku.joinsounds.managers.SoundManager;
+import com.tenshiku.joinsounds.models.JoinSound;
+import org.bukkit.entity.Player;
+import org.bukkit.permissions.PermissionAttachment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * The sounds a player may select, both from the session cache and recomputed
+ * from permissions as after a reload or world change
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccessibleSoundsBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int sounds;
+
+    private BenchmarkServer server;
+    private SoundManager soundManager;
+    private Player player;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        server = BenchmarkServer.start(sounds);
+        soundManager = server.getPlugin().getSoundManager();
+
+        player = server.getServer().addPlayer();
+        server.getPlugin().getSessionManager().open(player);
+
+        // The player may use every other sound
+        PermissionAttachment attachment = player.addAttachment(server.getPlugin());
+        for (int i = 0; i < sounds; i += 2) {
+            attachment.setPermission(SyntheticData.permission(i), true);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Benchmark
+    public Map<String, JoinSound> getAccessibleSoundsCached() {
+        return soundManager.getAccessibleSounds(player);
+    }
+
+    @Benchmark
+    public Map<String, JoinSound> getAccessibleSoundsRecomputed() {
+        soundManager.invalidateAccess(player.getUniqueId());
+        return soundManager.getAccessibleSounds(player);
+    }
+}
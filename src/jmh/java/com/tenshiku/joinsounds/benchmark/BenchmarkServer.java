@@ -0,0 +1,87 @@
+package com.tenshiku.joinsounds.benchmark;
+
+import com.tenshiku.joinsounds.JoinSounds;
+import com.tenshiku.joinsounds.managers.PlayerDataManager;
+import org.mockbukkit.mockbukkit.MockBukkit;
+import org.mockbukkit.mockbukkit.ServerMock;
+import java.io.File;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.UUID;
+
+
+/**
+ * Runs the plugin on a mock server so benchmarks exercise the real managers.
+ * One server is started per trial; the fixture writes the synthetic sounds and player data
+ * into the plugin's data folder before the managers under test read them.
+ */
+final class BenchmarkServer {
+
+    private final ServerMock server;
+    private final JoinSounds plugin;
+
+    private BenchmarkServer(ServerMock server, JoinSounds plugin) {
+        this.server = server;
+        this.plugin = plugin;
+    }
+
+    /**
+     * Start a server with the plugin enabled and a catalog of synthetic sounds
+     * @param soundCount Number of sounds in the catalog
+     */
+    static BenchmarkServer start(int soundCount) throws IOException {
+        ServerMock server = MockBukkit.mock();
+        MockBukkit.createMockPlugin("Nexo");
+        JoinSounds plugin = MockBukkit.load(JoinSounds.class);
+
+        // Keep the plugin quiet and off the file system while measuring
+        plugin.getConfig().set("general.debug", false);
+        plugin.getConfig().set("advanced.watch-files", false);
+        plugin.getConfig().set("advanced.catalog-cache", false);
+        plugin.saveConfig();
+        plugin.getConfigManager().reloadConfigs();
+
+        SyntheticData.writeSounds(new File(plugin.getDataFolder(), "sounds.yml"), soundCount);
+        plugin.getSoundManager().loadSounds();
+        return new BenchmarkServer(server, plugin);
+    }
+
+    /**
+     * Switch storage and load a synthetic player dataset through a fresh PlayerDataManager
+     * @param storageType YAML or H2
+     * @param players The players to store
+     * @param soundCount Number of sounds in the catalog
+     * @return A manager holding every player
+     */
+    PlayerDataManager loadPlayers(String storageType, UUID[] players, int soundCount) throws IOException, SQLException {
+        plugin.getConfig().set("storage.type", storageType);
+        plugin.saveConfig();
+        plugin.getConfigManager().reloadConfigs();
+
+        if (storageType.equals("YAML")) {
+            SyntheticData.writePlayerYaml(new File(plugin.getDataFolder(), plugin.getConfigManager().getYamlFileName()),
+                    players, soundCount);
+            return new PlayerDataManager(plugin);
+        }
+
+        // The manager creates the tables; the rows are inserted afterwards and loaded again
+        PlayerDataManager manager = new PlayerDataManager(plugin);
+        File dbFile = new File(plugin.getDataFolder(), plugin.getConfigManager().getH2FileName());
+        String jdbcUrl = "jdbc:h2:" + dbFile.getAbsolutePath().replace(".db", "") + ";MODE=MySQL";
+        SyntheticData.insertPlayerRows(jdbcUrl, plugin.getConfigManager().getTablePrefix(), players, soundCount);
+        manager.loadPlayerData();
+        return manager;
+    }
+
+    ServerMock getServer() {
+        return server;
+    }
+
+    JoinSounds getPlugin() {
+        return plugin;
+    }
+
+    void stop() {
+        MockBukkit.unmock();
+    }
+}
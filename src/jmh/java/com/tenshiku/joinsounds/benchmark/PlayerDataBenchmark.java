@@ -0,0 +1,83 @@
+package com.tenshiku.joinsounds.benchmark;
+
+import com.tenshiku.joinsounds.managers.CooldownService;
+import com.tenshiku.joinsounds.managers.PlayerDataManager;
+import com.tenshiku.joinsounds.models.CooldownKind;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Cooldown checks and full saves against player datasets of increasing size
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+public class PlayerDataBenchmark {
+
+    private static final int SOUNDS = 500;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int players;
+
+    @Param({"YAML", "H2"})
+    public String storage;
+
+    private BenchmarkServer server;
+    private PlayerDataManager dataManager;
+    private CooldownService cooldowns;
+    private UUID[] uuids;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        server = BenchmarkServer.start(SOUNDS);
+        uuids = SyntheticData.players(players);
+        dataManager = server.loadPlayers(storage, uuids, SOUNDS);
+        cooldowns = server.getPlugin().getCooldowns();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.stop();
+    }
+
+    /**
+     * Rejoin cooldown check made on every join; last-join times are spread over the past minute,
+     * so most players' cooldowns have expired and been pruned by the wheel
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public boolean isOnCooldown() {
+        UUID uuid = uuids[next];
+        next = next + 1 == players ? 0 : next + 1;
+        return cooldowns.isActive(CooldownKind.REJOIN, uuid);
+    }
+
+    /**
+     * Write every player: saveToYaml for YAML, the batched upserts for H2
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public void saveAll() {
+        dataManager.saveAll();
+    }
+}
@@ -0,0 +1,89 @@
+package com.tenshiku.joinsounds.benchmark;
+
+import com.tenshiku.joinsounds.managers.SoundManager;
+import com.tenshiku.joinsounds.models.JoinSound;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Catalog lookups made on every join, command and tab completion
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SoundLookupBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int sounds;
+
+    private BenchmarkServer server;
+    private SoundManager soundManager;
+    private String[] ids;
+    private String[] aliases;
+    private JoinSound[] catalog;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        server = BenchmarkServer.start(sounds);
+        soundManager = server.getPlugin().getSoundManager();
+
+        ids = new String[sounds];
+        aliases = new String[sounds];
+        catalog = new JoinSound[sounds];
+        for (int i = 0; i < sounds; i++) {
+            ids[i] = SyntheticData.soundId(i);
+            // Mixed case, as typed by players
+            aliases[i] = SyntheticData.alias(i).toUpperCase();
+            catalog[i] = soundManager.getSound(ids[i]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.stop();
+    }
+
+    private int nextIndex() {
+        int index = next;
+        next = index + 1 == sounds ? 0 : index + 1;
+        return index;
+    }
+
+    @Benchmark
+    public JoinSound getSoundById() {
+        return soundManager.getSound(ids[nextIndex()]);
+    }
+
+    @Benchmark
+    public JoinSound getSoundByAlias() {
+        return soundManager.getSound(aliases[nextIndex()]);
+    }
+
+    @Benchmark
+    public JoinSound getSoundByOrdinal() {
+        return soundManager.getSound(catalog[nextIndex()].getOrdinal());
+    }
+
+    @Benchmark
+    public boolean isSeasonallyAvailable() {
+        // A quarter of the catalog is seasonal
+        return catalog[nextIndex()].isSeasonallyAvailable();
+    }
+}
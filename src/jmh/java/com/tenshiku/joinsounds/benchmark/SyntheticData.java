@@ -0,0 +1,140 @@
+package com.tenshiku.joinsounds.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+
+/**
+ * Generates sound catalogs and player datasets for the benchmarks.
+ * Everything is derived from a fixed seed, so every run sees the same data.
+ */
+final class SyntheticData {
+
+    static final long SEED = 0x4A53L;
+
+    private SyntheticData() {
+    }
+
+    static String soundId(int index) {
+        return "sound_" + index;
+    }
+
+    static String alias(int index) {
+        return "alias_" + index;
+    }
+
+    static String permission(int index) {
+        return "joinsounds.sound." + index;
+    }
+
+    /**
+     * @return The players' UUIDs; the same for every call with the same count
+     */
+    static UUID[] players(int count) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        UUID[] uuids = new UUID[count];
+        for (int i = 0; i < count; i++) {
+            uuids[i] = new UUID(random.nextLong(), random.nextLong());
+        }
+        return uuids;
+    }
+
+    /**
+     * Write a sounds.yml with one alias per sound; every fourth sound is seasonal,
+     * half of those in a season that wraps around the new year
+     */
+    static void writeSounds(File file, int count) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writer.write("sounds:\n");
+            for (int i = 0; i < count; i++) {
+                writer.write("  " + soundId(i) + ":\n");
+                writer.write("    display-name: \"&7Sound " + i + "\"\n");
+                writer.write("    nexo-sound-id: \"bench:sound." + i + "\"\n");
+                writer.write("    permission: \"" + permission(i) + "\"\n");
+                writer.write("    description:\n      - \"&7Synthetic sound " + i + "\"\n");
+                if (i % 4 == 0) {
+                    boolean wraps = i % 8 == 0;
+                    writer.write("    seasonal:\n");
+                    writer.write("      start-date: \"" + (wraps ? "12-01" : "03-01") + "\"\n");
+                    writer.write("      end-date: \"" + (wraps ? "02-28" : "09-30") + "\"\n");
+                }
+            }
+
+            writer.write("aliases:\n");
+            for (int i = 0; i < count; i++) {
+                writer.write("  " + alias(i) + ": " + soundId(i) + "\n");
+            }
+        }
+    }
+
+    /**
+     * Write a playerdata.yml where every player has a sound and a third have trigger sounds
+     */
+    static void writePlayerYaml(File file, UUID[] players, int soundCount) throws IOException {
+        SplittableRandom random = new SplittableRandom(SEED);
+        long now = System.currentTimeMillis();
+
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            for (int i = 0; i < players.length; i++) {
+                writer.write(players[i] + ":\n");
+                writer.write("  sound: " + soundId(random.nextInt(soundCount)) + "\n");
+                writer.write("  last-change: " + (now - random.nextLong(86_400_000L)) + "\n");
+                writer.write("  last-join: " + (now - random.nextLong(60_000L)) + "\n");
+                if (i % 3 == 0) {
+                    writer.write("  triggers:\n");
+                    writer.write("    quit: " + soundId(random.nextInt(soundCount)) + "\n");
+                }
+            }
+        }
+    }
+
+    /**
+     * Insert the same dataset as {@link #writePlayerYaml} into the plugin's tables
+     */
+    static void insertPlayerRows(String jdbcUrl, String tablePrefix, UUID[] players, int soundCount) throws SQLException {
+        SplittableRandom random = new SplittableRandom(SEED);
+        long now = System.currentTimeMillis();
+
+        try (Connection conn = DriverManager.getConnection(jdbcUrl, "sa", "");
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "MERGE INTO " + tablePrefix + "players (uuid, sound, last_change, last_join) VALUES (?, ?, ?, ?)");
+             PreparedStatement triggerStmt = conn.prepareStatement(
+                     "MERGE INTO " + tablePrefix + "trigger_sounds (uuid, trigger_type, sound) VALUES (?, ?, ?)")) {
+
+            conn.setAutoCommit(false);
+            for (int i = 0; i < players.length; i++) {
+                String uuid = players[i].toString();
+                pstmt.setString(1, uuid);
+                pstmt.setString(2, soundId(random.nextInt(soundCount)));
+                pstmt.setLong(3, now - random.nextLong(86_400_000L));
+                pstmt.setLong(4, now - random.nextLong(60_000L));
+                pstmt.addBatch();
+
+                if (i % 3 == 0) {
+                    triggerStmt.setString(1, uuid);
+                    triggerStmt.setString(2, "quit");
+                    triggerStmt.setString(3, soundId(random.nextInt(soundCount)));
+                    triggerStmt.addBatch();
+                }
+
+                if (i % 10_000 == 9_999) {
+                    pstmt.executeBatch();
+                    triggerStmt.executeBatch();
+                    conn.commit();
+                }
+            }
+            pstmt.executeBatch();
+            triggerStmt.executeBatch();
+            conn.commit();
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.tenshiku.joinsounds.loadtest;
+
+import com.tenshiku.joinsounds.JoinSounds;
+import com.tenshiku.joinsounds.managers.MetricsRegistry;
+import com.tenshiku.joinsounds.models.Histogram;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.permissions.PermissionAttachment;
+import org.mockbukkit.mockbukkit.MockBukkit;
+import org.mockbukkit.mockbukkit.ServerMock;
+import org.mockbukkit.mockbukkit.entity.PlayerMock;
+import org.mockbukkit.mockbukkit.scheduler.BukkitSchedulerMock;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+
+/**
+ * Simulates a wave of players joining a mock server and checks the result against the budgets.
+ * Joins go through the server's event pipeline, so the real listeners, trigger engine, sound manager
+ * and player data manager handle them. A share of the players then quit, which flushes their data
+ * through the async storage queue.
+ * Exits with status 1 if any budget was exceeded, so ./gradlew loadTest fails.
+ */
+public final class JoinWaveSimulation {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // At least PlayerDataManager's YAML save delay
+    private static final long YAML_SAVE_TICKS = 20L;
+
+    private final SimulationSettings settings;
+    private final SplittableRandom random;
+    private final Histogram tickTime;
+    private final Histogram storageQueue;
+
+    private ServerMock server;
+    private JoinSounds plugin;
+    private long joinAllocatedBytes;
+    private long quitAllocatedBytes;
+    private long joins;
+    private long quits;
+    private long drainNanos;
+
+    private JoinWaveSimulation(SimulationSettings settings) {
+        this.settings = settings;
+        this.random = new SplittableRandom(settings.seed);
+        this.tickTime = new Histogram();
+        this.storageQueue = new Histogram();
+    }
+
+    public static void main(String[] args) throws Exception {
+        SimulationSettings settings = SimulationSettings.load();
+        System.out.println("Simulating " + settings);
+
+        LoadReport report;
+        JoinWaveSimulation simulation = new JoinWaveSimulation(settings);
+        try {
+            report = simulation.run();
+        } finally {
+            MockBukkit.unmock();
+        }
+
+        report.print(System.out);
+        report.write(settings.report);
+
+        List<String> violations = report.check(settings.budgets);
+        if (!violations.isEmpty()) {
+            System.err.println("Load test budgets exceeded:");
+            violations.forEach(violation -> System.err.println("  " + violation));
+            System.exit(1);
+        }
+        System.out.println("All budgets met");
+        System.exit(0);
+    }
+
+    private LoadReport run() throws IOException, SQLException {
+        start();
+
+        List<World> worlds = new ArrayList<>();
+        for (int i = 0; i < settings.worlds; i++) {
+            worlds.add(server.addSimpleWorld("world_" + i));
+        }
+
+        List<PlayerMock> online = new ArrayList<>(settings.players);
+        UUID[] uuids = playerIds();
+        for (int i = 0; i < uuids.length; i += settings.joinsPerTick) {
+            int end = Math.min(uuids.length, i + settings.joinsPerTick);
+
+            // Players are set up before the tick, so only the join itself is measured
+            PlayerMock[] batch = new PlayerMock[end - i];
+            for (int j = 0; j < batch.length; j++) {
+                batch[j] = createPlayer(i + j, uuids[i + j], worlds.get(random.nextInt(worlds.size())));
+            }
+
+            joinAllocatedBytes += measureTick(() -> {
+                for (PlayerMock player : batch) {
+                    server.addPlayer(player);
+                    online.add(player);
+                    joins++;
+                }
+            });
+        }
+
+        // Quits run in ticks of their own once everyone has joined; each tick's saves queue up behind the last
+        int quitting = (int) (online.size() * settings.quitFraction);
+        for (int i = 0; i < quitting; i += settings.joinsPerTick) {
+            int end = Math.min(quitting, i + settings.joinsPerTick);
+            int from = i;
+            quitAllocatedBytes += measureTick(() -> {
+                for (int j = from; j < end; j++) {
+                    online.get(j).disconnect();
+                    quits++;
+                }
+            });
+        }
+
+        long drainStart = System.nanoTime();
+        // Idle ticks let the debounced YAML save start before the queue is drained
+        server.getScheduler().performTicks(YAML_SAVE_TICKS);
+        server.getScheduler().waitAsyncTasksFinished();
+        drainNanos = System.nanoTime() - drainStart;
+
+        MetricsRegistry metrics = plugin.getMetrics();
+        return new LoadReport(settings, joins, quits, tickTime.snapshot(), joinAllocatedBytes, quitAllocatedBytes,
+                storageQueue.snapshot(), drainNanos, metrics);
+    }
+
+    /**
+     * Boot the plugin, then restart it on the simulated dataset so it picks up the storage type
+     */
+    private void start() throws IOException, SQLException {
+        server = MockBukkit.mock();
+        MockBukkit.createMockPlugin("Nexo");
+        plugin = MockBukkit.load(JoinSounds.class);
+
+        // Disabled before writing, so the shutdown save does not overwrite the dataset
+        server.getPluginManager().disablePlugin(plugin);
+
+        plugin.getConfig().set("general.debug", false);
+        plugin.getConfig().set("advanced.watch-files", false);
+        plugin.getConfig().set("advanced.catalog-cache", false);
+        plugin.getConfig().set("storage.type", settings.storage);
+        plugin.saveConfig();
+
+        writeSounds(new File(plugin.getDataFolder(), "sounds.yml"));
+        if (settings.storage.equals("YAML")) {
+            writePlayerYaml(new File(plugin.getDataFolder(), plugin.getConfigManager().getYamlFileName()));
+        }
+
+        server.getPluginManager().enablePlugin(plugin);
+        if (!plugin.isEnabled()) {
+            throw new IllegalStateException("JoinSounds did not enable on the mock server");
+        }
+
+        if (settings.storage.equals("H2")) {
+            // The manager creates the tables on enable; the rows are inserted afterwards and loaded again
+            File dbFile = new File(plugin.getDataFolder(), plugin.getConfigManager().getH2FileName());
+            insertPlayerRows("jdbc:h2:" + dbFile.getAbsolutePath().replace(".db", "") + ";MODE=MySQL");
+            plugin.getPlayerDataManager().loadPlayerData();
+        }
+    }
+
+    /**
+     * Run one server tick with the given work in front of it, recording its time and the storage queue left behind
+     * @return Bytes the main thread allocated during the tick
+     */
+    private long measureTick(Runnable work) {
+        BukkitSchedulerMock scheduler = server.getScheduler();
+        long allocatedBefore = THREADS.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        work.run();
+        scheduler.performOneTick();
+        tickTime.recordSince(start);
+        long allocated = THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        storageQueue.record(scheduler.getNumberOfQueuedAsyncTasks());
+        return allocated;
+    }
+
+    /**
+     * Create a player near their world's spawn with the use permission and a random share of the sound permissions
+     */
+    private PlayerMock createPlayer(int index, UUID uuid, World world) {
+        PlayerMock player = new PlayerMock(server, "player_" + index, uuid);
+
+        Location spawn = world.getSpawnLocation();
+        double x = spawn.getX() + random.nextGaussian() * settings.spawnSpread;
+        double z = spawn.getZ() + random.nextGaussian() * settings.spawnSpread;
+        player.setLocation(new Location(world, x, spawn.getY(), z, (float) random.nextDouble(360), 0));
+
+        PermissionAttachment attachment = player.addAttachment(plugin);
+        attachment.setPermission(plugin.getConfigManager().getSettings().getUsePermission(), true);
+        for (int i = 0; i < settings.sounds; i++) {
+            if (random.nextDouble() < 0.7) {
+                attachment.setPermission(permission(i), true);
+            }
+        }
+        return player;
+    }
+
+    private UUID[] playerIds() {
+        SplittableRandom ids = new SplittableRandom(settings.seed);
+        UUID[] uuids = new UUID[settings.players];
+        for (int i = 0; i < uuids.length; i++) {
+            uuids[i] = new UUID(ids.nextLong(), ids.nextLong());
+        }
+        return uuids;
+    }
+
+    private static String soundId(int index) {
+        return "sound_" + index;
+    }
+
+    private static String permission(int index) {
+        return "joinsounds.sound." + index;
+    }
+
+    private void writeSounds(File file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writer.write("sounds:\n");
+            for (int i = 0; i < settings.sounds; i++) {
+                writer.write("  " + soundId(i) + ":\n");
+                writer.write("    display-name: \"&7Sound " + i + "\"\n");
+                writer.write("    nexo-sound-id: \"loadtest:sound." + i + "\"\n");
+                writer.write("    permission: \"" + permission(i) + "\"\n");
+                writer.write("    radius: " + (16 + i % 4 * 16) + "\n");
+            }
+        }
+    }
+
+    /**
+     * Stored selections for the configured share of players; the rest have never picked a sound
+     */
+    private void writePlayerYaml(File file) throws IOException {
+        SplittableRandom data = new SplittableRandom(settings.seed + 1);
+        UUID[] uuids = playerIds();
+        long now = System.currentTimeMillis();
+
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            for (UUID uuid : uuids) {
+                if (data.nextDouble() >= settings.storedFraction) {
+                    continue;
+                }
+                writer.write(uuid + ":\n");
+                writer.write("  sound: " + soundId(data.nextInt(settings.sounds)) + "\n");
+                writer.write("  last-change: " + (now - data.nextLong(86_400_000L)) + "\n");
+                writer.write("  last-join: " + (now - 3_600_000L - data.nextLong(86_400_000L)) + "\n");
+            }
+        }
+    }
+
+    /**
+     * Insert the same dataset as {@link #writePlayerYaml} into the plugin's tables
+     */
+    private void insertPlayerRows(String jdbcUrl) throws SQLException {
+        String tablePrefix = plugin.getConfigManager().getTablePrefix();
+        SplittableRandom data = new SplittableRandom(settings.seed + 1);
+        UUID[] uuids = playerIds();
+        long now = System.currentTimeMillis();
+
+        try (Connection conn = DriverManager.getConnection(jdbcUrl,
+                plugin.getConfigManager().getH2Username(), plugin.getConfigManager().getH2Password());
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "MERGE INTO " + tablePrefix + "players (uuid, sound, last_change, last_join) VALUES (?, ?, ?, ?)")) {
+
+            conn.setAutoCommit(false);
+            for (UUID uuid : uuids) {
+                if (data.nextDouble() >= settings.storedFraction) {
+                    continue;
+                }
+                pstmt.setString(1, uuid.toString());
+                pstmt.setString(2, soundId(data.nextInt(settings.sounds)));
+                pstmt.setLong(3, now - data.nextLong(86_400_000L));
+                pstmt.setLong(4, now - 3_600_000L - data.nextLong(86_400_000L));
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+            conn.commit();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.tenshiku.joinsounds.loadtest;
+
+import com.tenshiku.joinsounds.managers.MetricsRegistry;
+import com.tenshiku.joinsounds.models.Histogram;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+
+/**
+ * Results of one simulation, with the values that budgets are checked against
+ */
+final class LoadReport {
+
+    private final SimulationSettings settings;
+    private final long joins;
+    private final long quits;
+    private final Histogram.Snapshot ticks;
+    private final long joinAllocatedBytes;
+    private final long quitAllocatedBytes;
+    private final Histogram.Snapshot storageQueue;
+    private final long drainNanos;
+    private final MetricsRegistry metrics;
+
+    // Values checked against budgets, keyed by budget name
+    private final Map<String, Double> measured;
+
+    LoadReport(SimulationSettings settings, long joins, long quits, Histogram.Snapshot ticks, long joinAllocatedBytes,
+               long quitAllocatedBytes, Histogram.Snapshot storageQueue, long drainNanos, MetricsRegistry metrics) {
+        this.settings = settings;
+        this.joins = joins;
+        this.quits = quits;
+        this.ticks = ticks;
+        this.joinAllocatedBytes = joinAllocatedBytes;
+        this.quitAllocatedBytes = quitAllocatedBytes;
+        this.storageQueue = storageQueue;
+        this.drainNanos = drainNanos;
+        this.metrics = metrics;
+
+        long slowestStorage = 0;
+        for (MetricsRegistry.StorageCall call : MetricsRegistry.StorageCall.values()) {
+            slowestStorage = Math.max(slowestStorage, metrics.getStorageCall(call).snapshot().getMax());
+        }
+
+        this.measured = new LinkedHashMap<>();
+        measured.put("tick.p99.ms", millis(ticks.getValueAt(0.99)));
+        measured.put("tick.max.ms", millis(ticks.getMax()));
+        measured.put("alloc.per.join.kb", joins > 0 ? joinAllocatedBytes / 1024.0 / joins : 0);
+        measured.put("alloc.per.quit.kb", quits > 0 ? quitAllocatedBytes / 1024.0 / quits : 0);
+        measured.put("storage.queue.max", (double) storageQueue.getMax());
+        // The same peak in ticks' worth of players, so one budget fits any joins-per-tick
+        measured.put("storage.queue.ticks", storageQueue.getMax() / (double) settings.joinsPerTick);
+        measured.put("storage.drain.ms", millis(drainNanos));
+        measured.put("storage.call.max.ms", millis(slowestStorage));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    /**
+     * @return A line for every measured value above its budget; empty if all are met
+     */
+    List<String> check(Properties budgets) {
+        List<String> violations = new ArrayList<>();
+        for (Map.Entry<String, Double> entry : measured.entrySet()) {
+            String budget = budgets.getProperty(entry.getKey());
+            if (budget == null) {
+                continue;
+            }
+
+            double limit = Double.parseDouble(budget.trim());
+            if (entry.getValue() > limit) {
+                violations.add(entry.getKey() + " = " + format(entry.getValue()) + ", budget " + format(limit));
+            }
+        }
+        return violations;
+    }
+
+    void print(PrintStream out) {
+        out.println("Joins: " + joins + ", quits: " + quits + ", ticks: " + ticks.getCount());
+        out.println("Tick time: mean " + format(millis((long) ticks.getMean())) + "ms, p50 " +
+                format(millis(ticks.getValueAt(0.5))) + "ms, p99 " + format(millis(ticks.getValueAt(0.99))) +
+                "ms, max " + format(millis(ticks.getMax())) + "ms");
+        out.println("Main thread allocation: " + format(joinAllocatedBytes / 1_048_576.0) + "MB in join ticks, " +
+                format(measured.get("alloc.per.join.kb")) + "KB per join; " +
+                format(quitAllocatedBytes / 1_048_576.0) + "MB in quit ticks, " +
+                format(measured.get("alloc.per.quit.kb")) + "KB per quit");
+        out.println("Storage queue: mean " + format(storageQueue.getMean()) + ", max " + storageQueue.getMax() +
+                " tasks; drained in " + format(millis(drainNanos)) + "ms");
+
+        for (MetricsRegistry.StorageCall call : MetricsRegistry.StorageCall.values()) {
+            Histogram.Snapshot snapshot = metrics.getStorageCall(call).snapshot();
+            if (snapshot.getCount() > 0) {
+                out.println("Storage " + call.getKey() + ": " + snapshot.getCount() + " calls, p99 " +
+                        format(millis(snapshot.getValueAt(0.99))) + "ms, max " + format(millis(snapshot.getMax())) + "ms");
+            }
+        }
+        if (metrics.getStorageErrors().sum() > 0) {
+            out.println("Storage errors: " + metrics.getStorageErrors().sum());
+        }
+    }
+
+    /**
+     * Write the report as JSON, for CI to keep as an artifact
+     */
+    void write(Path file) throws IOException {
+        StringBuilder json = new StringBuilder(1024);
+        json.append("{\n");
+        json.append("  \"settings\": \"").append(settings).append("\",\n");
+        json.append("  \"joins\": ").append(joins).append(",\n");
+        json.append("  \"quits\": ").append(quits).append(",\n");
+        json.append("  \"ticks\": ").append(ticks.getCount()).append(",\n");
+        json.append("  \"joinAllocatedBytes\": ").append(joinAllocatedBytes).append(",\n");
+        json.append("  \"quitAllocatedBytes\": ").append(quitAllocatedBytes).append(",\n");
+        json.append("  \"storageErrors\": ").append(metrics.getStorageErrors().sum()).append(",\n");
+        json.append("  \"measured\": {");
+        String separator = "\n";
+        for (Map.Entry<String, Double> entry : measured.entrySet()) {
+            json.append(separator).append("    \"").append(entry.getKey()).append("\": ").append(format(entry.getValue()));
+            separator = ",\n";
+        }
+        json.append("\n  }\n}\n");
+
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Files.write(file, json.toString().getBytes(StandardCharsets.UTF_8));
+        System.out.println("Report written to " + file);
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+}
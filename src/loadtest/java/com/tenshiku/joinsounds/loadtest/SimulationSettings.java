@@ -0,0 +1,81 @@
+package com.tenshiku.joinsounds.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+
+/**
+ * Parameters of one simulated join wave, read from 'loadtest.*' system properties
+ * (passed through from Gradle with -Ploadtest.players=5000 and so on)
+ */
+final class SimulationSettings {
+
+    private static final String PREFIX = "loadtest.";
+
+    final int players;
+    final int worlds;
+    final int joinsPerTick;
+    final double storedFraction;
+    final double quitFraction;
+    final int spawnSpread;
+    final String storage;
+    final int sounds;
+    final long seed;
+    final Path report;
+    final Properties budgets;
+
+    private SimulationSettings(Properties budgets) {
+        players = integer("players", 2000);
+        worlds = integer("worlds", 4);
+        joinsPerTick = integer("joins-per-tick", 20);
+        storedFraction = decimal("stored-fraction", 0.8);
+        quitFraction = decimal("quit-fraction", 0.25);
+        spawnSpread = integer("spawn-spread", 48);
+        storage = System.getProperty(PREFIX + "storage", "YAML").toUpperCase();
+        sounds = integer("sounds", 200);
+        seed = Long.getLong(PREFIX + "seed", 0x4A53L);
+        report = Path.of(System.getProperty(PREFIX + "report", "build/reports/loadtest/report.json"));
+        this.budgets = budgets;
+    }
+
+    /**
+     * Read the settings and the budgets; a 'loadtest.budgets' file replaces the bundled budgets
+     */
+    static SimulationSettings load() throws IOException {
+        Properties budgets = new Properties();
+        String budgetFile = System.getProperty(PREFIX + "budgets");
+        if (budgetFile != null) {
+            try (Reader reader = Files.newBufferedReader(Path.of(budgetFile), StandardCharsets.UTF_8)) {
+                budgets.load(reader);
+            }
+        } else {
+            try (InputStream in = SimulationSettings.class.getResourceAsStream("/loadtest-budgets.properties")) {
+                if (in != null) {
+                    budgets.load(in);
+                }
+            }
+        }
+        return new SimulationSettings(budgets);
+    }
+
+    private static int integer(String key, int def) {
+        return Integer.getInteger(PREFIX + key, def);
+    }
+
+    private static double decimal(String key, double def) {
+        String value = System.getProperty(PREFIX + key);
+        return value != null ? Double.parseDouble(value) : def;
+    }
+
+    @Override
+    public String toString() {
+        return players + " players across " + worlds + " worlds, " + joinsPerTick + " joins per tick, " +
+                Math.round(storedFraction * 100) + "% with stored sounds, " + Math.round(quitFraction * 100) +
+                "% quitting afterwards, " + sounds + " sounds, " + storage + " storage";
+    }
+}
@@ -1,11 +1,27 @@
 package com.tenshiku.joinsounds;
 
 import com.tenshiku.joinsounds.commands.JoinSoundCommand;
+import com.tenshiku.joinsounds.listeners.MenuListener;
 import com.tenshiku.joinsounds.listeners.PlayerJoinListener;
+import com.tenshiku.joinsounds.listeners.PlayerStateListener;
+import com.tenshiku.joinsounds.listeners.WorldListener;
+import com.tenshiku.joinsounds.managers.ConfigFileWatcher;
 import com.tenshiku.joinsounds.managers.ConfigManager;
+import com.tenshiku.joinsounds.managers.CooldownService;
+import com.tenshiku.joinsounds.managers.JoinTracer;
+import com.tenshiku.joinsounds.managers.MainThreadWatchdog;
+import com.tenshiku.joinsounds.managers.MetricsRegistry;
 import com.tenshiku.joinsounds.managers.PlayerDataManager;
+import com.tenshiku.joinsounds.managers.SessionManager;
 import com.tenshiku.joinsounds.managers.SoundManager;
+import com.tenshiku.joinsounds.managers.SoundMenuManager;
+import com.tenshiku.joinsounds.managers.TriggerEngine;
+import io.papermc.paper.plugin.lifecycle.event.types.LifecycleEvents;
 import org.bukkit.plugin.java.JavaPlugin;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public final class JoinSounds extends JavaPlugin {
 
@@ -14,6 +30,16 @@ public final class JoinSounds extends JavaPlugin {
     private ConfigManager configManager;
     private SoundManager soundManager;
     private PlayerDataManager playerDataManager;
+    private ConfigFileWatcher fileWatcher;
+    private JoinTracer joinTracer;
+    private MetricsRegistry metrics;
+    private MainThreadWatchdog watchdog;
+    private CooldownService cooldowns;
+    private SoundMenuManager soundMenuManager;
+    private SessionManager sessionManager;
+    private TriggerEngine triggerEngine;
+    private JoinSoundCommand joinSoundCommand;
+    private final AtomicBoolean reloading = new AtomicBoolean();
 
     @Override
     public void onEnable() {
@@ -49,10 +75,19 @@ public final class JoinSounds extends JavaPlugin {
         }
 
         try {
+            this.joinTracer = new JoinTracer(configManager.getSettings().getJoinTraceSize());
+            this.metrics = new MetricsRegistry(this);
+            this.watchdog = new MainThreadWatchdog(this);
+            this.sessionManager = new SessionManager(this);
+            this.cooldowns = new CooldownService(this);
+
             this.soundManager = new SoundManager(this);
+            soundManager.loadSounds();
+
             this.playerDataManager = new PlayerDataManager(this);
 
-            soundManager.loadSounds();
+            this.soundMenuManager = new SoundMenuManager(this);
+            this.triggerEngine = new TriggerEngine(this);
 
             getLogger().info("All managers initialized successfully!");
         } catch (Exception e) {
@@ -62,47 +97,30 @@ public final class JoinSounds extends JavaPlugin {
             return;
         }
 
-        JoinSoundCommand commandExecutor = new JoinSoundCommand(this);
-
-        getServer().getScheduler().runTask(this, () -> {
-            try {
-                java.lang.reflect.Method getCommandMapMethod = getServer().getClass().getMethod("getCommandMap");
-                org.bukkit.command.CommandMap commandMap = (org.bukkit.command.CommandMap) getCommandMapMethod.invoke(getServer());
-
-                org.bukkit.command.Command joinSoundCommand = new org.bukkit.command.Command("joinsound") {
-                    @Override
-                    public boolean execute(org.bukkit.command.CommandSender sender, String commandLabel, String[] args) {
-                        return commandExecutor.onCommand(sender, this, commandLabel, args);
-                    }
-
-                    @Override
-                    public java.util.List<String> tabComplete(org.bukkit.command.CommandSender sender, String alias, String[] args) {
-                        return commandExecutor.onTabComplete(sender, this, alias, args);
-                    }
-                };
-
-                joinSoundCommand.setDescription("Manage your join sound");
-                joinSoundCommand.setUsage("/joinsound [set|remove|preview|list|info|reload] [sound]");
-                joinSoundCommand.setAliases(java.util.Arrays.asList("js", "joinmusic"));
-                joinSoundCommand.setPermission("joinsounds.use");
-
-                commandMap.register("joinsounds", joinSoundCommand);
-
-                getLogger().info("Commands registered successfully!");
-            } catch (Exception e) {
-                getLogger().severe("Failed to register commands: " + e.getMessage());
-                e.printStackTrace();
-            }
+        this.joinSoundCommand = new JoinSoundCommand(this);
+        getLifecycleManager().registerEventHandler(LifecycleEvents.COMMANDS, event -> {
+            event.registrar().register(joinSoundCommand.build(), "Manage your join sound", List.of("js", "joinmusic"));
+            getLogger().info("Commands registered successfully!");
         });
 
         try {
             getServer().getPluginManager().registerEvents(new PlayerJoinListener(this), this);
+            getServer().getPluginManager().registerEvents(new PlayerStateListener(this), this);
+            getServer().getPluginManager().registerEvents(new WorldListener(this), this);
+            getServer().getPluginManager().registerEvents(new MenuListener(this), this);
             getLogger().info("Event listeners registered!");
         } catch (Exception e) {
             getLogger().severe("Failed to register event listeners: " + e.getMessage());
             e.printStackTrace();
         }
 
+        // Players already online after a reload
+        getServer().getOnlinePlayers().forEach(sessionManager::open);
+
+        updateFileWatcher();
+        metrics.updateExport(configManager.getSettings());
+        watchdog.update(configManager.getSettings());
+
         getLogger().info("JoinSounds plugin has been enabled successfully!");
         getLogger().info("Nexo integration active!");
 
@@ -117,6 +135,26 @@ public final class JoinSounds extends JavaPlugin {
     public void onDisable() {
         getLogger().info("Disabling JoinSounds plugin...");
 
+        if (fileWatcher != null) {
+            fileWatcher.stop();
+        }
+
+        if (metrics != null) {
+            metrics.stopExport();
+        }
+
+        if (watchdog != null) {
+            watchdog.stop();
+        }
+
+        if (soundMenuManager != null) {
+            soundMenuManager.closeAll();
+        }
+
+        if (sessionManager != null) {
+            sessionManager.closeAll();
+        }
+
         if (playerDataManager != null) {
             try {
                 playerDataManager.saveAll();
@@ -148,19 +186,100 @@ public final class JoinSounds extends JavaPlugin {
         return playerDataManager;
     }
 
-    public void reloadPlugin() {
-        try {
-            getLogger().info("Reloading JoinSounds plugin...");
+    public SessionManager getSessionManager() {
+        return sessionManager;
+    }
 
-            configManager.reloadConfigs();
-            soundManager.loadSounds();
-            playerDataManager.loadPlayerData();
+    public SoundMenuManager getSoundMenuManager() {
+        return soundMenuManager;
+    }
+
+    public TriggerEngine getTriggerEngine() {
+        return triggerEngine;
+    }
+
+    public JoinSoundCommand getJoinSoundCommand() {
+        return joinSoundCommand;
+    }
+
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+    public CooldownService getCooldowns() {
+        return cooldowns;
+    }
+
+    public MainThreadWatchdog getWatchdog() {
+        return watchdog;
+    }
+
+    public JoinTracer getJoinTracer() {
+        return joinTracer;
+    }
+
+    /**
+     * Reload configuration, sounds and player data.
+     * The sound catalog is rebuilt off the main thread and swapped in atomically,
+     * so joins and commands keep seeing the previous catalog until it is ready.
+     * Player data is re-read on the same async thread once the new catalog is in place.
+     * @return Future completed on the main thread once the reload has finished; fails if a reload is already running
+     */
+    public CompletableFuture<Void> reloadPlugin() {
+        if (!reloading.compareAndSet(false, true)) {
+            return CompletableFuture.failedFuture(new IllegalStateException("A reload is already in progress"));
+        }
 
-            getLogger().info("Plugin reloaded successfully!");
+        getLogger().info("Reloading JoinSounds plugin...");
 
+        try {
+            configManager.reloadConfigs();
         } catch (Exception e) {
+            reloading.set(false);
             getLogger().severe("Failed to reload plugin: " + e.getMessage());
             e.printStackTrace();
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return soundManager.reloadSounds()
+                .thenRun(playerDataManager::loadPlayerData)
+                .thenRunAsync(() -> {
+                    updateFileWatcher();
+                    metrics.updateExport(configManager.getSettings());
+                    watchdog.update(configManager.getSettings());
+                    getLogger().info("Plugin reloaded successfully!");
+                }, getServer().getScheduler().getMainThreadExecutor(this))
+                .whenComplete((ignored, e) -> {
+                    reloading.set(false);
+                    if (e != null) {
+                        getLogger().severe("Failed to reload plugin: " + e.getMessage());
+                        e.printStackTrace();
+                    }
+                });
+    }
+
+    /**
+     * Start or stop watching configuration files to match the advanced.watch-files setting
+     */
+    public void updateFileWatcher() {
+        if (fileWatcher == null) {
+            fileWatcher = new ConfigFileWatcher(this);
+        }
+
+        boolean enabled = configManager.shouldWatchFiles();
+        if (enabled == fileWatcher.isRunning()) {
+            return;
+        }
+
+        if (enabled) {
+            try {
+                fileWatcher.start();
+            } catch (IOException e) {
+                getLogger().severe("Failed to start file watcher: " + e.getMessage());
+            }
+        } else {
+            fileWatcher.stop();
+            getLogger().info("Stopped watching configuration files");
         }
     }
-}
\ No newline at end of file
+}
@@ -1,124 +1,207 @@
 package com.tenshiku.joinsounds.commands;
 
+import com.mojang.brigadier.Command;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.suggestion.Suggestions;
+import com.mojang.brigadier.suggestion.SuggestionsBuilder;
+import com.mojang.brigadier.tree.LiteralCommandNode;
 import com.tenshiku.joinsounds.JoinSounds;
+import com.tenshiku.joinsounds.managers.JoinTracer;
+import com.tenshiku.joinsounds.managers.MainThreadWatchdog;
+import com.tenshiku.joinsounds.managers.MetricsRegistry;
+import com.tenshiku.joinsounds.managers.SoundListCache;
+import com.tenshiku.joinsounds.managers.SoundOrdinalRegistry;
+import com.tenshiku.joinsounds.models.CooldownKind;
+import com.tenshiku.joinsounds.models.Histogram;
+import com.tenshiku.joinsounds.models.JoinOutcome;
 import com.tenshiku.joinsounds.models.JoinSound;
-import org.bukkit.command.Command;
-import org.bukkit.command.CommandExecutor;
+import com.tenshiku.joinsounds.models.JoinTrace;
+import com.tenshiku.joinsounds.models.PlayerSession;
+import com.tenshiku.joinsounds.models.PluginSettings;
+import com.tenshiku.joinsounds.models.TriggerType;
+import io.papermc.paper.command.brigadier.CommandSourceStack;
+import io.papermc.paper.command.brigadier.Commands;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.OfflinePlayer;
 import org.bukkit.command.CommandSender;
-import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
-import org.bukkit.util.StringUtil;
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
-
-
-public class JoinSoundCommand implements CommandExecutor, TabCompleter {
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+
+/**
+ * The /joinsound command tree, registered through Paper's Brigadier command API.
+ * Sound arguments are parsed into sounds before a handler runs, and all suggestions
+ * are computed off the main thread.
+ */
+public class JoinSoundCommand {
 
     private final JoinSounds plugin;
-    private final List<String> subCommands = Arrays.asList("set", "remove", "disable", "off", "preview", "list", "info", "reload", "help");
+    private final Executor suggestionExecutor;
+    private final SoundArgument soundArgument;
 
     public JoinSoundCommand(JoinSounds plugin) {
         this.plugin = plugin;
+        this.suggestionExecutor = task -> plugin.getServer().getScheduler().runTaskAsynchronously(plugin, task);
+        this.soundArgument = new SoundArgument(plugin, suggestionExecutor);
     }
 
-    @Override
-    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
-        if (!(sender instanceof Player)) {
-            sender.sendMessage("§cThis command can only be used by players!");
-            return true;
-        }
-
-        Player player = (Player) sender;
-
-        if (!player.hasPermission(plugin.getConfigManager().getUsePermission())) {
-            player.sendMessage(plugin.getConfigManager().getMessage("no-permission"));
-            return true;
-        }
-
-        if (!plugin.getConfigManager().isPluginEnabled()) {
-            player.sendMessage(plugin.getConfigManager().getPrefix() + "§cPlugin is currently disabled.");
-            return true;
-        }
+    /**
+     * @return The command tree to register
+     */
+    public LiteralCommandNode<CommandSourceStack> build() {
+        return Commands.literal("joinsound")
+                .requires(source -> source.getSender().hasPermission(plugin.getConfigManager().getUsePermission()))
+                .executes(player(player -> plugin.getSoundMenuManager().open(player)))
+                .then(Commands.argument("sound", soundArgument)
+                        .executes(player((player, context) -> setSound(player, context.getArgument("sound", JoinSound.class)))))
+                .then(Commands.literal("set")
+                        .then(Commands.argument("sound", soundArgument)
+                                .executes(player((player, context) -> setSound(player, context.getArgument("sound", JoinSound.class))))
+                                .then(Commands.argument("trigger", StringArgumentType.word())
+                                        .suggests(this::suggestTriggers)
+                                        .executes(player((player, context) -> setTriggerSound(player,
+                                                context.getArgument("sound", JoinSound.class),
+                                                StringArgumentType.getString(context, "trigger")))))))
+                .then(literal("remove", player(player -> removeSound(player)))
+                        .then(Commands.argument("trigger", StringArgumentType.word())
+                                .suggests(this::suggestTriggers)
+                                .executes(player((player, context) -> removeTriggerSound(player,
+                                        StringArgumentType.getString(context, "trigger"))))))
+                .then(literal("disable", player(player -> removeSound(player))))
+                .then(literal("off", player(player -> removeSound(player))))
+                .then(Commands.literal("preview")
+                        .then(Commands.argument("sound", soundArgument)
+                                .executes(player((player, context) -> previewSound(player, context.getArgument("sound", JoinSound.class))))))
+                .then(Commands.literal("list")
+                        .executes(player(player -> listSounds(player, 1, "")))
+                        .then(Commands.argument("page", IntegerArgumentType.integer(1))
+                                .executes(player((player, context) -> listSounds(player,
+                                        IntegerArgumentType.getInteger(context, "page"), "")))
+                                .then(Commands.argument("filter", StringArgumentType.greedyString())
+                                        .executes(player((player, context) -> listSounds(player,
+                                                IntegerArgumentType.getInteger(context, "page"),
+                                                StringArgumentType.getString(context, "filter"))))))
+                        .then(Commands.argument("filter", StringArgumentType.greedyString())
+                                .executes(player((player, context) -> listSounds(player, 1,
+                                        StringArgumentType.getString(context, "filter"))))))
+                .then(literal("info", player(this::showInfo)))
+                .then(literal("menu", player(player -> plugin.getSoundMenuManager().open(player))))
+                .then(literal("gui", player(player -> plugin.getSoundMenuManager().open(player))))
+                .then(literal("help", player(this::showHelp)))
+                .then(admin("reload").executes(player(this::reloadConfigs)))
+                .then(admin("admin")
+                        .then(Commands.literal("reset")
+                                .then(Commands.argument("player", StringArgumentType.word())
+                                        .executes(player((player, context) -> resetPlayer(player,
+                                                StringArgumentType.getString(context, "player"))))))
+                        .then(Commands.literal("reassign")
+                                .then(Commands.argument("from", StringArgumentType.word())
+                                        .suggests(this::suggestStoredSounds)
+                                        .then(Commands.argument("to", soundArgument)
+                                                .executes(player((player, context) -> reassignSound(player,
+                                                        StringArgumentType.getString(context, "from"),
+                                                        context.getArgument("to", JoinSound.class)))))))
+                        .then(Commands.literal("clear")
+                                .then(Commands.argument("sound", StringArgumentType.word())
+                                        .suggests(this::suggestStoredSounds)
+                                        .executes(player((player, context) -> clearSound(player,
+                                                StringArgumentType.getString(context, "sound")))))))
+                .then(admin("stats").executes(player(this::showStats)))
+                .then(admin("trace")
+                        .executes(player(player -> showTraces(player, new String[0])))
+                        .then(Commands.argument("filters", StringArgumentType.greedyString())
+                                .suggests(this::suggestTraceFilters)
+                                .executes(player((player, context) -> showTraces(player,
+                                        StringArgumentType.getString(context, "filters").split(" "))))))
+                .build();
+    }
 
-        // No arguments - show help or open GUI (future)
-        if (args.length == 0) {
-            showHelp(player);
-            return true;
-        }
+    private static LiteralArgumentBuilder<CommandSourceStack> literal(String name, Command<CommandSourceStack> command) {
+        return Commands.literal(name).executes(command);
+    }
 
-        String subCommand = args[0].toLowerCase();
+    private LiteralArgumentBuilder<CommandSourceStack> admin(String name) {
+        return Commands.literal(name)
+                .requires(source -> source.getSender().hasPermission(plugin.getConfigManager().getAdminPermission()));
+    }
 
-        switch (subCommand) {
-            case "set":
-                if (args.length < 2) {
-                    player.sendMessage(plugin.getConfigManager().getPrefix() + "§cUsage: /joinsound set <sound>");
-                    return true;
-                }
-                setSound(player, args[1]);
-                break;
-
-            case "remove":
-            case "disable":
-            case "off":
-                removeSound(player);
-                break;
-
-            case "preview":
-                if (args.length < 2) {
-                    player.sendMessage(plugin.getConfigManager().getPrefix() + "§cUsage: /joinsound preview <sound>");
-                    return true;
-                }
-                previewSound(player, args[1]);
-                break;
+    private Command<CommandSourceStack> player(Consumer<Player> handler) {
+        return player((player, context) -> handler.accept(player));
+    }
 
-            case "list":
-                listSounds(player);
-                break;
+    /**
+     * Wrap a handler with the checks every subcommand shares
+     */
+    private Command<CommandSourceStack> player(PlayerHandler handler) {
+        return context -> {
+            CommandSender sender = context.getSource().getSender();
+            if (!(sender instanceof Player)) {
+                sender.sendMessage("§cThis command can only be used by players!");
+                return Command.SINGLE_SUCCESS;
+            }
 
-            case "info":
-                showInfo(player);
-                break;
+            Player player = (Player) sender;
+            if (!plugin.getConfigManager().isPluginEnabled()) {
+                player.sendMessage(plugin.getConfigManager().getPrefix() + "§cPlugin is currently disabled.");
+                return Command.SINGLE_SUCCESS;
+            }
 
-            case "reload":
-                if (!player.hasPermission(plugin.getConfigManager().getAdminPermission())) {
-                    player.sendMessage(plugin.getConfigManager().getMessage("no-permission"));
-                    return true;
-                }
-                reloadConfigs(player);
-                break;
+            long watched = plugin.getWatchdog().enter(MainThreadWatchdog.EntryPoint.COMMAND, context.getInput());
+            try {
+                handler.handle(player, context);
+                // Keeps the set tab completion reads current
+                plugin.getSoundManager().refreshAccess(player);
+            } finally {
+                plugin.getWatchdog().exit(watched);
+            }
+            return Command.SINGLE_SUCCESS;
+        };
+    }
 
-            case "help":
-                showHelp(player);
-                break;
+    @FunctionalInterface
+    private interface PlayerHandler {
+        void handle(Player player, CommandContext<CommandSourceStack> context);
+    }
 
-            default:
-                setSound(player, args[0]);
-                break;
-        }
 
-        return true;
+    /**
+     * Validate and save a player's join sound, reporting the result to them
+     * @param player The player selecting a sound
+     * @param sound The sound to select
+     */
+    public void setSound(Player player, JoinSound sound) {
+        setSound(player, sound, TriggerType.JOIN);
     }
 
-
-    private void setSound(Player player, String soundId) {
-        if (plugin.getPlayerDataManager().isOnCooldown(player.getUniqueId(), "change")) {
-            long remaining = plugin.getPlayerDataManager().getRemainingCooldown(player.getUniqueId(), "change");
-            player.sendMessage(plugin.getConfigManager().getMessage("cooldown-active", "time", String.valueOf(remaining)));
-            return;
+    private void setTriggerSound(Player player, JoinSound sound, String triggerKey) {
+        TriggerType type = parseTrigger(player, triggerKey);
+        if (type != null) {
+            setSound(player, sound, type);
         }
+    }
 
-        JoinSound sound = plugin.getSoundManager().getSound(soundId);
-        if (sound == null) {
-            player.sendMessage(plugin.getConfigManager().getMessage("sound-not-found", "sound", soundId));
+    private void setSound(Player player, JoinSound sound, TriggerType type) {
+        long remaining = plugin.getCooldowns().getRemainingSeconds(CooldownKind.CHANGE, player.getUniqueId());
+        if (remaining > 0) {
+            plugin.getConfigManager().sendMessage(player, "cooldown-active", "time", String.valueOf(remaining));
             return;
         }
 
         if (!sound.isAvailableForSelection()) {
             if (sound.isHidden()) {
-                player.sendMessage(plugin.getConfigManager().getMessage("sound-not-found", "sound", soundId));
+                plugin.getConfigManager().sendMessage(player, "sound-not-found", "sound", sound.getId());
             } else if (!sound.isSeasonallyAvailable()) {
                 player.sendMessage(plugin.getConfigManager().getPrefix() + "§cThat sound is not currently available.");
             } else {
@@ -128,82 +211,131 @@ public class JoinSoundCommand implements CommandExecutor, TabCompleter {
         }
 
         if (!player.hasPermission(sound.getPermission())) {
-            player.sendMessage(plugin.getConfigManager().getMessage("no-permission"));
+            plugin.getConfigManager().sendMessage(player, "no-permission");
             return;
         }
 
-        plugin.getPlayerDataManager().setPlayerSound(player.getUniqueId(), soundId);
-        player.sendMessage(plugin.getConfigManager().getMessage("sound-changed", "sound", sound.getDisplayName()));
+        runTracked(player, () -> plugin.getPlayerDataManager().setPlayerSound(player.getUniqueId(), type, sound),
+                "Could not save your " + type.getKey() + " sound", () -> {
+            if (type == TriggerType.JOIN) {
+                plugin.getConfigManager().sendMessage(player, "sound-changed", "sound", sound.getDisplayName());
+            } else {
+                player.sendMessage(plugin.getConfigManager().getPrefix() + "§aYour §6" + type.getKey() +
+                        " §asound is now §6" + sound.getDisplayName() + "§a.");
+            }
 
-        if (plugin.getConfigManager().isPreviewEnabled()) {
-            plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
-                plugin.getSoundManager().previewSound(player, soundId);
-            }, 10L);
-        }
+            if (plugin.getConfigManager().isPreviewEnabled()) {
+                ScheduledTask preview = player.getScheduler().runDelayed(plugin,
+                        task -> plugin.getSoundManager().previewSound(player, sound.getId()), null, 10L);
+                PlayerSession session = plugin.getSessionManager().get(player);
+                if (session != null) {
+                    session.setPendingPreview(preview);
+                }
+            }
+        });
     }
 
 
-    private void removeSound(Player player) {
-        if (!plugin.getPlayerDataManager().hasPlayerSound(player.getUniqueId())) {
-            player.sendMessage(plugin.getConfigManager().getPrefix() + "§cYou don't have a join sound set.");
+    /**
+     * Clear a player's join sound, reporting the result to them
+     * @param player The player clearing their sound
+     */
+    public void removeSound(Player player) {
+        removeSound(player, TriggerType.JOIN);
+    }
+
+    private void removeTriggerSound(Player player, String triggerKey) {
+        TriggerType type = parseTrigger(player, triggerKey);
+        if (type != null) {
+            removeSound(player, type);
+        }
+    }
+
+    private void removeSound(Player player, TriggerType type) {
+        if (!plugin.getPlayerDataManager().hasPlayerSound(player.getUniqueId(), type)) {
+            player.sendMessage(plugin.getConfigManager().getPrefix() + "§cYou don't have a " + type.getKey() + " sound set.");
             return;
         }
 
-        plugin.getPlayerDataManager().removePlayerSound(player.getUniqueId());
-        player.sendMessage(plugin.getConfigManager().getMessage("sound-disabled"));
+        runTracked(player, () -> plugin.getPlayerDataManager().setPlayerSound(player.getUniqueId(), type, null),
+                "Could not remove your " + type.getKey() + " sound", () -> {
+            if (type == TriggerType.JOIN) {
+                plugin.getConfigManager().sendMessage(player, "sound-disabled");
+            } else {
+                player.sendMessage(plugin.getConfigManager().getPrefix() + "§aYour §6" + type.getKey() + " §asound has been removed.");
+            }
+        });
     }
 
-
-    private void previewSound(Player player, String soundId) {
-        JoinSound sound = plugin.getSoundManager().getSound(soundId);
-        if (sound == null) {
-            player.sendMessage(plugin.getConfigManager().getMessage("sound-not-found", "sound", soundId));
-            return;
+    /**
+     * @return The trigger, or null after telling the player it is unknown or turned off
+     */
+    private TriggerType parseTrigger(Player player, String key) {
+        TriggerType type = TriggerType.byKey(key);
+        if (type == null) {
+            player.sendMessage(plugin.getConfigManager().getPrefix() + "§cUnknown trigger: §6" + key);
+            return null;
         }
+        if (!plugin.getConfigManager().getSettings().getTrigger(type).isEnabled()) {
+            player.sendMessage(plugin.getConfigManager().getPrefix() + "§cThe §6" + type.getKey() + " §ctrigger is turned off.");
+            return null;
+        }
+        return type;
+    }
 
+    /**
+     * Suggest the enabled triggers, off the main thread
+     */
+    private CompletableFuture<Suggestions> suggestTriggers(CommandContext<CommandSourceStack> context, SuggestionsBuilder builder) {
+        return CompletableFuture.supplyAsync(() -> {
+            String token = builder.getRemainingLowerCase();
+            PluginSettings settings = plugin.getConfigManager().getSettings();
+            for (int i = 0; i < TriggerType.count(); i++) {
+                TriggerType type = TriggerType.byOrdinal(i);
+                if (settings.getTrigger(type).isEnabled() && type.getKey().startsWith(token)) {
+                    builder.suggest(type.getKey());
+                }
+            }
+            return builder.build();
+        }, suggestionExecutor);
+    }
+
+
+    private void previewSound(Player player, JoinSound sound) {
         if (!sound.isAvailableForSelection()) {
             player.sendMessage(plugin.getConfigManager().getPrefix() + "§cThat sound is not available for preview.");
             return;
         }
 
         if (!player.hasPermission(sound.getPermission())) {
-            player.sendMessage(plugin.getConfigManager().getMessage("no-permission"));
+            plugin.getConfigManager().sendMessage(player, "no-permission");
             return;
         }
 
-        plugin.getSoundManager().previewSound(player, soundId);
-        player.sendMessage(plugin.getConfigManager().getPrefix() + "§aPreviewing sound: §6" + sound.getDisplayName());
-    }
-
-
-    private void listSounds(Player player) {
-        Map<String, JoinSound> accessibleSounds = plugin.getSoundManager().getAccessibleSounds(player);
-
-        if (accessibleSounds.isEmpty()) {
-            player.sendMessage(plugin.getConfigManager().getPrefix() + "§cNo sounds are available to you.");
+        long remaining = plugin.getCooldowns().getRemainingSeconds(CooldownKind.PREVIEW, player.getUniqueId());
+        if (remaining > 0) {
+            player.sendMessage(plugin.getConfigManager().getPrefix() + "§cYou must wait §6" + remaining + "s §cbefore previewing another sound.");
             return;
         }
 
-        player.sendMessage(plugin.getConfigManager().getPrefix() + "§aAvailable sounds:");
-
-        for (Map.Entry<String, JoinSound> entry : accessibleSounds.entrySet()) {
-            JoinSound sound = entry.getValue();
-            String soundId = entry.getKey();
+        plugin.getCooldowns().start(CooldownKind.PREVIEW, player.getUniqueId());
+        plugin.getSoundManager().previewSound(player, sound.getId());
+        player.sendMessage(plugin.getConfigManager().getPrefix() + "§aPreviewing sound: §6" + sound.getDisplayName());
+    }
 
-            StringBuilder line = new StringBuilder("§7- §6" + soundId);
-            if (!sound.getDisplayName().equals(soundId)) {
-                line.append(" §7(").append(sound.getDisplayName()).append("§7)");
-            }
 
-            if (!sound.getDescription().isEmpty()) {
-                line.append(" §7- ").append(sound.getDescription().get(0));
+    private void listSounds(Player player, int page, String filter) {
+        SoundListCache.Page listPage = plugin.getSoundManager().getListPage(player, filter.trim(), page);
+        if (listPage == null) {
+            if (!filter.isBlank()) {
+                player.sendMessage(plugin.getConfigManager().getPrefix() + "§cNo available sounds match §6" + filter + "§c.");
+            } else {
+                player.sendMessage(plugin.getConfigManager().getPrefix() + "§cNo sounds are available to you.");
             }
-
-            player.sendMessage(line.toString());
+            return;
         }
 
-        player.sendMessage("§7Use §6/joinsound set <sound> §7to select a sound");
-        player.sendMessage("§7Use §6/joinsound preview <sound> §7to test a sound");
+        player.sendMessage(listPage.getComponent());
     }
 
 
@@ -213,6 +345,7 @@ public class JoinSoundCommand implements CommandExecutor, TabCompleter {
         if (currentSound == null) {
             player.sendMessage(plugin.getConfigManager().getPrefix() + "§7You don't have a join sound set.");
             player.sendMessage("§7Use §6/joinsound list §7to see available sounds");
+            showTriggerInfo(player);
             return;
         }
 
@@ -232,66 +365,383 @@ public class JoinSoundCommand implements CommandExecutor, TabCompleter {
 
         player.sendMessage("§7Volume: §6" + Math.round(sound.getVolume() * 100) + "%");
         player.sendMessage("§7Radius: §6" + sound.getRadius() + " blocks");
+        if (sound.isPool()) {
+            player.sendMessage("§7Variants: §6" + sound.getVariants().size());
+        }
 
         if (!sound.isSeasonallyAvailable()) {
             player.sendMessage("§c⚠ This sound is currently out of season");
         }
 
         player.sendMessage("§7Use §6/joinsound preview " + currentSound + " §7to test it");
+        showTriggerInfo(player);
+    }
+
+    private void showTriggerInfo(Player player) {
+        PluginSettings settings = plugin.getConfigManager().getSettings();
+        for (int i = 0; i < TriggerType.count(); i++) {
+            TriggerType type = TriggerType.byOrdinal(i);
+            if (type == TriggerType.JOIN || !settings.getTrigger(type).isEnabled()) {
+                continue;
+            }
+
+            int ordinal = plugin.getPlayerDataManager().getPlayerSoundOrdinal(player.getUniqueId(), type);
+            JoinSound sound = ordinal >= 0 ? plugin.getSoundManager().getSound(ordinal) : null;
+            if (sound != null) {
+                player.sendMessage("§7" + type.getKey() + ": §6" + sound.getDisplayName());
+            } else if (settings.getTrigger(type).shouldFallBackToJoin()) {
+                player.sendMessage("§7" + type.getKey() + ": §8uses your join sound");
+            } else {
+                player.sendMessage("§7" + type.getKey() + ": §8none");
+            }
+        }
     }
 
 
     private void reloadConfigs(Player player) {
+        runTracked(player, plugin::reloadPlugin, "Failed to reload configuration",
+                () -> plugin.getConfigManager().sendMessage(player, "config-reloaded"));
+    }
+
+    private void resetPlayer(Player player, String name) {
+        OfflinePlayer target = plugin.getServer().getOfflinePlayerIfCached(name);
+        UUID uuid = target != null ? target.getUniqueId() : parseUuid(name);
+        if (uuid == null) {
+            plugin.getConfigManager().sendMessage(player, "player-not-found", "player", name);
+            return;
+        }
+
+        runTracked(player, () -> plugin.getPlayerDataManager().resetPlayer(uuid),
+                "Could not reset player data", () -> {
+            plugin.getSoundManager().invalidateAccess(uuid);
+            plugin.getConfigManager().sendMessage(player, "player-sound-reset", "player", name);
+        });
+    }
+
+    private void reassignSound(Player player, String fromId, JoinSound to) {
+        int from = storedOrdinal(fromId);
+        if (from < 0) {
+            plugin.getConfigManager().sendMessage(player, "sound-not-found", "sound", fromId);
+            return;
+        }
+        if (from == to.getOrdinal()) {
+            player.sendMessage(plugin.getConfigManager().getPrefix() + "§cBoth sounds are the same.");
+            return;
+        }
+
+        player.sendMessage(plugin.getConfigManager().getPrefix() + "§7Moving players from §6" + fromId + " §7to §6" + to.getId() + "§7...");
+        this.<Integer>runTrackedJob(player, progress -> plugin.getPlayerDataManager().reassignSound(from, to, progress),
+                "Could not reassign sound", count -> player.sendMessage(plugin.getConfigManager().getPrefix() +
+                        "§aMoved §6" + count + " §aplayers from §6" + fromId + " §ato §6" + to.getId() + "§a."));
+    }
+
+    private void clearSound(Player player, String id) {
+        int ordinal = storedOrdinal(id);
+        if (ordinal < 0) {
+            plugin.getConfigManager().sendMessage(player, "sound-not-found", "sound", id);
+            return;
+        }
+
+        player.sendMessage(plugin.getConfigManager().getPrefix() + "§7Clearing §6" + id + " §7from all players...");
+        this.<Integer>runTrackedJob(player, progress -> plugin.getPlayerDataManager().clearSound(ordinal, progress),
+                "Could not clear sound", count -> player.sendMessage(plugin.getConfigManager().getPrefix() +
+                        "§aCleared §6" + id + " §afrom §6" + count + " §aplayers."));
+    }
+
+    /**
+     * @return The ordinal of a sound in the catalog, or of a stored ID that is no longer loaded; -1 if unknown
+     */
+    private int storedOrdinal(String id) {
+        JoinSound sound = plugin.getSoundManager().getSound(id);
+        return sound != null ? sound.getOrdinal() : plugin.getSoundManager().getOrdinalRegistry().ordinalOf(id);
+    }
+
+    private static UUID parseUuid(String text) {
         try {
-            plugin.reloadPlugin();
-            player.sendMessage(plugin.getConfigManager().getMessage("config-reloaded"));
-        } catch (Exception e) {
-            player.sendMessage(plugin.getConfigManager().getPrefix() + "§cFailed to reload configuration: " + e.getMessage());
-            plugin.getLogger().severe("Error reloading configuration: " + e.getMessage());
+            return UUID.fromString(text);
+        } catch (IllegalArgumentException e) {
+            return null;
         }
     }
 
+    /**
+     * Suggest every ID that may still be stored, including sounds no longer in the catalog, off the main thread
+     */
+    private CompletableFuture<Suggestions> suggestStoredSounds(CommandContext<CommandSourceStack> context, SuggestionsBuilder builder) {
+        return CompletableFuture.supplyAsync(() -> {
+            SoundOrdinalRegistry registry = plugin.getSoundManager().getOrdinalRegistry();
+            String token = builder.getRemainingLowerCase();
+            int limit = plugin.getConfigManager().getMaxTabCompletions();
+
+            int added = 0;
+            for (int ordinal = 0; ordinal < registry.size() && added < limit; ordinal++) {
+                String id = registry.idOf(ordinal);
+                if (id != null && id.toLowerCase().startsWith(token)) {
+                    builder.suggest(id);
+                    added++;
+                }
+            }
+            return builder.build();
+        }, suggestionExecutor);
+    }
 
-    private void showHelp(Player player) {
-        player.sendMessage(plugin.getConfigManager().getPrefix() + "§6JoinSounds Commands:");
-        player.sendMessage("§6/joinsound set <sound> §7- Set your join sound");
-        player.sendMessage("§6/joinsound remove §7- Remove your join sound");
-        player.sendMessage("§6/joinsound preview <sound> §7- Preview a sound");
-        player.sendMessage("§6/joinsound list §7- List available sounds");
-        player.sendMessage("§6/joinsound info §7- Show your current sound");
+    /**
+     * Start storage or catalog work off the main thread and report back on the player's own scheduler.
+     * Each player can only have one such command running, so spamming a command cannot queue up work.
+     * @param player The player running the command
+     * @param work Starts the work and returns its future
+     * @param failure Message shown if the work fails
+     * @param onSuccess Runs on the player's scheduler once the work has finished
+     */
+    private void runTracked(Player player, Supplier<CompletableFuture<?>> work, String failure, Runnable onSuccess) {
+        this.<Object>runTracked(player, work::get, failure, result -> onSuccess.run());
+    }
 
-        if (player.hasPermission(plugin.getConfigManager().getAdminPermission())) {
-            player.sendMessage("§c/joinsound reload §7- Reload configuration");
+    /**
+     * Like {@link #runTracked(Player, Supplier, String, Runnable)}, passing the work's result on
+     */
+    private <T> void runTracked(Player player, Supplier<? extends CompletableFuture<? extends T>> work, String failure, Consumer<T> onSuccess) {
+        PlayerSession session = plugin.getSessionManager().get(player);
+        if (session != null && !session.tryStartCommand()) {
+            player.sendMessage(plugin.getConfigManager().getPrefix() + "§cPlease wait for your previous command to finish.");
+            return;
         }
 
-        int accessibleCount = plugin.getSoundManager().getAccessibleSounds(player).size();
-        player.sendMessage("§7You have access to §6" + accessibleCount + " §7sounds");
+        CompletableFuture<? extends T> future;
+        try {
+            future = work.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+
+        future.whenComplete((result, e) -> player.getScheduler().run(plugin, task -> {
+            finishCommand(session);
+            if (e == null) {
+                onSuccess.accept(result);
+                return;
+            }
+
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            player.sendMessage(plugin.getConfigManager().getPrefix() + "§c" + failure + ": " + cause.getMessage());
+            plugin.getLogger().severe(failure + " for " + player.getName() + ": " + cause.getMessage());
+        }, () -> finishCommand(session)));
     }
 
-    @Override
-    public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
-        if (!(sender instanceof Player)) {
-            return new ArrayList<>();
+    /**
+     * Like {@link #runTracked(Player, Supplier, String, Consumer)}, for storage jobs that report how many
+     * stored players they have written; each report is sent to the player on their own scheduler
+     */
+    private <T> void runTrackedJob(Player player, Function<IntConsumer, ? extends CompletableFuture<? extends T>> work,
+                                   String failure, Consumer<T> onSuccess) {
+        IntConsumer progress = written -> player.getScheduler().run(plugin, task -> player.sendMessage(
+                plugin.getConfigManager().getPrefix() + "§7Written §6" + written + " §7stored players..."), null);
+        this.<T>runTracked(player, () -> work.apply(progress), failure, onSuccess);
+    }
+
+    private static void finishCommand(PlayerSession session) {
+        if (session != null) {
+            session.finishCommand();
         }
+    }
 
-        Player player = (Player) sender;
-        List<String> completions = new ArrayList<>();
 
-        if (args.length == 1) {
-            StringUtil.copyPartialMatches(args[0], subCommands, completions);
+    private void showTraces(Player player, String[] args) {
+        JoinTracer tracer = plugin.getJoinTracer();
+        if (!tracer.isEnabled()) {
+            player.sendMessage(plugin.getConfigManager().getPrefix() + "§cJoin tracing is turned off (advanced.join-trace-size).");
+            return;
+        }
 
-            Map<String, JoinSound> accessibleSounds = plugin.getSoundManager().getAccessibleSounds(player);
-            StringUtil.copyPartialMatches(args[0], accessibleSounds.keySet(), completions);
+        int limit = 10;
+        Predicate<JoinTrace> filter = trace -> true;
+        for (int i = 0; i < args.length; i++) {
+            try {
+                limit = Math.max(1, Math.min(50, Integer.parseInt(args[i])));
+                continue;
+            } catch (NumberFormatException ignored) {
+                // Not a count, so it must be a filter
+            }
 
-        } else if (args.length == 2) {
-            String subCommand = args[0].toLowerCase();
+            Predicate<JoinTrace> argFilter = parseTraceFilter(args[i]);
+            if (argFilter == null) {
+                player.sendMessage(plugin.getConfigManager().getPrefix() + "§cUnknown player, outcome or stage: §6" + args[i]);
+                player.sendMessage("§7Usage: §6/joinsound trace [player|outcome|stage] [count]");
+                return;
+            }
+            filter = filter.and(argFilter);
+        }
 
-            if ("set".equals(subCommand) || "preview".equals(subCommand)) {
-                Map<String, JoinSound> accessibleSounds = plugin.getSoundManager().getAccessibleSounds(player);
-                StringUtil.copyPartialMatches(args[1], accessibleSounds.keySet(), completions);
+        List<JoinTrace> traces = tracer.recent(limit, filter);
+        if (traces.isEmpty()) {
+            player.sendMessage(plugin.getConfigManager().getPrefix() + "§7No matching join decisions recorded.");
+            return;
+        }
+
+        player.sendMessage(plugin.getConfigManager().getPrefix() + "§aLast " + traces.size() + " join decisions §7(" +
+                tracer.getTotal() + " recorded since startup):");
+
+        long now = System.currentTimeMillis();
+        for (JoinTrace trace : traces) {
+            String name = plugin.getServer().getOfflinePlayer(trace.getPlayer()).getName();
+            player.sendMessage("§7[" + formatAge(now - trace.getTimeMillis()) + " ago] §f" +
+                    (name != null ? name : trace.getPlayer().toString()) +
+                    " §7→ §6" + trace.getOutcome().name().toLowerCase() +
+                    " §7(" + trace.getStage().name().toLowerCase() + ", " +
+                    String.format("%.3f", trace.getElapsedNanos() / 1_000_000.0) + " ms)");
+        }
+    }
+
+    private Predicate<JoinTrace> parseTraceFilter(String arg) {
+        String upper = arg.toUpperCase();
+        for (JoinOutcome outcome : JoinOutcome.values()) {
+            if (outcome.name().equals(upper)) {
+                return trace -> trace.getOutcome() == outcome;
             }
         }
+        for (JoinOutcome.Stage stage : JoinOutcome.Stage.values()) {
+            if (stage.name().equals(upper)) {
+                return trace -> trace.getStage() == stage;
+            }
+        }
+
+        OfflinePlayer target = plugin.getServer().getOfflinePlayerIfCached(arg);
+        if (target != null) {
+            UUID uuid = target.getUniqueId();
+            return trace -> trace.getPlayer().equals(uuid);
+        }
+        return null;
+    }
 
-        return completions.stream().sorted().collect(Collectors.toList());
+    private static String formatAge(long millis) {
+        long seconds = millis / 1000;
+        if (seconds < 60) {
+            return seconds + "s";
+        }
+        if (seconds < 3600) {
+            return (seconds / 60) + "m";
+        }
+        return (seconds / 3600) + "h";
+    }
+
+
+    private void showStats(Player player) {
+        MetricsRegistry metrics = plugin.getMetrics();
+        player.sendMessage(plugin.getConfigManager().getPrefix() + "§aStatistics since startup:");
+
+        for (int i = 0; i < TriggerType.count(); i++) {
+            TriggerType type = TriggerType.byOrdinal(i);
+            Histogram.Snapshot toPlay = metrics.getTriggerToPlay(type).snapshot();
+            long fired = 0;
+            for (JoinOutcome outcome : JoinOutcome.values()) {
+                if (outcome != JoinOutcome.TRIGGER_DISABLED) {
+                    fired += metrics.getOutcomeCount(type, outcome);
+                }
+            }
+            if (fired == 0) {
+                continue;
+            }
+
+            player.sendMessage("§7" + type.getKey() + ": §6" + fired + " §7fired, §6" + toPlay.getCount() +
+                    " §7played; to playback " + formatNanos(toPlay));
+        }
+
+        player.sendMessage("§7Join listener: " + formatNanos(metrics.getJoinListener().snapshot()));
+
+        Histogram.Snapshot plays = metrics.getPlayTime().snapshot();
+        Histogram.Snapshot reach = metrics.getListenersReached().snapshot();
+        player.sendMessage("§7Playback: " + formatNanos(plays));
+        player.sendMessage("§7Listeners per sound: §6" + String.format("%.1f", reach.getMean()) + " §7avg, §6" +
+                reach.getValueAt(0.99) + " §7p99, §6" + reach.getMax() + " §7max; fallback sounds: §6" +
+                metrics.getFallbackSounds().sum());
+
+        for (MetricsRegistry.StorageCall call : MetricsRegistry.StorageCall.values()) {
+            Histogram.Snapshot snapshot = metrics.getStorageCall(call).snapshot();
+            if (snapshot.getCount() > 0) {
+                player.sendMessage("§7Storage " + call.getKey() + ": §6" + snapshot.getCount() + " §7calls, " + formatNanos(snapshot));
+            }
+        }
+        long errors = metrics.getStorageErrors().sum();
+        if (errors > 0) {
+            player.sendMessage("§cStorage errors: §6" + errors);
+        }
+
+        MainThreadWatchdog watchdog = plugin.getWatchdog();
+        if (!watchdog.isRunning()) {
+            return;
+        }
+        PluginSettings settings = plugin.getConfigManager().getSettings();
+        player.sendMessage("§7Main thread over the last " + settings.getWatchdogWindowSeconds() + "s, budget §6" +
+                settings.getWatchdogBudgetMillis() + " ms§7:");
+        for (MainThreadWatchdog.EntryPoint point : MainThreadWatchdog.EntryPoint.values()) {
+            Histogram.Snapshot calls = watchdog.getCalls(point);
+            if (calls.getCount() == 0 && watchdog.getOverBudget(point) == 0) {
+                continue;
+            }
+            player.sendMessage("§7" + point.getKey() + ": §6" + calls.getCount() + " §7calls, " + formatNanos(calls) +
+                    "; per tick " + formatNanos(watchdog.getTicks(point)) + "; §6" + watchdog.getOverBudget(point) +
+                    " §7over budget since startup");
+        }
+    }
+
+    /**
+     * @return p50, p99 and max of a nanosecond histogram in milliseconds
+     */
+    private static String formatNanos(Histogram.Snapshot snapshot) {
+        if (snapshot.getCount() == 0) {
+            return "§8no data";
+        }
+        return "§6" + formatMillis(snapshot.getValueAt(0.5)) + " §7p50, §6" + formatMillis(snapshot.getValueAt(0.99)) +
+                " §7p99, §6" + formatMillis(snapshot.getMax()) + " §7max";
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format("%.2f ms", nanos / 1_000_000.0);
+    }
+
+    private void showHelp(Player player) {
+        player.sendMessage(plugin.getConfigManager().getPrefix() + "§6JoinSounds Commands:");
+        player.sendMessage("§6/joinsound §7- Open the sound selection menu");
+        player.sendMessage("§6/joinsound set <sound> [trigger] §7- Set your join sound, or your sound for a trigger");
+        player.sendMessage("§6/joinsound remove [trigger] §7- Remove your join sound, or your sound for a trigger");
+        player.sendMessage("§6/joinsound preview <sound> §7- Preview a sound");
+        player.sendMessage("§6/joinsound list [page] [filter] §7- List available sounds");
+        player.sendMessage("§6/joinsound info §7- Show your current sound");
+
+        if (player.hasPermission(plugin.getConfigManager().getAdminPermission())) {
+            player.sendMessage("§c/joinsound reload §7- Reload configuration");
+            player.sendMessage("§c/joinsound admin reset <player> §7- Clear a player's join sound");
+            player.sendMessage("§c/joinsound admin reassign <from> <to> §7- Move everyone using a sound to another");
+            player.sendMessage("§c/joinsound admin clear <sound> §7- Clear a sound from every player");
+            player.sendMessage("§c/joinsound stats §7- Show timings and counters since startup");
+            player.sendMessage("§c/joinsound trace [player|outcome|stage] [count] §7- Show recent join decisions");
+        }
+
+        int accessibleCount = plugin.getSoundManager().getAccessible(player).size();
+        player.sendMessage("§7You have access to §6" + accessibleCount + " §7sounds");
+    }
+
+    /**
+     * Suggest outcomes and stages for the last word of the trace filters, off the main thread
+     */
+    private CompletableFuture<Suggestions> suggestTraceFilters(CommandContext<CommandSourceStack> context, SuggestionsBuilder builder) {
+        return CompletableFuture.supplyAsync(() -> {
+            String remaining = builder.getRemainingLowerCase();
+            SuggestionsBuilder word = builder.createOffset(builder.getStart() + remaining.lastIndexOf(' ') + 1);
+            String token = remaining.substring(remaining.lastIndexOf(' ') + 1);
+
+            for (JoinOutcome outcome : JoinOutcome.values()) {
+                String name = outcome.name().toLowerCase();
+                if (name.startsWith(token)) {
+                    word.suggest(name);
+                }
+            }
+            for (JoinOutcome.Stage stage : JoinOutcome.Stage.values()) {
+                String name = stage.name().toLowerCase();
+                if (name.startsWith(token)) {
+                    word.suggest(name);
+                }
+            }
+            return word.build();
+        }, suggestionExecutor);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,82 @@
+package com.tenshiku.joinsounds.commands;
+
+import com.mojang.brigadier.arguments.ArgumentType;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import com.mojang.brigadier.exceptions.DynamicCommandExceptionType;
+import com.mojang.brigadier.suggestion.Suggestions;
+import com.mojang.brigadier.suggestion.SuggestionsBuilder;
+import com.tenshiku.joinsounds.JoinSounds;
+import com.tenshiku.joinsounds.models.AccessibleSounds;
+import com.tenshiku.joinsounds.models.JoinSound;
+import io.papermc.paper.command.brigadier.CommandSourceStack;
+import io.papermc.paper.command.brigadier.MessageComponentSerializer;
+import io.papermc.paper.command.brigadier.argument.CustomArgumentType;
+import org.bukkit.entity.Player;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+
+/**
+ * Command argument that resolves a sound ID or alias to a sound.
+ * Suggestions are computed off the main thread from the catalog snapshot and the
+ * player's cached accessible set, both of which are safe to read from any thread.
+ * Permissions are never checked here; if the set is missing nothing is suggested and
+ * it is rebuilt on the player's own thread for the next request.
+ */
+public final class SoundArgument implements CustomArgumentType.Converted<JoinSound, String> {
+
+    private final JoinSounds plugin;
+    private final Executor suggestionExecutor;
+    private final DynamicCommandExceptionType notFound;
+
+    public SoundArgument(JoinSounds plugin, Executor suggestionExecutor) {
+        this.plugin = plugin;
+        this.suggestionExecutor = suggestionExecutor;
+        this.notFound = new DynamicCommandExceptionType(id -> MessageComponentSerializer.message()
+                .serialize(plugin.getConfigManager().getMessageComponent("sound-not-found", "sound", String.valueOf(id))));
+    }
+
+    @Override
+    public JoinSound convert(String id) throws CommandSyntaxException {
+        JoinSound sound = plugin.getSoundManager().getSound(id);
+        if (sound == null) {
+            throw notFound.create(id);
+        }
+        return sound;
+    }
+
+    @Override
+    public ArgumentType<String> getNativeType() {
+        return StringArgumentType.word();
+    }
+
+    @Override
+    public <S> CompletableFuture<Suggestions> listSuggestions(CommandContext<S> context, SuggestionsBuilder builder) {
+        if (!(context.getSource() instanceof CommandSourceStack)
+                || !(((CommandSourceStack) context.getSource()).getSender() instanceof Player)) {
+            return builder.buildFuture();
+        }
+
+        Player player = (Player) ((CommandSourceStack) context.getSource()).getSender();
+        return CompletableFuture.supplyAsync(() -> {
+            AccessibleSounds accessible = plugin.getSoundManager().getCachedAccessible(player);
+            if (accessible == null) {
+                player.getScheduler().run(plugin, task -> plugin.getSoundManager().refreshAccess(player), null);
+                return builder.build();
+            }
+
+            List<String> completions = new ArrayList<>();
+            accessible.getCatalog().getCompletionIndex()
+                    .complete(builder.getRemaining(), accessible, plugin.getConfigManager().getMaxTabCompletions(), completions);
+
+            for (String completion : completions) {
+                builder.suggest(completion);
+            }
+            return builder.build();
+        }, suggestionExecutor);
+    }
+}
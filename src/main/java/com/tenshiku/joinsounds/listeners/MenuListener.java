@@ -0,0 +1,55 @@
+package com.tenshiku.joinsounds.listeners;
+
+import com.tenshiku.joinsounds.JoinSounds;
+import com.tenshiku.joinsounds.managers.MainThreadWatchdog;
+import com.tenshiku.joinsounds.models.SoundMenu;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.inventory.InventoryHolder;
+
+
+public class MenuListener implements Listener {
+
+    private final JoinSounds plugin;
+
+    public MenuListener(JoinSounds plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.HIGH)
+    public void onInventoryClick(InventoryClickEvent event) {
+        // Without a snapshot, Paper skips copying the holder's block state
+        InventoryHolder holder = event.getView().getTopInventory().getHolder(false);
+        if (!(holder instanceof SoundMenu)) {
+            return;
+        }
+
+        // Nothing may be moved in or out of the menu
+        event.setCancelled(true);
+
+        SoundMenu menu = (SoundMenu) holder;
+
+        int slot = event.getRawSlot();
+        if (slot < 0 || slot >= menu.getSize() || !(event.getWhoClicked() instanceof Player)) {
+            return;
+        }
+
+        long watched = plugin.getWatchdog().enter(MainThreadWatchdog.EntryPoint.MENU, event.getWhoClicked().getName());
+        try {
+            plugin.getSoundMenuManager().handleClick((Player) event.getWhoClicked(), menu, slot, event.getClick());
+        } finally {
+            plugin.getWatchdog().exit(watched);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.HIGH)
+    public void onInventoryDrag(InventoryDragEvent event) {
+        if (event.getView().getTopInventory().getHolder(false) instanceof SoundMenu) {
+            event.setCancelled(true);
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.tenshiku.joinsounds.listeners;
 
 import com.tenshiku.joinsounds.JoinSounds;
+import com.tenshiku.joinsounds.managers.MainThreadWatchdog;
+import com.tenshiku.joinsounds.models.PluginSettings;
+import com.tenshiku.joinsounds.models.TriggerType;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -18,60 +21,23 @@ public class PlayerJoinListener implements Listener {
 
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onPlayerJoin(PlayerJoinEvent event) {
+        long start = System.nanoTime();
         Player player = event.getPlayer();
-
-        if (!plugin.getConfigManager().isPluginEnabled()) {
-            return;
-        }
-
-        if (plugin.getConfigManager().isDebugMode()) {
-            plugin.getLogger().info("Player " + player.getName() + " joined, checking for join sound...");
-        }
-
-        String soundId = plugin.getPlayerDataManager().getPlayerSound(player.getUniqueId());
-        if (soundId == null || soundId.isEmpty()) {
-            if (plugin.getConfigManager().isDebugMode()) {
-                plugin.getLogger().info("Player " + player.getName() + " has no join sound set");
-            }
-            return;
-        }
-
-        if (!plugin.getSoundManager().hasSound(soundId)) {
-            if (plugin.getConfigManager().isDebugMode()) {
-                plugin.getLogger().warning("Player " + player.getName() + " has invalid sound: " + soundId);
-            }
-            plugin.getPlayerDataManager().removePlayerSound(player.getUniqueId());
-            return;
-        }
-
-        String usePermission = plugin.getConfigManager().getUsePermission();
-        if (!player.hasPermission(usePermission)) {
-            if (plugin.getConfigManager().isDebugMode()) {
-                plugin.getLogger().info("Player " + player.getName() + " lacks basic use permission: " + usePermission);
-            }
-            return;
-        }
-
-        if (!plugin.getConfigManager().isWorldEnabled(player.getWorld().getName())
-                && !player.hasPermission(plugin.getConfigManager().getBypassWorldPermission())) {
-            if (plugin.getConfigManager().isDebugMode()) {
-                plugin.getLogger().info("Join sounds disabled in world: " + player.getWorld().getName());
-            }
-            return;
-        }
+        PluginSettings settings = plugin.getConfigManager().getSettings();
+        long watched = plugin.getWatchdog().enter(MainThreadWatchdog.EntryPoint.JOIN, player.getName());
 
         try {
-            plugin.getSoundManager().playJoinSound(player, soundId);
-
-            if (plugin.getConfigManager().isDebugMode()) {
-                plugin.getLogger().info("Triggered join sound " + soundId + " for player " + player.getName());
+            if (settings.isPluginEnabled() && settings.isDebugMode()) {
+                plugin.getLogger().info("Player " + player.getName() + " joined, checking for join sound...");
             }
 
-        } catch (Exception e) {
-            plugin.getLogger().severe("Error playing join sound for " + player.getName() + ": " + e.getMessage());
-            if (plugin.getConfigManager().isDebugMode()) {
-                e.printStackTrace();
-            }
+            // A first join plays its own sound only when that trigger is turned on
+            TriggerType type = !player.hasPlayedBefore() && settings.getTrigger(TriggerType.FIRST_JOIN).isEnabled()
+                    ? TriggerType.FIRST_JOIN : TriggerType.JOIN;
+            plugin.getTriggerEngine().fire(type, player, start);
+            plugin.getMetrics().getJoinListener().recordSince(start);
+        } finally {
+            plugin.getWatchdog().exit(watched);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,59 @@
+package com.tenshiku.joinsounds.listeners;
+
+import com.tenshiku.joinsounds.JoinSounds;
+import com.tenshiku.joinsounds.managers.MainThreadWatchdog;
+import com.tenshiku.joinsounds.models.TriggerType;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+
+public class PlayerStateListener implements Listener {
+
+    private final JoinSounds plugin;
+
+    public PlayerStateListener(JoinSounds plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldChange(PlayerChangedWorldEvent event) {
+        long start = System.nanoTime();
+        long watched = plugin.getWatchdog().enter(MainThreadWatchdog.EntryPoint.WORLD_CHANGE, event.getPlayer().getName());
+        try {
+            // Permissions may be granted per world; rebuilt here so tab completion finds it
+            plugin.getSoundManager().invalidateAccess(event.getPlayer().getUniqueId());
+            plugin.getSoundManager().refreshAccess(event.getPlayer());
+            plugin.getTriggerEngine().fire(TriggerType.WORLD_CHANGE, event.getPlayer(), start);
+        } finally {
+            plugin.getWatchdog().exit(watched);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        // Opened before the join sound listener runs at MONITOR
+        long watched = plugin.getWatchdog().enter(MainThreadWatchdog.EntryPoint.JOIN, event.getPlayer().getName());
+        try {
+            plugin.getSessionManager().open(event.getPlayer());
+            plugin.getSoundManager().refreshAccess(event.getPlayer());
+        } finally {
+            plugin.getWatchdog().exit(watched);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        long watched = plugin.getWatchdog().enter(MainThreadWatchdog.EntryPoint.QUIT, event.getPlayer().getName());
+        try {
+            // Played while the session is still open, so the trigger sees its state
+            plugin.getTriggerEngine().fire(TriggerType.QUIT, event.getPlayer(), System.nanoTime());
+            plugin.getSessionManager().close(event.getPlayer().getUniqueId());
+        } finally {
+            plugin.getWatchdog().exit(watched);
+        }
+    }
+}
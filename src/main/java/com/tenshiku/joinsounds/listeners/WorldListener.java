@@ -0,0 +1,28 @@
+package com.tenshiku.joinsounds.listeners;
+
+import com.tenshiku.joinsounds.JoinSounds;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+
+public class WorldListener implements Listener {
+
+    private final JoinSounds plugin;
+
+    public WorldListener(JoinSounds plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldLoad(WorldLoadEvent event) {
+        plugin.getConfigManager().getWorldTable().addWorld(event.getWorld());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        plugin.getConfigManager().getWorldTable().removeWorld(event.getWorld());
+    }
+}
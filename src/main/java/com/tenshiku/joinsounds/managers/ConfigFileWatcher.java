@@ -0,0 +1,203 @@
+package com.tenshiku.joinsounds.managers;
+
+import com.tenshiku.joinsounds.JoinSounds;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+
+/**
+ * Watches the plugin folder and applies edits to config.yml, messages.yml and sounds files
+ * once they have settled. Only changed sounds files are re-parsed, and player data is never reloaded.
+ */
+public class ConfigFileWatcher implements Runnable {
+
+    private final JoinSounds plugin;
+    private final Map<WatchKey, Path> directories;
+    private WatchService watchService;
+    private Thread thread;
+
+    public ConfigFileWatcher(JoinSounds plugin) {
+        this.plugin = plugin;
+        this.directories = new HashMap<>();
+    }
+
+    public synchronized void start() throws IOException {
+        if (thread != null) {
+            return;
+        }
+
+        watchService = plugin.getDataFolder().toPath().getFileSystem().newWatchService();
+        register(plugin.getDataFolder().toPath());
+
+        Path soundsDirectory = new File(plugin.getDataFolder(), SoundCatalogLoader.SOUNDS_DIRECTORY).toPath();
+        if (Files.isDirectory(soundsDirectory)) {
+            registerAll(soundsDirectory, null);
+        }
+
+        thread = new Thread(this, "JoinSounds-FileWatcher");
+        thread.setDaemon(true);
+        thread.start();
+
+        plugin.getLogger().info("Watching configuration files for changes");
+    }
+
+    public synchronized void stop() {
+        if (thread == null) {
+            return;
+        }
+
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to close file watcher: " + e.getMessage());
+        }
+
+        thread.interrupt();
+        thread = null;
+        directories.clear();
+    }
+
+    public synchronized boolean isRunning() {
+        return thread != null;
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watchService.take();
+
+                Set<Path> changed = new LinkedHashSet<>();
+                boolean overflow = collect(key, changed);
+
+                // Wait until the files have been quiet for the debounce period
+                long debounce = plugin.getConfigManager().getWatchDebounceMillis();
+                while ((key = watchService.poll(debounce, TimeUnit.MILLISECONDS)) != null) {
+                    overflow |= collect(key, changed);
+                }
+
+                dispatch(changed, overflow);
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Watcher stopped
+        } catch (Exception e) {
+            plugin.getLogger().severe("File watcher stopped unexpectedly: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    private boolean collect(WatchKey key, Set<Path> changed) {
+        boolean overflow = false;
+        Path directory;
+        synchronized (this) {
+            directory = directories.get(key);
+        }
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                overflow = true;
+                continue;
+            }
+            if (directory == null) {
+                continue;
+            }
+
+            Path path = directory.resolve((Path) event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)
+                    && plugin.getSoundManager().isSoundFile(path.resolve("x.yml").toFile())) {
+                registerAll(path, changed);
+            } else {
+                changed.add(path);
+            }
+        }
+
+        if (!key.reset()) {
+            synchronized (this) {
+                directories.remove(key);
+            }
+        }
+
+        return overflow;
+    }
+
+    private void dispatch(Set<Path> changed, boolean overflow) {
+        File dataFolder = plugin.getDataFolder();
+        boolean mainConfigChanged = overflow || changed.contains(new File(dataFolder, "config.yml").toPath());
+        boolean messagesChanged = overflow || changed.contains(new File(dataFolder, "messages.yml").toPath());
+
+        if (mainConfigChanged || messagesChanged) {
+            plugin.getServer().getScheduler().runTask(plugin, () -> {
+                if (mainConfigChanged) {
+                    plugin.getConfigManager().reloadMainConfig();
+                    plugin.getLogger().info("Reloaded config.yml");
+                    plugin.updateFileWatcher();
+                    plugin.getMetrics().updateExport(plugin.getConfigManager().getSettings());
+                    plugin.getWatchdog().update(plugin.getConfigManager().getSettings());
+                }
+                if (messagesChanged) {
+                    plugin.getConfigManager().reloadMessagesConfig();
+                    plugin.getLogger().info("Reloaded messages.yml");
+                }
+            });
+        }
+
+        if (overflow) {
+            plugin.getLogger().warning("Too many file changes at once, reloading all sounds");
+            plugin.getSoundManager().reloadSounds();
+            return;
+        }
+
+        List<File> soundFiles = new ArrayList<>();
+        for (Path path : changed) {
+            File file = path.toFile();
+            if (plugin.getSoundManager().isSoundFile(file)) {
+                soundFiles.add(file);
+            }
+        }
+
+        if (!soundFiles.isEmpty()) {
+            plugin.getSoundManager().reloadChangedFiles(soundFiles);
+        }
+    }
+
+    private void registerAll(Path root, Set<Path> changed) {
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.forEach(path -> {
+                if (Files.isDirectory(path)) {
+                    register(path);
+                } else if (changed != null) {
+                    changed.add(path);
+                }
+            });
+        } catch (IOException e) {
+            plugin.getLogger().warning("Could not watch " + root + ": " + e.getMessage());
+        }
+    }
+
+    private synchronized void register(Path directory) {
+        try {
+            WatchKey key = directory.register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY,
+                    StandardWatchEventKinds.ENTRY_DELETE);
+            directories.put(key, directory);
+        } catch (IOException | ClosedWatchServiceException e) {
+            plugin.getLogger().warning("Could not watch " + directory + ": " + e.getMessage());
+        }
+    }
+}
@@ -1,25 +1,38 @@
 package com.tenshiku.joinsounds.managers;
 
 import com.tenshiku.joinsounds.JoinSounds;
+import com.tenshiku.joinsounds.models.MessageTemplate;
+import com.tenshiku.joinsounds.models.PluginSettings;
+import net.kyori.adventure.text.Component;
+import org.bukkit.World;
+import org.bukkit.command.CommandSender;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 
 public class ConfigManager {
 
     private final JoinSounds plugin;
     private FileConfiguration config;
-    private FileConfiguration soundsConfig;
+    private volatile PluginSettings settings;
+    private final WorldEligibilityTable worldTable;
+    private volatile FileConfiguration soundsConfig;
     private FileConfiguration messagesConfig;
+    private volatile Map<String, MessageTemplate> messages = Map.of();
 
     private File soundsFile;
     private File messagesFile;
 
     public ConfigManager(JoinSounds plugin) {
         this.plugin = plugin;
+        this.worldTable = new WorldEligibilityTable(plugin);
     }
 
     public void loadConfigs() {
@@ -41,28 +54,50 @@ public class ConfigManager {
         plugin.saveDefaultConfig();
         plugin.reloadConfig();
         this.config = plugin.getConfig();
+        compileSettings();
+    }
+
+    /**
+     * Validate config.yml once and publish the result, reporting every problem together
+     */
+    private void compileSettings() {
+        List<String> errors = new ArrayList<>();
+        PluginSettings compiled = PluginSettings.compile(config, errors);
 
-        if (config.getInt("sounds.default-radius") < 1) {
-            plugin.getLogger().warning("Invalid default-radius in config.yml, using default value of 16");
+        if (!errors.isEmpty()) {
+            plugin.getLogger().warning("Found " + errors.size() + " invalid setting(s) in config.yml:");
+            for (String error : errors) {
+                plugin.getLogger().warning("  " + error);
+            }
         }
 
-        if (config.getDouble("sounds.volume") < 0.0 || config.getDouble("sounds.volume") > 1.0) {
-            plugin.getLogger().warning("Invalid volume in config.yml, should be between 0.0 and 1.0");
+        this.settings = compiled;
+        worldTable.rebuild(compiled);
+
+        // Templates include the prefix, so they follow config.yml as well
+        if (messagesConfig != null) {
+            compileMessages();
         }
     }
 
 
+    /**
+     * Make sure sounds.yml and the sounds.d directory exist.
+     * The sound files themselves are parsed by the SoundCatalogLoader.
+     */
     private void loadSoundsConfig() {
-        soundsFile = new File(plugin.getDataFolder(), "sounds.yml");
+        soundsFile = new File(plugin.getDataFolder(), SoundCatalogLoader.SOUNDS_FILE);
         if (!soundsFile.exists()) {
-            plugin.saveResource("sounds.yml", false);
+            plugin.saveResource(SoundCatalogLoader.SOUNDS_FILE, false);
             plugin.getLogger().info("Created default sounds.yml");
         }
-        soundsConfig = YamlConfiguration.loadConfiguration(soundsFile);
 
-        if (soundsConfig.getConfigurationSection("sounds") == null) {
-            plugin.getLogger().warning("No 'sounds' section found in sounds.yml!");
+        File soundsDirectory = new File(plugin.getDataFolder(), SoundCatalogLoader.SOUNDS_DIRECTORY);
+        if (!soundsDirectory.exists() && !soundsDirectory.mkdirs()) {
+            plugin.getLogger().warning("Could not create " + SoundCatalogLoader.SOUNDS_DIRECTORY + " directory");
         }
+
+        soundsConfig = null;
     }
 
     private void loadMessagesConfig() {
@@ -76,22 +111,61 @@ public class ConfigManager {
         if (messagesConfig.getConfigurationSection("messages") == null) {
             plugin.getLogger().warning("No 'messages' section found in messages.yml!");
         }
+        compileMessages();
+    }
+
+    /**
+     * Split every message into a template once, so sending a message only fills in placeholders
+     */
+    private void compileMessages() {
+        Map<String, MessageTemplate> compiled = new HashMap<>();
+        ConfigurationSection section = messagesConfig.getConfigurationSection("messages");
+        boolean miniMessage = messagesConfig.getBoolean("minimessage", false);
+        String prefix = settings.getPrefix();
+
+        if (section != null) {
+            for (String path : section.getKeys(true)) {
+                if (section.isString(path)) {
+                    compiled.put(path, MessageTemplate.compile(section.getString(path), prefix, miniMessage));
+                }
+            }
+        }
+
+        this.messages = compiled;
+
+        if (isDebugMode()) {
+            plugin.getLogger().info("Compiled " + compiled.size() + " messages" + (miniMessage ? " (MiniMessage)" : ""));
+        }
     }
 
+    /**
+     * Reload config.yml and messages.yml.
+     * Sound files are re-read by the SoundManager so the catalog can be rebuilt off the main thread.
+     */
     public void reloadConfigs() {
         plugin.getLogger().info("Reloading configuration files...");
 
+        reloadMainConfig();
+        reloadMessagesConfig();
+
+        plugin.getLogger().info("Configuration files reloaded!");
+    }
+
+    public void reloadMainConfig() {
         plugin.reloadConfig();
         this.config = plugin.getConfig();
-        this.soundsConfig = YamlConfiguration.loadConfiguration(soundsFile);
-        this.messagesConfig = YamlConfiguration.loadConfiguration(messagesFile);
+        compileSettings();
+    }
 
-        plugin.getLogger().info("Configuration files reloaded!");
+    public void reloadMessagesConfig() {
+        this.messagesConfig = YamlConfiguration.loadConfiguration(messagesFile);
+        compileMessages();
     }
 
+
     public void saveSoundsConfig() {
         try {
-            soundsConfig.save(soundsFile);
+            getSoundsConfig().save(soundsFile);
         } catch (IOException e) {
             plugin.getLogger().severe("Could not save sounds.yml: " + e.getMessage());
         }
@@ -109,8 +183,23 @@ public class ConfigManager {
         return config;
     }
 
+    /**
+     * @return sounds.yml as an editable configuration; parsed on first use
+     */
     public FileConfiguration getSoundsConfig() {
-        return soundsConfig;
+        FileConfiguration loaded = soundsConfig;
+        if (loaded == null) {
+            loaded = YamlConfiguration.loadConfiguration(soundsFile);
+            soundsConfig = loaded;
+        }
+        return loaded;
+    }
+
+    /**
+     * @return The current validated settings; hold on to it to read several values consistently
+     */
+    public PluginSettings getSettings() {
+        return settings;
     }
 
     public FileConfiguration getMessagesConfig() {
@@ -118,202 +207,193 @@ public class ConfigManager {
     }
 
     public boolean isPluginEnabled() {
-        return config.getBoolean("general.enabled", true);
+        return settings.isPluginEnabled();
     }
 
     public String getPrefix() {
-        return config.getString("general.prefix", "&6[JoinSounds] &f").replace("&", "§");
+        return settings.getPrefix();
     }
 
     public boolean isDebugMode() {
-        return config.getBoolean("general.debug", false);
+        return settings.isDebugMode();
     }
 
     public int getDefaultRadius() {
-        return Math.max(1, config.getInt("sounds.default-radius", 16));
+        return settings.getDefaultRadius();
     }
 
     public int getMaxRadius() {
-        return Math.max(getDefaultRadius(), config.getInt("sounds.max-radius", 32));
+        return settings.getMaxRadius();
     }
 
     public int getMinRadius() {
-        return Math.max(1, config.getInt("sounds.min-radius", 5));
+        return settings.getMinRadius();
     }
 
     public double getDefaultVolume() {
-        return Math.max(0.0, Math.min(1.0, config.getDouble("sounds.volume", 0.8)));
+        return settings.getDefaultVolume();
     }
 
     public double getDefaultPitch() {
-        return Math.max(0.5, Math.min(2.0, config.getDouble("sounds.pitch", 1.0)));
+        return settings.getDefaultPitch();
     }
 
     public int getPlayDelay() {
-        return Math.max(0, config.getInt("sounds.play-delay", 20));
+        return settings.getPlayDelay();
     }
 
     public boolean playToSelf() {
-        return config.getBoolean("sounds.play-to-self", true);
+        return settings.playToSelf();
     }
 
     public List<String> getEnabledWorlds() {
-        return config.getStringList("worlds.enabled-worlds");
+        return settings.getEnabledWorlds();
     }
 
     public List<String> getDisabledWorlds() {
-        return config.getStringList("worlds.disabled-worlds");
+        return settings.getDisabledWorlds();
     }
 
     public boolean isWorldEnabled(String worldName) {
-        List<String> enabledWorlds = getEnabledWorlds();
-        List<String> disabledWorlds = getDisabledWorlds();
+        return settings.isWorldEnabled(worldName);
+    }
 
-        if (!enabledWorlds.isEmpty()) {
-            return enabledWorlds.contains(worldName);
-        }
+    public boolean isWorldEnabled(World world) {
+        return worldTable.isEnabled(world);
+    }
 
-        return !disabledWorlds.contains(worldName);
+    public WorldEligibilityTable getWorldTable() {
+        return worldTable;
     }
 
     public String getUsePermission() {
-        return config.getString("permissions.use-permission", "joinsounds.use");
+        return settings.getUsePermission();
     }
 
     public String getAdminPermission() {
-        return config.getString("permissions.admin-permission", "joinsounds.admin");
+        return settings.getAdminPermission();
     }
 
     public String getBypassWorldPermission() {
-        return config.getString("permissions.bypass-world-permission", "joinsounds.bypass.world");
+        return settings.getBypassWorldPermission();
     }
 
     public String getCustomRadiusPermission() {
-        return config.getString("permissions.custom-radius-permission", "joinsounds.radius.custom");
+        return settings.getCustomRadiusPermission();
     }
 
     public String getGuiTitle() {
-        return config.getString("gui.title", "&6Choose Your Join Sound").replace("&", "§");
+        return settings.getGuiTitle();
     }
 
     public int getGuiSize() {
-        int size = config.getInt("gui.size", 27);
-        if (size % 9 != 0 || size < 9 || size > 54) {
-            return 27;
-        }
-        return size;
+        return settings.getGuiSize();
     }
 
     public boolean isPreviewEnabled() {
-        return config.getBoolean("gui.enable-preview", true);
+        return settings.isPreviewEnabled();
     }
 
-    // Storage Settings
     public String getStorageType() {
-        String type = config.getString("storage.type", "YAML").toUpperCase();
-        if (!type.equals("YAML") && !type.equals("H2") && !type.equals("MYSQL") && !type.equals("MARIADB")) {
-            plugin.getLogger().warning("Invalid storage type '" + type + "', defaulting to YAML");
-            return "YAML";
-        }
-        return type;
+        return settings.getStorageType();
     }
 
     public String getYamlFileName() {
-        return config.getString("storage.yaml.file-name", "playerdata.yml");
+        return settings.getYamlFileName();
     }
 
     public String getH2FileName() {
-        return config.getString("storage.h2.file-name", "joinsounds.db");
+        return settings.getH2FileName();
     }
 
     public String getH2Username() {
-        return config.getString("storage.h2.username", "sa");
+        return settings.getH2Username();
     }
 
     public String getH2Password() {
-        return config.getString("storage.h2.password", "");
+        return settings.getH2Password();
     }
 
     public String getMySQLHost() {
-        return config.getString("storage.mysql.host", "localhost");
+        return settings.getMySQLHost();
     }
 
     public int getMySQLPort() {
-        return config.getInt("storage.mysql.port", 3306);
+        return settings.getMySQLPort();
     }
 
     public String getMySQLDatabase() {
-        return config.getString("storage.mysql.database", "minecraft");
+        return settings.getMySQLDatabase();
     }
 
     public String getMySQLUsername() {
-        return config.getString("storage.mysql.username", "root");
+        return settings.getMySQLUsername();
     }
 
     public String getMySQLPassword() {
-        return config.getString("storage.mysql.password", "password");
+        return settings.getMySQLPassword();
     }
 
     public String getMySQLTablePrefix() {
-        return config.getString("storage.mysql.table-prefix", "joinsounds_");
+        return settings.getMySQLTablePrefix();
     }
 
     public boolean getMySQLUseSSL() {
-        return config.getBoolean("storage.mysql.use-ssl", false);
+        return settings.getMySQLUseSSL();
     }
 
     public int getMySQLConnectionTimeout() {
-        return config.getInt("storage.mysql.connection-timeout", 30000);
+        return settings.getMySQLConnectionTimeout();
     }
 
     public String getMariaDBHost() {
-        return config.getString("storage.mariadb.host", getMySQLHost());
+        return settings.getMariaDBHost();
     }
 
     public int getMariaDBPort() {
-        return config.getInt("storage.mariadb.port", getMySQLPort());
+        return settings.getMariaDBPort();
     }
 
     public String getMariaDBDatabase() {
-        return config.getString("storage.mariadb.database", getMySQLDatabase());
+        return settings.getMariaDBDatabase();
     }
 
     public String getMariaDBUsername() {
-        return config.getString("storage.mariadb.username", getMySQLUsername());
+        return settings.getMariaDBUsername();
     }
 
     public String getMariaDBPassword() {
-        return config.getString("storage.mariadb.password", getMySQLPassword());
+        return settings.getMariaDBPassword();
     }
 
     public String getMariaDBTablePrefix() {
-        return config.getString("storage.mariadb.table-prefix", getMySQLTablePrefix());
+        return settings.getMariaDBTablePrefix();
     }
 
     public boolean getMariaDBUseSSL() {
-        return config.getBoolean("storage.mariadb.use-ssl", getMySQLUseSSL());
+        return settings.getMariaDBUseSSL();
     }
 
     public int getMariaDBConnectionTimeout() {
-        return config.getInt("storage.mariadb.connection-timeout", getMySQLConnectionTimeout());
+        return settings.getMariaDBConnectionTimeout();
     }
 
     public String getDatabaseHost() {
-        String type = getStorageType();
+        String type = settings.getStorageType();
         if (type.equals("MYSQL")) return getMySQLHost();
         if (type.equals("MARIADB")) return getMariaDBHost();
         return "localhost";
     }
 
     public int getDatabasePort() {
-        String type = getStorageType();
+        String type = settings.getStorageType();
         if (type.equals("MYSQL")) return getMySQLPort();
         if (type.equals("MARIADB")) return getMariaDBPort();
         return 3306;
     }
 
     public String getDatabaseName() {
-        String type = getStorageType();
+        String type = settings.getStorageType();
         if (type.equals("MYSQL")) return getMySQLDatabase();
         if (type.equals("MARIADB")) return getMariaDBDatabase();
         if (type.equals("H2")) return getH2FileName();
@@ -321,7 +401,7 @@ public class ConfigManager {
     }
 
     public String getDatabaseUsername() {
-        String type = getStorageType();
+        String type = settings.getStorageType();
         if (type.equals("MYSQL")) return getMySQLUsername();
         if (type.equals("MARIADB")) return getMariaDBUsername();
         if (type.equals("H2")) return getH2Username();
@@ -329,7 +409,7 @@ public class ConfigManager {
     }
 
     public String getDatabasePassword() {
-        String type = getStorageType();
+        String type = settings.getStorageType();
         if (type.equals("MYSQL")) return getMySQLPassword();
         if (type.equals("MARIADB")) return getMariaDBPassword();
         if (type.equals("H2")) return getH2Password();
@@ -337,63 +417,100 @@ public class ConfigManager {
     }
 
     public String getTablePrefix() {
-        String type = getStorageType();
+        String type = settings.getStorageType();
         if (type.equals("MYSQL")) return getMySQLTablePrefix();
         if (type.equals("MARIADB")) return getMariaDBTablePrefix();
         return "joinsounds_";
     }
 
     public boolean areCooldownsEnabled() {
-        return config.getBoolean("cooldowns.enabled", true);
+        return settings.areCooldownsEnabled();
     }
 
     public int getChangeSoundCooldown() {
-        return Math.max(0, config.getInt("cooldowns.change-sound-cooldown", 30));
+        return settings.getChangeSoundCooldown();
     }
 
     public int getRejoinCooldown() {
-        return Math.max(0, config.getInt("cooldowns.rejoin-cooldown", 5));
+        return settings.getRejoinCooldown();
+    }
+
+    public int getAccessCacheSeconds() {
+        return settings.getAccessCacheSeconds();
+    }
+
+    public boolean shouldWatchFiles() {
+        return settings.shouldWatchFiles();
+    }
+
+    public int getWatchDebounceMillis() {
+        return settings.getWatchDebounceMillis();
+    }
+
+    public boolean isCatalogCacheEnabled() {
+        return settings.isCatalogCacheEnabled();
+    }
+
+    public int getCatalogParseThreads() {
+        return settings.getCatalogParseThreads();
+    }
+
+    public int getMaxTabCompletions() {
+        return settings.getMaxTabCompletions();
     }
 
     public boolean shouldCheckUpdates() {
-        return config.getBoolean("advanced.check-updates", true);
+        return settings.shouldCheckUpdates();
     }
 
     public boolean shouldSendMetrics() {
-        return config.getBoolean("advanced.metrics", true);
+        return settings.shouldSendMetrics();
     }
 
     public int getMaxSoundsPerPlayer() {
-        return config.getInt("advanced.max-sounds-per-player", -1);
+        return settings.getMaxSoundsPerPlayer();
     }
 
     public String getMessage(String path) {
-        String message = messagesConfig.getString("messages." + path, "Message not found: " + path);
-        return getPrefix() + message.replace("&", "§");
+        return template(path).render(true);
     }
 
     public String getMessage(String path, String... replacements) {
-        String message = getMessage(path);
-        for (int i = 0; i < replacements.length; i += 2) {
-            if (i + 1 < replacements.length) {
-                message = message.replace("{" + replacements[i] + "}", replacements[i + 1]);
-            }
-        }
-        return message;
+        return template(path).render(true, replacements);
     }
 
     public String getMessageWithoutPrefix(String path) {
-        String message = messagesConfig.getString("messages." + path, "Message not found: " + path);
-        return message.replace("&", "§");
+        return template(path).render(false);
     }
 
     public String getMessageWithoutPrefix(String path, String... replacements) {
-        String message = getMessageWithoutPrefix(path);
-        for (int i = 0; i < replacements.length; i += 2) {
-            if (i + 1 < replacements.length) {
-                message = message.replace("{" + replacements[i] + "}", replacements[i + 1]);
-            }
+        return template(path).render(false, replacements);
+    }
+
+    /**
+     * Send a message with the plugin prefix as a component
+     * @param recipient Who receives the message
+     * @param path Message path under 'messages'
+     * @param replacements Placeholder names and values, in pairs
+     */
+    public void sendMessage(CommandSender recipient, String path, String... replacements) {
+        recipient.sendMessage(getMessageComponent(path, replacements));
+    }
+
+    /**
+     * @param path Message path under 'messages'
+     * @param replacements Placeholder names and values, in pairs
+     * @return The message with the plugin prefix as a component
+     */
+    public Component getMessageComponent(String path, String... replacements) {
+        return template(path).toComponent(replacements);
+    }
+
+    private MessageTemplate template(String path) {
+        MessageTemplate template = messages.get(path);
+        if (template == null) {
+            template = MessageTemplate.compile("Message not found: " + path, settings.getPrefix(), false);
         }
-        return message;
+        return template;
     }
 }
\ No newline at end of file
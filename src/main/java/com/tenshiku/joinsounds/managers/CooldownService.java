@@ -0,0 +1,324 @@
+package com.tenshiku.joinsounds.managers;
+
+import com.tenshiku.joinsounds.JoinSounds;
+import com.tenshiku.joinsounds.models.CooldownKind;
+import com.tenshiku.joinsounds.models.PluginSettings;
+import java.util.Arrays;
+import java.util.UUID;
+
+
+/**
+ * Active cooldowns per player and kind.
+ * Each kind keeps the start time of its cooldowns in an open-addressing table keyed by the two
+ * halves of the player's UUID, so lookups neither box nor allocate. A timing wheel with one-second
+ * slots removes cooldowns once they expire, so the tables only hold players who are still waiting.
+ * The wheel is advanced by the calls themselves rather than a scheduled task.
+ * Lengths are re-read only when the settings snapshot changes; a changed length applies to running
+ * cooldowns too, because only their start time is stored.
+ */
+public class CooldownService {
+
+    private static final int WHEEL_SLOTS = 512;
+    private static final long SLOT_MILLIS = 1000L;
+
+    private final JoinSounds plugin;
+    private final Table[] tables;
+    private final long[] lengths;
+    private PluginSettings configuredFor;
+
+    public CooldownService(JoinSounds plugin) {
+        this.plugin = plugin;
+        this.tables = new Table[CooldownKind.count()];
+        this.lengths = new long[CooldownKind.count()];
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < tables.length; i++) {
+            tables[i] = new Table(now / SLOT_MILLIS);
+        }
+    }
+
+    /**
+     * @param kind The cooldown
+     * @param uuid The player
+     * @return Whether the player must still wait
+     */
+    public boolean isActive(CooldownKind kind, UUID uuid) {
+        return getRemainingMillis(kind, uuid) > 0;
+    }
+
+    /**
+     * @return Milliseconds the player must still wait, or 0
+     */
+    public synchronized long getRemainingMillis(CooldownKind kind, UUID uuid) {
+        long now = System.currentTimeMillis();
+        long length = length(kind, now);
+        if (length == 0) {
+            return 0;
+        }
+
+        long started = tables[kind.ordinal()].get(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        return started == 0 ? 0 : Math.max(0, started + length - now);
+    }
+
+    /**
+     * @return Whole seconds the player must still wait, rounded up, or 0
+     */
+    public long getRemainingSeconds(CooldownKind kind, UUID uuid) {
+        return (getRemainingMillis(kind, uuid) + 999) / 1000;
+    }
+
+    /**
+     * Start a cooldown now
+     */
+    public void start(CooldownKind kind, UUID uuid) {
+        start(kind, uuid, System.currentTimeMillis());
+    }
+
+    /**
+     * Start a cooldown at a given time, e.g. a timestamp loaded from storage.
+     * Nothing is kept if the cooldown is turned off or has already run out.
+     * @param startedAt When the cooldown started, in epoch milliseconds; 0 means never
+     */
+    public synchronized void start(CooldownKind kind, UUID uuid, long startedAt) {
+        long now = System.currentTimeMillis();
+        long length = length(kind, now);
+        if (startedAt <= 0 || length == 0 || startedAt + length <= now) {
+            return;
+        }
+
+        tables[kind.ordinal()].put(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(),
+                startedAt, (startedAt + length) / SLOT_MILLIS);
+    }
+
+    /**
+     * End a cooldown early
+     */
+    public synchronized void clear(CooldownKind kind, UUID uuid) {
+        tables[kind.ordinal()].remove(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * End all of a player's cooldowns
+     */
+    public synchronized void clear(UUID uuid) {
+        for (Table table : tables) {
+            table.remove(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        }
+    }
+
+    /**
+     * @return Players currently waiting on a kind of cooldown
+     */
+    public synchronized int getActiveCount(CooldownKind kind) {
+        return tables[kind.ordinal()].size;
+    }
+
+    /**
+     * Pick up changed lengths and let the wheels catch up to the current time
+     * @return The length of the kind, in milliseconds; 0 if it is turned off
+     */
+    private long length(CooldownKind kind, long now) {
+        PluginSettings settings = plugin.getConfigManager().getSettings();
+        if (settings != configuredFor) {
+            configure(settings);
+        }
+
+        long slot = now / SLOT_MILLIS;
+        for (int i = 0; i < tables.length; i++) {
+            tables[i].advance(slot, lengths[i], now);
+        }
+        return lengths[kind.ordinal()];
+    }
+
+    private void configure(PluginSettings settings) {
+        boolean enabled = settings.areCooldownsEnabled();
+        lengths[CooldownKind.CHANGE.ordinal()] = enabled ? settings.getChangeSoundCooldown() * 1000L : 0;
+        lengths[CooldownKind.REJOIN.ordinal()] = enabled ? settings.getRejoinCooldown() * 1000L : 0;
+        lengths[CooldownKind.PREVIEW.ordinal()] = enabled ? settings.getPreviewCooldown() * 1000L : 0;
+        configuredFor = settings;
+    }
+
+    /**
+     * Start times for one kind, keyed by UUID, with the wheel that expires them.
+     * Slots are free where the start time is 0; removal shifts later entries back,
+     * so probing never needs tombstones.
+     */
+    private static final class Table {
+
+        private static final int MIN_CAPACITY = 16;
+        // Larger slot buffers are dropped once drained instead of being kept for reuse
+        private static final int MAX_SPARE = 256;
+
+        private long[] most;
+        private long[] least;
+        private long[] started;
+        private int size;
+
+        // Wheel slot i holds the UUIDs, as most/least pairs, that expire in a second congruent to i
+        private final long[][] wheel;
+        private final int[] wheelSizes;
+        private long wheelSlot;
+        private long[] spare;
+
+        Table(long slot) {
+            allocate(MIN_CAPACITY);
+            this.wheel = new long[WHEEL_SLOTS][];
+            this.wheelSizes = new int[WHEEL_SLOTS];
+            this.wheelSlot = slot;
+        }
+
+        private void allocate(int capacity) {
+            most = new long[capacity];
+            least = new long[capacity];
+            started = new long[capacity];
+            size = 0;
+        }
+
+        private static int hash(long most, long least) {
+            long h = most ^ least;
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            return (int) h;
+        }
+
+        private int find(long hi, long lo) {
+            int mask = started.length - 1;
+            for (int i = hash(hi, lo) & mask; started[i] != 0; i = (i + 1) & mask) {
+                if (most[i] == hi && least[i] == lo) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        long get(long hi, long lo) {
+            int index = find(hi, lo);
+            return index < 0 ? 0 : started[index];
+        }
+
+        void put(long hi, long lo, long startedAt, long expirySlot) {
+            int index = find(hi, lo);
+            if (index >= 0) {
+                // Already on the wheel; the wheel re-checks the start time when it reaches the entry
+                started[index] = startedAt;
+                return;
+            }
+
+            if ((size + 1) * 4 > started.length * 3) {
+                resize(started.length * 2);
+            }
+            insert(hi, lo, startedAt);
+            schedule(hi, lo, Math.max(expirySlot, wheelSlot + 1));
+        }
+
+        private void insert(long hi, long lo, long startedAt) {
+            int mask = started.length - 1;
+            int i = hash(hi, lo) & mask;
+            while (started[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            most[i] = hi;
+            least[i] = lo;
+            started[i] = startedAt;
+            size++;
+        }
+
+        void remove(long hi, long lo) {
+            int index = find(hi, lo);
+            if (index < 0) {
+                return;
+            }
+
+            int mask = started.length - 1;
+            int gap = index;
+            for (int i = (gap + 1) & mask; started[i] != 0; i = (i + 1) & mask) {
+                int home = hash(most[i], least[i]) & mask;
+                // Move the entry into the gap if the gap lies between its home slot and where it sits
+                if (((i - home) & mask) >= ((i - gap) & mask)) {
+                    most[gap] = most[i];
+                    least[gap] = least[i];
+                    started[gap] = started[i];
+                    gap = i;
+                }
+            }
+            started[gap] = 0;
+            size--;
+
+            if (started.length > MIN_CAPACITY && size * 8 < started.length) {
+                resize(started.length / 2);
+            }
+        }
+
+        private void resize(int capacity) {
+            long[] oldMost = most;
+            long[] oldLeast = least;
+            long[] oldStarted = started;
+            allocate(capacity);
+            for (int i = 0; i < oldStarted.length; i++) {
+                if (oldStarted[i] != 0) {
+                    insert(oldMost[i], oldLeast[i], oldStarted[i]);
+                }
+            }
+        }
+
+        private void schedule(long hi, long lo, long slot) {
+            int index = (int) (slot % WHEEL_SLOTS);
+            long[] entries = wheel[index];
+            int used = wheelSizes[index];
+            if (entries == null) {
+                entries = wheel[index] = spare != null ? spare : new long[8];
+                spare = null;
+            } else if (used + 2 > entries.length) {
+                entries = wheel[index] = Arrays.copyOf(entries, entries.length * 2);
+            }
+            entries[used] = hi;
+            entries[used + 1] = lo;
+            wheelSizes[index] = used + 2;
+        }
+
+        /**
+         * Visit every slot passed since the last call, removing entries that have expired
+         * and moving the rest to the slot of their current expiry
+         */
+        void advance(long slot, long length, long now) {
+            if (slot <= wheelSlot) {
+                return;
+            }
+
+            // After a full turn every slot has been visited once
+            long from = Math.max(wheelSlot + 1, slot - WHEEL_SLOTS + 1);
+            wheelSlot = slot;
+            for (long current = from; current <= slot; current++) {
+                int index = (int) (current % WHEEL_SLOTS);
+                int used = wheelSizes[index];
+                if (used == 0) {
+                    continue;
+                }
+
+                long[] entries = wheel[index];
+                wheel[index] = null;
+                wheelSizes[index] = 0;
+                for (int i = 0; i < used; i += 2) {
+                    expire(entries[i], entries[i + 1], length, now);
+                }
+                if (entries.length <= MAX_SPARE) {
+                    spare = entries;
+                }
+            }
+        }
+
+        private void expire(long hi, long lo, long length, long now) {
+            int index = find(hi, lo);
+            if (index < 0) {
+                return;
+            }
+
+            long expiresAt = started[index] + length;
+            if (length == 0 || expiresAt <= now) {
+                remove(hi, lo);
+            } else {
+                schedule(hi, lo, Math.max(expiresAt / SLOT_MILLIS, wheelSlot + 1));
+            }
+        }
+    }
+}
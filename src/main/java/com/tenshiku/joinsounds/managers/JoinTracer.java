@@ -0,0 +1,163 @@
+package com.tenshiku.joinsounds.managers;
+
+import com.tenshiku.joinsounds.models.JoinOutcome;
+import com.tenshiku.joinsounds.models.JoinTrace;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Predicate;
+
+
+/**
+ * Fixed-size ring buffer of recent join decisions.
+ * Recording claims a slot with one atomic increment and writes a handful of primitives, without
+ * locking or allocating; the oldest entries are overwritten. Readers copy entries out and skip
+ * any slot that was rewritten while they were reading it.
+ */
+public class JoinTracer {
+
+    private static final long WRITING = -1L;
+
+    private final int mask;
+    private final AtomicLong cursor;
+    private final AtomicLongArray sequences;
+    private final long[] times;
+    private final long[] playerMost;
+    private final long[] playerLeast;
+    private final long[] elapsed;
+    private final int[] codes;
+
+    /**
+     * @param capacity Number of entries to keep, rounded up to a power of two; 0 disables tracing
+     */
+    public JoinTracer(int capacity) {
+        int size = capacity <= 1 ? Math.max(0, capacity) : Integer.highestOneBit(capacity - 1) << 1;
+
+        this.mask = size - 1;
+        this.cursor = new AtomicLong();
+        this.sequences = new AtomicLongArray(size);
+        this.times = new long[size];
+        this.playerMost = new long[size];
+        this.playerLeast = new long[size];
+        this.elapsed = new long[size];
+        this.codes = new int[size];
+
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, WRITING);
+        }
+    }
+
+    public boolean isEnabled() {
+        return mask >= 0;
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * @return Number of decisions recorded since startup
+     */
+    public long getTotal() {
+        return cursor.get();
+    }
+
+    /**
+     * Record a join decision
+     * @param player The joining player
+     * @param outcome What was decided
+     * @param startNanos System.nanoTime() when the join was first seen
+     * @return The entry's sequence, for {@link #update}; -1 if tracing is off
+     */
+    public long record(UUID player, JoinOutcome outcome, long startNanos) {
+        if (mask < 0) {
+            return -1;
+        }
+
+        long now = System.nanoTime();
+        long sequence = cursor.getAndIncrement();
+        int slot = (int) (sequence & mask);
+
+        sequences.set(slot, WRITING);
+        VarHandle.storeStoreFence();
+
+        times[slot] = System.currentTimeMillis();
+        playerMost[slot] = player.getMostSignificantBits();
+        playerLeast[slot] = player.getLeastSignificantBits();
+        elapsed[slot] = now - startNanos;
+        codes[slot] = outcome.ordinal() | outcome.getStage().ordinal() << 16;
+
+        sequences.set(slot, sequence);
+        return sequence;
+    }
+
+    /**
+     * Change the outcome of a recorded decision in place, e.g. when a scheduled sound plays.
+     * Does nothing if the entry has already been overwritten.
+     * @param sequence The sequence returned by {@link #record}
+     * @param outcome The new outcome
+     * @param startNanos System.nanoTime() when the join was first seen
+     */
+    public void update(long sequence, JoinOutcome outcome, long startNanos) {
+        if (mask < 0 || sequence < 0) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        int slot = (int) (sequence & mask);
+        if (!sequences.compareAndSet(slot, sequence, WRITING)) {
+            return;
+        }
+        VarHandle.storeStoreFence();
+
+        elapsed[slot] = now - startNanos;
+        codes[slot] = outcome.ordinal() | outcome.getStage().ordinal() << 16;
+
+        sequences.set(slot, sequence);
+    }
+
+    /**
+     * Copy out recent decisions, newest first
+     * @param limit Maximum number of entries to return
+     * @param filter Entries to include
+     * @return Matching entries
+     */
+    public List<JoinTrace> recent(int limit, Predicate<JoinTrace> filter) {
+        List<JoinTrace> traces = new ArrayList<>();
+        if (mask < 0) {
+            return traces;
+        }
+
+        long newest = cursor.get() - 1;
+        long oldest = Math.max(0, newest - mask);
+
+        for (long sequence = newest; sequence >= oldest && traces.size() < limit; sequence--) {
+            int slot = (int) (sequence & mask);
+            if (sequences.get(slot) != sequence) {
+                continue; // Still being written or already overwritten
+            }
+
+            long time = times[slot];
+            long most = playerMost[slot];
+            long least = playerLeast[slot];
+            long nanos = elapsed[slot];
+            int code = codes[slot];
+
+            VarHandle.acquireFence();
+            if (sequences.get(slot) != sequence) {
+                continue;
+            }
+
+            JoinTrace trace = new JoinTrace(sequence, time, new UUID(most, least),
+                    JoinOutcome.byOrdinal(code & 0xFFFF), JoinOutcome.Stage.byOrdinal(code >>> 16), nanos);
+            if (filter.test(trace)) {
+                traces.add(trace);
+            }
+        }
+
+        return traces;
+    }
+}
@@ -0,0 +1,320 @@
+package com.tenshiku.joinsounds.managers;
+
+import com.tenshiku.joinsounds.JoinSounds;
+import com.tenshiku.joinsounds.models.Histogram;
+import com.tenshiku.joinsounds.models.PluginSettings;
+import org.bukkit.scheduler.BukkitTask;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Measures the time the plugin's entry points spend on the main thread.
+ * Each entry point brackets its work with {@link #enter} and {@link #exit}; calls made off the
+ * main thread, or from inside another measured call, are not measured. A sampler thread takes the
+ * main thread's stack once a call runs past the budget, so a slow call is logged with where it was
+ * stuck rather than where it ended. Percentiles cover the last complete window, or the current one
+ * until the first window has completed.
+ */
+public class MainThreadWatchdog {
+
+    private static final int STACK_DEPTH = 40;
+
+    /**
+     * Plugin code the server thread calls into
+     */
+    public enum EntryPoint {
+        JOIN,
+        QUIT,
+        WORLD_CHANGE,
+        COMMAND,
+        MENU,
+        STORAGE;
+
+        public String getKey() {
+            return name().toLowerCase(Locale.ROOT).replace('_', '-');
+        }
+    }
+
+    private final JoinSounds plugin;
+    private final int points;
+
+    // Written on the main thread only, except where volatile
+    private Histogram[] calls;
+    private Histogram[] ticks;
+    private Histogram[] previousCalls;
+    private Histogram[] previousTicks;
+    private final long[] tickNanos;
+    private final long[] overBudget;
+    private final long[] lastLogged;
+    private final int[] suppressed;
+    private int windowTicks;
+
+    // The call in progress, read by the sampler
+    private volatile Thread mainThread;
+    private volatile long activeStart;
+    private volatile EntryPoint activePoint;
+    private volatile Object activeContext;
+    private volatile Sample sample;
+
+    private volatile boolean running;
+    private volatile long budgetNanos;
+    private volatile long stallNanos;
+    private BukkitTask tickTask;
+    private ScheduledExecutorService sampler;
+
+    public MainThreadWatchdog(JoinSounds plugin) {
+        this.plugin = plugin;
+        this.points = EntryPoint.values().length;
+        this.calls = histograms();
+        this.ticks = histograms();
+        this.tickNanos = new long[points];
+        this.overBudget = new long[points];
+        this.lastLogged = new long[points];
+        this.suppressed = new int[points];
+    }
+
+    private Histogram[] histograms() {
+        Histogram[] histograms = new Histogram[points];
+        for (int i = 0; i < points; i++) {
+            histograms[i] = new Histogram();
+        }
+        return histograms;
+    }
+
+    /**
+     * Start measuring a call
+     * @param point The entry point being called
+     * @param context Describes the call in slow-call reports, e.g. the player; only turned into text if the call is slow
+     * @return The start time to pass to {@link #exit}, or 0 if this call is not measured
+     */
+    public long enter(EntryPoint point, Object context) {
+        if (!running || activeStart != 0 || !plugin.getServer().isPrimaryThread()) {
+            return 0;
+        }
+
+        if (mainThread == null) {
+            mainThread = Thread.currentThread();
+        }
+        activePoint = point;
+        activeContext = context;
+        long start = System.nanoTime();
+        activeStart = start;
+        return start;
+    }
+
+    /**
+     * Finish measuring a call, logging it if it went over the budget
+     * @param start The value returned by {@link #enter}
+     */
+    public void exit(long start) {
+        if (start == 0) {
+            return;
+        }
+
+        long elapsed = System.nanoTime() - start;
+        EntryPoint point = activePoint;
+        Object context = activeContext;
+        activeStart = 0;
+        activeContext = null;
+
+        int index = point.ordinal();
+        calls[index].record(elapsed);
+        tickNanos[index] += elapsed;
+
+        if (elapsed > budgetNanos) {
+            overBudget[index]++;
+            Sample taken = sample;
+            reportSlow(point, context, elapsed, taken != null && taken.start == start ? taken.stack : null);
+        }
+    }
+
+    private void reportSlow(EntryPoint point, Object context, long elapsed, StackTraceElement[] stack) {
+        int index = point.ordinal();
+        long now = System.currentTimeMillis();
+        long interval = plugin.getConfigManager().getSettings().getWatchdogLogIntervalSeconds() * 1000L;
+        if (now - lastLogged[index] < interval) {
+            suppressed[index]++;
+            return;
+        }
+
+        StringBuilder message = new StringBuilder(1024);
+        message.append("Main thread spent ").append(formatMillis(elapsed)).append(" in ").append(point.getKey())
+                .append(" (budget ").append(formatMillis(budgetNanos)).append(")");
+        if (context != null) {
+            message.append(" for ").append(context);
+        }
+        if (suppressed[index] > 0) {
+            message.append("; ").append(suppressed[index]).append(" more slow ").append(point.getKey())
+                    .append(" calls since the last report");
+        }
+        appendStack(message, stack);
+
+        plugin.getLogger().warning(message.toString());
+        lastLogged[index] = now;
+        suppressed[index] = 0;
+    }
+
+    private static void appendStack(StringBuilder message, StackTraceElement[] stack) {
+        if (stack == null) {
+            message.append("\n  No stack was sampled; the call ended before the sampler saw it");
+            return;
+        }
+
+        message.append("\n  Main thread stack once the budget was passed:");
+        int depth = Math.min(stack.length, STACK_DEPTH);
+        for (int i = 0; i < depth; i++) {
+            message.append("\n    at ").append(stack[i]);
+        }
+        if (stack.length > depth) {
+            message.append("\n    ... ").append(stack.length - depth).append(" more");
+        }
+    }
+
+    /**
+     * Runs on the sampler thread; takes the stack of a call that passed the budget,
+     * and reports a call that is still running past the stall time
+     */
+    private void sample() {
+        long start = activeStart;
+        Thread thread = mainThread;
+        if (start == 0 || thread == null) {
+            return;
+        }
+
+        long elapsed = System.nanoTime() - start;
+        Sample taken = sample;
+        if (elapsed > budgetNanos && (taken == null || taken.start != start)) {
+            StackTraceElement[] stack = thread.getStackTrace();
+            // The stack only belongs to the call if it was still running once the stack was taken
+            if (activeStart == start) {
+                sample = new Sample(start, stack);
+            }
+            return;
+        }
+
+        if (elapsed > stallNanos && taken != null && taken.start == start && !taken.stallReported) {
+            taken.stallReported = true;
+            EntryPoint point = activePoint;
+            Object context = activeContext;
+            StringBuilder message = new StringBuilder(1024);
+            message.append("Main thread has been in ").append(point.getKey()).append(" for ").append(formatMillis(elapsed));
+            if (context != null) {
+                message.append(" for ").append(context);
+            }
+            message.append(" and is still running");
+            appendStack(message, thread.getStackTrace());
+            plugin.getLogger().warning(message.toString());
+        }
+    }
+
+    /**
+     * Runs at the end of every tick; records each entry point's total for the tick and rolls the window
+     */
+    private void endTick() {
+        for (int i = 0; i < points; i++) {
+            if (tickNanos[i] > 0) {
+                ticks[i].record(tickNanos[i]);
+                tickNanos[i] = 0;
+            }
+        }
+
+        if (--windowTicks <= 0) {
+            previousCalls = calls;
+            previousTicks = ticks;
+            calls = histograms();
+            ticks = histograms();
+            windowTicks = plugin.getConfigManager().getSettings().getWatchdogWindowSeconds() * 20;
+        }
+    }
+
+    /**
+     * Start, restart or stop the watchdog to match the 'watchdog' settings
+     */
+    public synchronized void update(PluginSettings settings) {
+        stop();
+        if (!settings.isWatchdogEnabled()) {
+            return;
+        }
+
+        budgetNanos = (long) (settings.getWatchdogBudgetMillis() * 1_000_000);
+        stallNanos = Math.max(budgetNanos, settings.getWatchdogStallMillis() * 1_000_000L);
+        windowTicks = settings.getWatchdogWindowSeconds() * 20;
+
+        tickTask = plugin.getServer().getScheduler().runTaskTimer(plugin, this::endTick, 1L, 1L);
+
+        // Sampling at the budget's period means a call is seen at most two budgets after it started
+        long period = Math.max(500_000L, budgetNanos);
+        sampler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "JoinSounds Watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleAtFixedRate(this::sample, period, period, TimeUnit.NANOSECONDS);
+        running = true;
+
+        if (settings.isDebugMode()) {
+            plugin.getLogger().info("Main thread watchdog started with a budget of " + formatMillis(budgetNanos));
+        }
+    }
+
+    public synchronized void stop() {
+        running = false;
+        activeStart = 0;
+        if (tickTask != null) {
+            tickTask.cancel();
+            tickTask = null;
+        }
+        if (sampler != null) {
+            sampler.shutdownNow();
+            sampler = null;
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * @param point The entry point
+     * @return Time per call over the last complete window, or the current one until a window has completed
+     */
+    public Histogram.Snapshot getCalls(EntryPoint point) {
+        return (previousCalls != null ? previousCalls : calls)[point.ordinal()].snapshot();
+    }
+
+    /**
+     * @param point The entry point
+     * @return Total time per tick in which it was called, over the same window as {@link #getCalls}
+     */
+    public Histogram.Snapshot getTicks(EntryPoint point) {
+        return (previousTicks != null ? previousTicks : ticks)[point.ordinal()].snapshot();
+    }
+
+    /**
+     * @return Calls over the budget since startup
+     */
+    public long getOverBudget(EntryPoint point) {
+        return overBudget[point.ordinal()];
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format(Locale.ROOT, "%.2fms", nanos / 1_000_000.0);
+    }
+
+    /**
+     * A stack taken from the main thread during one call
+     */
+    private static final class Sample {
+        final long start;
+        final StackTraceElement[] stack;
+        volatile boolean stallReported;
+
+        Sample(long start, StackTraceElement[] stack) {
+            this.start = start;
+            this.stack = stack;
+        }
+    }
+}
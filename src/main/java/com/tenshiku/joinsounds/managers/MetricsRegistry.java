@@ -0,0 +1,309 @@
+package com.tenshiku.joinsounds.managers;
+
+import com.tenshiku.joinsounds.JoinSounds;
+import com.tenshiku.joinsounds.models.Histogram;
+import com.tenshiku.joinsounds.models.JoinOutcome;
+import com.tenshiku.joinsounds.models.PluginSettings;
+import com.tenshiku.joinsounds.models.TriggerType;
+import org.bukkit.scheduler.BukkitTask;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+
+/**
+ * Counters and histograms for the plugin's hot paths.
+ * Recording never locks: counters are LongAdders and histograms use atomic buckets.
+ * Everything is exposed through /joinsound stats and, if enabled, written to a file in
+ * Prometheus text format for a node exporter's textfile collector.
+ */
+public class MetricsRegistry {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    /**
+     * Storage calls that are timed separately
+     */
+    public enum StorageCall {
+        LOAD,
+        SAVE_ALL,
+        SAVE_PLAYER,
+        REMOVE_PLAYER,
+        REMOVE_TRIGGER,
+        BULK_JOB;
+
+        public String getKey() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final JoinSounds plugin;
+    private final List<Family> families;
+
+    private final Histogram[] triggerToPlay;
+    private final LongAdder[][] triggerOutcomes;
+    private final Histogram joinListener;
+    private final Histogram playTime;
+    private final Histogram listenersReached;
+    private final LongAdder fallbackSounds;
+    private final Histogram[] storageCalls;
+    private final LongAdder storageErrors;
+
+    private BukkitTask exportTask;
+    private File exportFile;
+
+    public MetricsRegistry(JoinSounds plugin) {
+        this.plugin = plugin;
+        this.families = new ArrayList<>();
+
+        Family toPlay = family("joinsounds_trigger_to_play_seconds",
+                "Time from the triggering event to playback, including the configured delay", "summary", 1 / NANOS_PER_SECOND);
+        triggerToPlay = new Histogram[TriggerType.count()];
+        for (int i = 0; i < triggerToPlay.length; i++) {
+            triggerToPlay[i] = toPlay.histogram("trigger=\"" + TriggerType.byOrdinal(i).getKey() + "\"");
+        }
+
+        Family outcomes = family("joinsounds_trigger_outcomes_total", "Trigger decisions by outcome", "counter", 1);
+        triggerOutcomes = new LongAdder[TriggerType.count()][JoinOutcome.values().length];
+        for (int i = 0; i < triggerOutcomes.length; i++) {
+            for (JoinOutcome outcome : JoinOutcome.values()) {
+                triggerOutcomes[i][outcome.ordinal()] = outcomes.counter("trigger=\"" + TriggerType.byOrdinal(i).getKey() +
+                        "\",outcome=\"" + outcome.name().toLowerCase(Locale.ROOT) + "\"");
+            }
+        }
+
+        joinListener = family("joinsounds_join_listener_seconds",
+                "Time spent in the join listener on the main thread", "summary", 1 / NANOS_PER_SECOND).histogram("");
+        playTime = family("joinsounds_play_seconds",
+                "Time spent sending one sound to every player in range", "summary", 1 / NANOS_PER_SECOND).histogram("");
+        listenersReached = family("joinsounds_play_listeners",
+                "Players who heard each sound", "summary", 1).histogram("");
+        fallbackSounds = family("joinsounds_fallback_sounds_total",
+                "Sounds replaced by the vanilla fallback because the Nexo sound failed", "counter", 1).counter("");
+
+        Family storage = family("joinsounds_storage_seconds", "Time spent in player data storage calls", "summary", 1 / NANOS_PER_SECOND);
+        storageCalls = new Histogram[StorageCall.values().length];
+        for (StorageCall call : StorageCall.values()) {
+            storageCalls[call.ordinal()] = storage.histogram("call=\"" + call.getKey() + "\"");
+        }
+        storageErrors = family("joinsounds_storage_errors_total", "Storage calls that failed", "counter", 1).counter("");
+
+        family("joinsounds_sessions", "Online players with an open session", "gauge", 1)
+                .gauge("", () -> plugin.getSessionManager().getSessionCount());
+        family("joinsounds_stored_players", "Players with a stored join sound", "gauge", 1)
+                .gauge("", () -> plugin.getPlayerDataManager().getPlayerCount());
+        family("joinsounds_catalog_sounds", "Sounds in the loaded catalog", "gauge", 1)
+                .gauge("", () -> plugin.getSoundManager().getSoundCount());
+    }
+
+    private Family family(String name, String help, String type, double scale) {
+        Family family = new Family(name, help, type, scale);
+        families.add(family);
+        return family;
+    }
+
+    /**
+     * @param type The trigger
+     * @return Time from the event to playback, in nanoseconds
+     */
+    public Histogram getTriggerToPlay(TriggerType type) {
+        return triggerToPlay[type.ordinal()];
+    }
+
+    public void countOutcome(TriggerType type, JoinOutcome outcome) {
+        triggerOutcomes[type.ordinal()][outcome.ordinal()].increment();
+    }
+
+    public long getOutcomeCount(TriggerType type, JoinOutcome outcome) {
+        return triggerOutcomes[type.ordinal()][outcome.ordinal()].sum();
+    }
+
+    /**
+     * @return Time spent in the join listener, in nanoseconds
+     */
+    public Histogram getJoinListener() {
+        return joinListener;
+    }
+
+    /**
+     * @return Time spent playing one sound, in nanoseconds
+     */
+    public Histogram getPlayTime() {
+        return playTime;
+    }
+
+    /**
+     * @return Number of players who heard each sound
+     */
+    public Histogram getListenersReached() {
+        return listenersReached;
+    }
+
+    public LongAdder getFallbackSounds() {
+        return fallbackSounds;
+    }
+
+    /**
+     * @param call The storage call
+     * @return Time spent in the call, in nanoseconds
+     */
+    public Histogram getStorageCall(StorageCall call) {
+        return storageCalls[call.ordinal()];
+    }
+
+    public LongAdder getStorageErrors() {
+        return storageErrors;
+    }
+
+    /**
+     * Render every metric in Prometheus text format
+     */
+    public String render() {
+        StringBuilder out = new StringBuilder(8192);
+        for (Family family : families) {
+            family.render(out);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Start, restart or stop the export to match the 'stats' settings
+     */
+    public synchronized void updateExport(PluginSettings settings) {
+        stopExport();
+        if (!settings.isStatsExportEnabled()) {
+            return;
+        }
+
+        File file = new File(settings.getStatsExportFile());
+        exportFile = file.isAbsolute() ? file : new File(plugin.getDataFolder(), settings.getStatsExportFile());
+
+        long period = settings.getStatsExportIntervalSeconds() * 20L;
+        exportTask = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, this::export, period, period);
+
+        if (settings.isDebugMode()) {
+            plugin.getLogger().info("Writing stats to " + exportFile.getPath() + " every " +
+                    settings.getStatsExportIntervalSeconds() + "s");
+        }
+    }
+
+    public synchronized void stopExport() {
+        if (exportTask != null) {
+            exportTask.cancel();
+            exportTask = null;
+        }
+    }
+
+    /**
+     * Write the file through a temporary file, so the collector never reads a partial one
+     */
+    private void export() {
+        File file;
+        synchronized (this) {
+            file = exportFile;
+        }
+
+        Path target = file.toPath();
+        Path temp = target.resolveSibling(file.getName() + ".tmp");
+        try {
+            Files.createDirectories(target.toAbsolutePath().getParent());
+            Files.write(temp, render().getBytes(StandardCharsets.UTF_8));
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            plugin.getLogger().warning("Could not write stats to " + file.getPath() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Metrics sharing a name, one series per label set
+     */
+    private static final class Family {
+
+        private final String name;
+        private final String help;
+        private final String type;
+        private final double scale;
+        private final List<String> labels;
+        private final List<Object> series;
+
+        Family(String name, String help, String type, double scale) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+            this.scale = scale;
+            this.labels = new ArrayList<>();
+            this.series = new ArrayList<>();
+        }
+
+        LongAdder counter(String labelSet) {
+            return add(labelSet, new LongAdder());
+        }
+
+        Histogram histogram(String labelSet) {
+            return add(labelSet, new Histogram());
+        }
+
+        void gauge(String labelSet, LongSupplier supplier) {
+            add(labelSet, supplier);
+        }
+
+        private <T> T add(String labelSet, T metric) {
+            labels.add(labelSet);
+            series.add(metric);
+            return metric;
+        }
+
+        void render(StringBuilder out) {
+            out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+            out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+
+            for (int i = 0; i < series.size(); i++) {
+                String labelSet = labels.get(i);
+                Object metric = series.get(i);
+
+                if (metric instanceof LongAdder) {
+                    sample(out, name, labelSet, ((LongAdder) metric).sum());
+                } else if (metric instanceof LongSupplier) {
+                    sample(out, name, labelSet, ((LongSupplier) metric).getAsLong());
+                } else {
+                    Histogram.Snapshot snapshot = ((Histogram) metric).snapshot();
+                    for (double quantile : QUANTILES) {
+                        String quantileLabel = "quantile=\"" + quantile + "\"";
+                        sample(out, name, labelSet.isEmpty() ? quantileLabel : labelSet + "," + quantileLabel,
+                                snapshot.getValueAt(quantile) * scale);
+                    }
+                    sample(out, name + "_sum", labelSet, snapshot.getSum() * scale);
+                    sample(out, name + "_count", labelSet, snapshot.getCount());
+                }
+            }
+        }
+
+        private static void sample(StringBuilder out, String name, String labelSet, double value) {
+            out.append(name);
+            if (!labelSet.isEmpty()) {
+                out.append('{').append(labelSet).append('}');
+            }
+            out.append(' ');
+            if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+                out.append((long) value);
+            } else {
+                out.append(value);
+            }
+            out.append('\n');
+        }
+    }
+}
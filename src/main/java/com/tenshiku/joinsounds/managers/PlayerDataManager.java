@@ -1,26 +1,65 @@
 package com.tenshiku.joinsounds.managers;
 
 import com.tenshiku.joinsounds.JoinSounds;
+import com.tenshiku.joinsounds.models.CooldownKind;
+import com.tenshiku.joinsounds.models.JoinSound;
+import com.tenshiku.joinsounds.models.PlayerSession;
+import com.tenshiku.joinsounds.models.SoundCatalog;
+import com.tenshiku.joinsounds.models.TriggerType;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 import java.io.File;
 import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.IntConsumer;
 
 
 public class PlayerDataManager {
 
+    // Ticks a YAML save waits for further changes, so a wave of quits rewrites the file once
+    private static final long YAML_SAVE_DELAY_TICKS = 20L;
+    // Players serialized at a time when the YAML file is rewritten
+    private static final int YAML_CHUNK_SIZE = 1000;
+
     private final JoinSounds plugin;
-    private final Map<UUID, String> playerSounds;
+    private final Map<UUID, Integer> playerSounds;
     private final Map<UUID, Long> lastSoundChange;
     private final Map<UUID, Long> lastJoinSound;
+    // Sounds for triggers other than join, indexed by trigger ordinal; -1 where none is set
+    private final Map<UUID, int[]> triggerSounds;
+    // Selections of online players by session slot, at slot * trigger count + trigger ordinal, join included;
+    // -1 where none. Copied in when a session opens and kept in step with the maps, so triggers need no UUID lookup
+    private final Object onlineLock = new Object();
+    private volatile int[] onlineSelections;
+    private final Executor asyncExecutor;
+    private final MetricsRegistry metrics;
+    private final CooldownService cooldowns;
 
     private File playerDataFile;
-    private FileConfiguration playerDataConfig;
+    // Saves wait for the first load, so they cannot replace the file with an empty one
+    private boolean yamlLoaded;
+    private final Object yamlSaveLock = new Object();
+    private CompletableFuture<Void> pendingYamlSave;
 
     private String jdbcUrl;
     private String username;
@@ -30,9 +69,14 @@ public class PlayerDataManager {
 
     public PlayerDataManager(JoinSounds plugin) {
         this.plugin = plugin;
-        this.playerSounds = new HashMap<>();
-        this.lastSoundChange = new HashMap<>();
-        this.lastJoinSound = new HashMap<>();
+        this.playerSounds = new ConcurrentHashMap<>();
+        this.lastSoundChange = new ConcurrentHashMap<>();
+        this.lastJoinSound = new ConcurrentHashMap<>();
+        this.triggerSounds = new ConcurrentHashMap<>();
+        this.onlineSelections = new int[0];
+        this.asyncExecutor = task -> plugin.getServer().getScheduler().runTaskAsynchronously(plugin, task);
+        this.metrics = plugin.getMetrics();
+        this.cooldowns = plugin.getCooldowns();
 
         initializeStorage();
         loadPlayerData();
@@ -162,10 +206,18 @@ public class PlayerDataManager {
                 "last_join BIGINT" +
                 ")";
 
+        String createTriggerTableSQL = "CREATE TABLE IF NOT EXISTS " + tablePrefix + "trigger_sounds (" +
+                "uuid VARCHAR(36), " +
+                "trigger_type VARCHAR(32), " +
+                "sound VARCHAR(255), " +
+                "PRIMARY KEY (uuid, trigger_type)" +
+                ")";
+
         try (Connection conn = getConnection();
              Statement stmt = conn.createStatement()) {
 
             stmt.execute(createTableSQL);
+            stmt.execute(createTriggerTableSQL);
             if (plugin.getConfigManager().isDebugMode()) {
                 plugin.getLogger().info("Database tables created/verified");
             }
@@ -184,12 +236,23 @@ public class PlayerDataManager {
     }
 
 
-    public void loadPlayerData() {
-        if (useDatabase) {
-            loadFromDatabase();
-        } else {
-            loadFromYaml();
+    public synchronized void loadPlayerData() {
+        long start = System.nanoTime();
+        long watched = plugin.getWatchdog().enter(MainThreadWatchdog.EntryPoint.STORAGE, MetricsRegistry.StorageCall.LOAD);
+        try {
+            if (useDatabase) {
+                loadFromDatabase();
+            } else {
+                loadFromYaml();
+            }
+        } finally {
+            plugin.getWatchdog().exit(watched);
         }
+        metrics.getStorageCall(MetricsRegistry.StorageCall.LOAD).recordSince(start);
+
+        // Stored IDs that were not in the catalog have been given ordinals
+        ordinals().save();
+        refreshOnline();
     }
 
 
@@ -198,7 +261,10 @@ public class PlayerDataManager {
             return;
         }
 
-        playerDataConfig = YamlConfiguration.loadConfiguration(playerDataFile);
+        // Only the parsed maps are kept; saves rewrite the file from them
+        FileConfiguration playerDataConfig = YamlConfiguration.loadConfiguration(playerDataFile);
+        yamlLoaded = true;
+        StoredSoundResolver resolver = new StoredSoundResolver();
 
         for (String uuidString : playerDataConfig.getKeys(false)) {
             try {
@@ -206,17 +272,26 @@ public class PlayerDataManager {
 
                 String sound = playerDataConfig.getString(uuidString + ".sound");
                 if (sound != null) {
-                    playerSounds.put(uuid, sound);
+                    playerSounds.put(uuid, resolver.ordinalOf(sound));
                 }
 
                 long lastChange = playerDataConfig.getLong(uuidString + ".last-change", 0);
                 if (lastChange > 0) {
                     lastSoundChange.put(uuid, lastChange);
+                    cooldowns.start(CooldownKind.CHANGE, uuid, lastChange);
                 }
 
                 long lastJoin = playerDataConfig.getLong(uuidString + ".last-join", 0);
                 if (lastJoin > 0) {
                     lastJoinSound.put(uuid, lastJoin);
+                    cooldowns.start(CooldownKind.REJOIN, uuid, lastJoin);
+                }
+
+                for (TriggerType type : TriggerType.values()) {
+                    String triggerSound = playerDataConfig.getString(uuidString + ".triggers." + type.getKey());
+                    if (type != TriggerType.JOIN && triggerSound != null) {
+                        triggerSelections(uuid)[type.ordinal()] = resolver.ordinalOf(triggerSound);
+                    }
                 }
 
             } catch (IllegalArgumentException e) {
@@ -230,6 +305,7 @@ public class PlayerDataManager {
 
     private void loadFromDatabase() {
         String selectSQL = "SELECT uuid, sound, last_change, last_join FROM " + tablePrefix + "players";
+        StoredSoundResolver resolver = new StoredSoundResolver();
 
         try (Connection conn = getConnection();
              Statement stmt = conn.createStatement();
@@ -244,13 +320,15 @@ public class PlayerDataManager {
                     long lastJoin = rs.getLong("last_join");
 
                     if (sound != null && !sound.isEmpty()) {
-                        playerSounds.put(uuid, sound);
+                        playerSounds.put(uuid, resolver.ordinalOf(sound));
                     }
                     if (lastChange > 0) {
                         lastSoundChange.put(uuid, lastChange);
+                        cooldowns.start(CooldownKind.CHANGE, uuid, lastChange);
                     }
                     if (lastJoin > 0) {
                         lastJoinSound.put(uuid, lastJoin);
+                        cooldowns.start(CooldownKind.REJOIN, uuid, lastJoin);
                     }
 
                     count++;
@@ -262,76 +340,245 @@ public class PlayerDataManager {
             plugin.getLogger().info("Loaded data for " + count + " players from database");
 
         } catch (SQLException e) {
+            metrics.getStorageErrors().increment();
             plugin.getLogger().severe("Failed to load player data from database: " + e.getMessage());
             e.printStackTrace();
         }
-    }
 
+        String selectTriggersSQL = "SELECT uuid, trigger_type, sound FROM " + tablePrefix + "trigger_sounds";
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(selectTriggersSQL)) {
 
-    public void saveAll() {
-        if (useDatabase) {
-            saveToDatabaseAsync();
-        } else {
-            saveToYaml();
+            while (rs.next()) {
+                TriggerType type = TriggerType.byKey(rs.getString("trigger_type"));
+                String sound = rs.getString("sound");
+                if (type == null || type == TriggerType.JOIN || sound == null) {
+                    continue;
+                }
+                try {
+                    triggerSelections(UUID.fromString(rs.getString("uuid")))[type.ordinal()] = resolver.ordinalOf(sound);
+                } catch (IllegalArgumentException e) {
+                    plugin.getLogger().warning("Invalid UUID in database: " + rs.getString("uuid"));
+                }
+            }
+
+        } catch (SQLException e) {
+            metrics.getStorageErrors().increment();
+            plugin.getLogger().severe("Failed to load trigger sounds from database: " + e.getMessage());
         }
     }
 
 
-    private void saveToYaml() {
-        if (playerDataConfig == null || playerDataFile == null) {
-            return;
-        }
+    /**
+     * Turns stored sound strings into ordinals during one load.
+     * Data written before ordinals existed holds whatever the player typed, which may be an alias
+     * or an ID in another case; those resolve to the sound's own ordinal. Only strings that no
+     * sound answers to get an ordinal of their own, so the selection is kept until the sound returns.
+     */
+    private final class StoredSoundResolver {
+        private final SoundCatalog catalog = plugin.getSoundManager().getCatalog();
+        private final Map<String, Integer> resolved = new HashMap<>();
+        private Map<String, JoinSound> lowerCaseIds;
 
-        for (String key : playerDataConfig.getKeys(false)) {
-            playerDataConfig.set(key, null);
+        int ordinalOf(String stored) {
+            return resolved.computeIfAbsent(stored, this::resolve);
         }
 
-        for (Map.Entry<UUID, String> entry : playerSounds.entrySet()) {
-            String uuidString = entry.getKey().toString();
-            playerDataConfig.set(uuidString + ".sound", entry.getValue());
+        private int resolve(String stored) {
+            JoinSound sound = catalog.getSound(stored);
+            if (sound != null) {
+                return sound.getOrdinal();
+            }
 
-            if (lastSoundChange.containsKey(entry.getKey())) {
-                playerDataConfig.set(uuidString + ".last-change", lastSoundChange.get(entry.getKey()));
+            // IDs of removed or renamed sounds keep the ordinal they were given
+            int known = ordinals().ordinalOf(stored);
+            if (known >= 0) {
+                return known;
             }
 
-            if (lastJoinSound.containsKey(entry.getKey())) {
-                playerDataConfig.set(uuidString + ".last-join", lastJoinSound.get(entry.getKey()));
+            if (lowerCaseIds == null) {
+                lowerCaseIds = new HashMap<>();
+                for (JoinSound candidate : catalog.getSounds().values()) {
+                    lowerCaseIds.putIfAbsent(candidate.getId().toLowerCase(Locale.ROOT), candidate);
+                }
             }
+            sound = lowerCaseIds.get(stored.toLowerCase(Locale.ROOT));
+            return sound != null ? sound.getOrdinal() : ordinals().ordinalFor(stored);
         }
+    }
 
+    /**
+     * Write all player data to storage on the calling thread
+     */
+    public synchronized void saveAll() {
+        long start = System.nanoTime();
+        long watched = plugin.getWatchdog().enter(MainThreadWatchdog.EntryPoint.STORAGE, MetricsRegistry.StorageCall.SAVE_ALL);
         try {
-            playerDataConfig.save(playerDataFile);
-            if (plugin.getConfigManager().isDebugMode()) {
-                plugin.getLogger().info("Saved player data to YAML");
+            if (useDatabase) {
+                saveToDatabase();
+            } else {
+                saveToYaml(count -> { });
+            }
+        } finally {
+            plugin.getWatchdog().exit(watched);
+        }
+        metrics.getStorageCall(MetricsRegistry.StorageCall.SAVE_ALL).recordSince(start);
+    }
+
+
+    /**
+     * Write the YAML file shortly, together with every other change made until then
+     * @return Future completed once a write that includes this change has finished
+     */
+    private CompletableFuture<Void> saveYamlSoon() {
+        synchronized (yamlSaveLock) {
+            if (pendingYamlSave == null) {
+                CompletableFuture<Void> future = new CompletableFuture<>();
+                pendingYamlSave = future;
+                plugin.getServer().getScheduler().runTaskLaterAsynchronously(plugin, () -> flushYaml(future),
+                        YAML_SAVE_DELAY_TICKS);
+            }
+            return pendingYamlSave;
+        }
+    }
+
+    private void flushYaml(CompletableFuture<Void> future) {
+        // Changes made from here on schedule the next write
+        synchronized (yamlSaveLock) {
+            pendingYamlSave = null;
+        }
+
+        boolean saved;
+        synchronized (this) {
+            long start = System.nanoTime();
+            saved = saveToYaml(count -> { });
+            metrics.getStorageCall(MetricsRegistry.StorageCall.SAVE_ALL).recordSince(start);
+        }
+
+        if (saved) {
+            future.complete(null);
+        } else {
+            future.completeExceptionally(new IOException("Could not save " + playerDataFile.getName()));
+        }
+    }
+
+    /**
+     * Rewrite the YAML file from memory, a chunk of players at a time.
+     * Each chunk is serialized on its own and appended to a temporary file, which then replaces
+     * the data file, so only one chunk is ever held as YAML and a failed write leaves the old file intact.
+     * @param progress Called with the number of players written after each chunk
+     * @return false if the file could not be written
+     */
+    private boolean saveToYaml(IntConsumer progress) {
+        if (!yamlLoaded || playerDataFile == null) {
+            return true;
+        }
+
+        File temp = new File(playerDataFile.getParentFile(), playerDataFile.getName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp.toPath(), StandardCharsets.UTF_8)) {
+            YamlConfiguration chunk = new YamlConfiguration();
+            int inChunk = 0;
+            int written = 0;
+
+            for (UUID uuid : playerSounds.keySet()) {
+                writePlayer(chunk, uuid);
+                if (++inChunk == YAML_CHUNK_SIZE) {
+                    written += flushChunk(writer, chunk, inChunk, written, progress);
+                    chunk = new YamlConfiguration();
+                    inChunk = 0;
+                }
+            }
+            // Players with only trigger sounds
+            for (UUID uuid : triggerSounds.keySet()) {
+                if (playerSounds.containsKey(uuid)) {
+                    continue;
+                }
+                writePlayer(chunk, uuid);
+                if (++inChunk == YAML_CHUNK_SIZE) {
+                    written += flushChunk(writer, chunk, inChunk, written, progress);
+                    chunk = new YamlConfiguration();
+                    inChunk = 0;
+                }
+            }
+            if (inChunk > 0) {
+                flushChunk(writer, chunk, inChunk, written, progress);
             }
         } catch (IOException e) {
+            metrics.getStorageErrors().increment();
             plugin.getLogger().severe("Could not save playerdata.yml: " + e.getMessage());
+            temp.delete();
+            return false;
         }
+
+        try {
+            try {
+                Files.move(temp.toPath(), playerDataFile.toPath(),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), playerDataFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            metrics.getStorageErrors().increment();
+            plugin.getLogger().severe("Could not replace playerdata.yml: " + e.getMessage());
+            return false;
+        }
+
+        if (plugin.getConfigManager().isDebugMode()) {
+            plugin.getLogger().info("Saved player data to YAML");
+        }
+        return true;
     }
 
-    private void saveToDatabaseAsync() {
-        CompletableFuture.runAsync(() -> saveToDatabase());
+    /**
+     * Append a chunk to the file being written; top-level UUID keys make the chunks one mapping
+     * @return The number of players in the chunk
+     */
+    private static int flushChunk(Writer writer, YamlConfiguration chunk, int players, int writtenBefore,
+                                  IntConsumer progress) throws IOException {
+        if (!chunk.getKeys(false).isEmpty()) {
+            writer.write(chunk.saveToString());
+        }
+        progress.accept(writtenBefore + players);
+        return players;
     }
 
-    private void saveToDatabase() {
-        String upsertSQL;
-        String storageType = plugin.getConfigManager().getStorageType();
+    private void writePlayer(YamlConfiguration chunk, UUID uuid) {
+        String uuidString = uuid.toString();
+        Integer ordinal = playerSounds.get(uuid);
+        if (ordinal != null) {
+            chunk.set(uuidString + ".sound", ordinals().idOf(ordinal));
 
-        if ("H2".equals(storageType)) {
-            upsertSQL = "MERGE INTO " + tablePrefix + "players (uuid, sound, last_change, last_join) VALUES (?, ?, ?, ?)";
-        } else {
-            upsertSQL = "INSERT INTO " + tablePrefix + "players (uuid, sound, last_change, last_join) VALUES (?, ?, ?, ?) " +
-                    "ON DUPLICATE KEY UPDATE sound = VALUES(sound), last_change = VALUES(last_change), last_join = VALUES(last_join)";
+            Long lastChange = lastSoundChange.get(uuid);
+            if (lastChange != null) {
+                chunk.set(uuidString + ".last-change", lastChange);
+            }
+
+            Long lastJoin = lastJoinSound.get(uuid);
+            if (lastJoin != null) {
+                chunk.set(uuidString + ".last-join", lastJoin);
+            }
         }
 
+        int[] selections = triggerSounds.get(uuid);
+        if (selections != null) {
+            for (int i = 0; i < selections.length; i++) {
+                if (selections[i] >= 0) {
+                    chunk.set(uuidString + ".triggers." + TriggerType.byOrdinal(i).getKey(), ordinals().idOf(selections[i]));
+                }
+            }
+        }
+    }
+
+    private void saveToDatabase() {
         try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(upsertSQL)) {
+             PreparedStatement pstmt = conn.prepareStatement(upsertStatement())) {
 
-            for (Map.Entry<UUID, String> entry : playerSounds.entrySet()) {
+            for (Map.Entry<UUID, Integer> entry : playerSounds.entrySet()) {
                 UUID uuid = entry.getKey();
 
                 pstmt.setString(1, uuid.toString());
-                pstmt.setString(2, entry.getValue());
+                pstmt.setString(2, ordinals().idOf(entry.getValue()));
                 pstmt.setLong(3, lastSoundChange.getOrDefault(uuid, 0L));
                 pstmt.setLong(4, lastJoinSound.getOrDefault(uuid, 0L));
                 pstmt.addBatch();
@@ -339,129 +586,521 @@ public class PlayerDataManager {
 
             pstmt.executeBatch();
 
+            try (PreparedStatement triggerStmt = conn.prepareStatement(triggerUpsertStatement())) {
+                for (Map.Entry<UUID, int[]> entry : triggerSounds.entrySet()) {
+                    addTriggerBatch(triggerStmt, entry.getKey(), entry.getValue());
+                }
+                triggerStmt.executeBatch();
+            }
+
             if (plugin.getConfigManager().isDebugMode()) {
                 plugin.getLogger().info("Saved player data to database");
             }
 
         } catch (SQLException e) {
+            metrics.getStorageErrors().increment();
             plugin.getLogger().severe("Failed to save player data to database: " + e.getMessage());
             e.printStackTrace();
         }
     }
 
+    private String upsertStatement() {
+        if ("H2".equals(plugin.getConfigManager().getStorageType())) {
+            return "MERGE INTO " + tablePrefix + "players (uuid, sound, last_change, last_join) VALUES (?, ?, ?, ?)";
+        }
+        return "INSERT INTO " + tablePrefix + "players (uuid, sound, last_change, last_join) VALUES (?, ?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE sound = VALUES(sound), last_change = VALUES(last_change), last_join = VALUES(last_join)";
+    }
+
+    private String triggerUpsertStatement() {
+        if ("H2".equals(plugin.getConfigManager().getStorageType())) {
+            return "MERGE INTO " + tablePrefix + "trigger_sounds (uuid, trigger_type, sound) VALUES (?, ?, ?)";
+        }
+        return "INSERT INTO " + tablePrefix + "trigger_sounds (uuid, trigger_type, sound) VALUES (?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE sound = VALUES(sound)";
+    }
+
+    private void addTriggerBatch(PreparedStatement pstmt, UUID uuid, int[] selections) throws SQLException {
+        for (int i = 0; i < selections.length; i++) {
+            if (selections[i] >= 0) {
+                pstmt.setString(1, uuid.toString());
+                pstmt.setString(2, TriggerType.byOrdinal(i).getKey());
+                pstmt.setString(3, ordinals().idOf(selections[i]));
+                pstmt.addBatch();
+            }
+        }
+    }
+
+    private int[] triggerSelections(UUID uuid) {
+        return triggerSounds.computeIfAbsent(uuid, key -> {
+            int[] selections = new int[TriggerType.count()];
+            Arrays.fill(selections, -1);
+            return selections;
+        });
+    }
+
+    /**
+     * @param uuid The player's UUID
+     * @return The ID of the player's selected sound, or null if none
+     */
     public String getPlayerSound(UUID uuid) {
-        return playerSounds.get(uuid);
+        Integer ordinal = playerSounds.get(uuid);
+        return ordinal != null ? ordinals().idOf(ordinal) : null;
+    }
+
+    /**
+     * @param uuid The player's UUID
+     * @return The ordinal of the player's selected sound, or -1 if none
+     */
+    public int getPlayerSoundOrdinal(UUID uuid) {
+        Integer ordinal = playerSounds.get(uuid);
+        return ordinal != null ? ordinal : -1;
+    }
+
+    /**
+     * Write one player's data off the main thread; used when they leave with unsaved changes
+     * @param uuid The player's UUID
+     * @return Future completed once the data has been written, or exceptionally if the write failed
+     */
+    public CompletableFuture<Void> savePlayerAsync(UUID uuid) {
+        if (!useDatabase) {
+            // The YAML file can only be written as a whole, so changes close together share one write
+            return saveYamlSoon();
+        }
+
+        return CompletableFuture.runAsync(() -> {
+            synchronized (this) {
+                long start = System.nanoTime();
+                Integer ordinal = playerSounds.get(uuid);
+                int[] selections = triggerSounds.get(uuid);
+
+                try (Connection conn = getConnection();
+                     PreparedStatement pstmt = conn.prepareStatement(upsertStatement());
+                     PreparedStatement triggerStmt = conn.prepareStatement(triggerUpsertStatement())) {
+
+                    if (ordinal != null) {
+                        pstmt.setString(1, uuid.toString());
+                        pstmt.setString(2, ordinals().idOf(ordinal));
+                        pstmt.setLong(3, lastSoundChange.getOrDefault(uuid, 0L));
+                        pstmt.setLong(4, lastJoinSound.getOrDefault(uuid, 0L));
+                        pstmt.executeUpdate();
+                    }
+                    if (selections != null) {
+                        addTriggerBatch(triggerStmt, uuid, selections);
+                        triggerStmt.executeBatch();
+                    }
+
+                } catch (SQLException e) {
+                    metrics.getStorageErrors().increment();
+                    plugin.getLogger().warning("Failed to save player " + uuid + ": " + e.getMessage());
+                    throw new CompletionException(e);
+                } finally {
+                    metrics.getStorageCall(MetricsRegistry.StorageCall.SAVE_PLAYER).recordSince(start);
+                }
+            }
+        }, asyncExecutor);
+    }
+
+    /**
+     * Copy a player's selections into their session's slot; called when the session opens
+     */
+    void attach(PlayerSession session) {
+        synchronized (onlineLock) {
+            int end = (session.getSlot() + 1) * TriggerType.count();
+            if (end > onlineSelections.length) {
+                int[] grown = Arrays.copyOf(onlineSelections, Math.max(end, onlineSelections.length * 2));
+                Arrays.fill(grown, onlineSelections.length, grown.length, -1);
+                onlineSelections = grown;
+            }
+            copySelections(session);
+        }
     }
 
-    public void setPlayerSound(UUID uuid, String soundId) {
-        if (soundId == null) {
-            playerSounds.remove(uuid);
-            removePlayerFromStorage(uuid);
+    /**
+     * Clear a closed session's slot before it is handed to another player
+     */
+    void detach(PlayerSession session) {
+        synchronized (onlineLock) {
+            int from = session.getSlot() * TriggerType.count();
+            Arrays.fill(onlineSelections, from, from + TriggerType.count(), -1);
+        }
+    }
+
+    /**
+     * Bring one online player's slot in line with the maps after their selections changed
+     */
+    private void refreshOnline(UUID uuid) {
+        PlayerSession session = plugin.getSessionManager().get(uuid);
+        if (session != null) {
+            synchronized (onlineLock) {
+                copySelections(session);
+            }
+        }
+    }
+
+    /**
+     * Bring every online player's slot in line with the maps after a bulk change or a load
+     */
+    private void refreshOnline() {
+        SessionManager sessions = plugin.getSessionManager();
+        synchronized (onlineLock) {
+            int slots = onlineSelections.length / TriggerType.count();
+            for (int slot = 0; slot < slots; slot++) {
+                PlayerSession session = sessions.getBySlot(slot);
+                if (session != null) {
+                    copySelections(session);
+                }
+            }
+        }
+    }
+
+    private void copySelections(PlayerSession session) {
+        int from = session.getSlot() * TriggerType.count();
+        int[] selections = triggerSounds.get(session.getUuid());
+        if (selections != null) {
+            System.arraycopy(selections, 0, onlineSelections, from, selections.length);
         } else {
-            playerSounds.put(uuid, soundId);
-            lastSoundChange.put(uuid, System.currentTimeMillis());
+            Arrays.fill(onlineSelections, from, from + TriggerType.count(), -1);
+        }
+        Integer ordinal = playerSounds.get(session.getUuid());
+        onlineSelections[from + TriggerType.JOIN.ordinal()] = ordinal != null ? ordinal : -1;
+    }
+
+    /**
+     * Read an online player's selection from their session slot, without a UUID lookup
+     * @param session The player's open session
+     * @param type The trigger; JOIN gives the join sound
+     * @return The ordinal of the player's sound for the trigger, or -1 if none
+     */
+    public int getPlayerSoundOrdinal(PlayerSession session, TriggerType type) {
+        int[] table = onlineSelections;
+        int index = session.getSlot() * TriggerType.count() + type.ordinal();
+        return index < table.length ? table[index] : -1;
+    }
+
+    /**
+     * @param uuid The player's UUID
+     * @param type The trigger
+     * @return The ordinal of the player's sound for the trigger, or -1 if none
+     */
+    public int getPlayerSoundOrdinal(UUID uuid, TriggerType type) {
+        if (type == TriggerType.JOIN) {
+            return getPlayerSoundOrdinal(uuid);
         }
+        int[] selections = triggerSounds.get(uuid);
+        return selections != null ? selections[type.ordinal()] : -1;
+    }
 
-        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, this::saveAll);
+    public boolean hasPlayerSound(UUID uuid, TriggerType type) {
+        return getPlayerSoundOrdinal(uuid, type) >= 0;
+    }
+
+    /**
+     * Change a player's sound for one trigger. The selection takes effect immediately; storage is written asynchronously.
+     * @param uuid The player's UUID
+     * @param type The trigger
+     * @param sound The new sound, or null to remove it
+     * @return Future completed once the change has been stored
+     */
+    public CompletableFuture<Void> setPlayerSound(UUID uuid, TriggerType type, JoinSound sound) {
+        if (type == TriggerType.JOIN) {
+            return setPlayerSound(uuid, sound);
+        }
+
+        if (sound != null) {
+            triggerSelections(uuid)[type.ordinal()] = sound.getOrdinal();
+            refreshOnline(uuid);
+            soundChanged(uuid);
+            return savePlayerAsync(uuid);
+        }
+
+        int[] selections = triggerSounds.get(uuid);
+        if (selections != null) {
+            selections[type.ordinal()] = -1;
+        }
+        refreshOnline(uuid);
+        if (!useDatabase) {
+            return saveYamlSoon();
+        }
+
+        String deleteSQL = "DELETE FROM " + tablePrefix + "trigger_sounds WHERE uuid = ? AND trigger_type = ?";
+        return CompletableFuture.runAsync(() -> {
+            synchronized (this) {
+                long start = System.nanoTime();
+                executeUpdate(deleteSQL, List.of(uuid.toString(), type.getKey()));
+                metrics.getStorageCall(MetricsRegistry.StorageCall.REMOVE_TRIGGER).recordSince(start);
+            }
+        }, asyncExecutor);
+    }
+
+    /**
+     * Change a player's sound. The selection takes effect immediately; storage is written asynchronously.
+     * @param uuid The player's UUID
+     * @param sound The new sound, or null to remove it
+     * @return Future completed once the change has been stored
+     */
+    public CompletableFuture<Void> setPlayerSound(UUID uuid, JoinSound sound) {
+        if (sound == null) {
+            return removePlayerSound(uuid);
+        }
+
+        playerSounds.put(uuid, sound.getOrdinal());
+        refreshOnline(uuid);
+        soundChanged(uuid);
+        return savePlayerAsync(uuid);
     }
 
     public boolean hasPlayerSound(UUID uuid) {
         return playerSounds.containsKey(uuid);
     }
 
-    public void removePlayerSound(UUID uuid) {
+    /**
+     * Remove a player's sound. The removal takes effect immediately; storage is written asynchronously.
+     * @param uuid The player's UUID
+     * @return Future completed once the removal has been stored
+     */
+    public CompletableFuture<Void> removePlayerSound(UUID uuid) {
         playerSounds.remove(uuid);
-        removePlayerFromStorage(uuid);
+        refreshOnline(uuid);
+        forgetTimestamps(uuid);
 
-        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, this::saveAll);
+        if (!useDatabase) {
+            return saveYamlSoon();
+        }
+
+        return CompletableFuture.runAsync(() -> {
+            synchronized (this) {
+                removePlayerFromStorage(uuid);
+            }
+        }, asyncExecutor);
     }
 
     private void removePlayerFromStorage(UUID uuid) {
-        if (useDatabase) {
-            String deleteSQL = "DELETE FROM " + tablePrefix + "players WHERE uuid = ?";
-            try (Connection conn = getConnection();
-                 PreparedStatement pstmt = conn.prepareStatement(deleteSQL)) {
+        long start = System.nanoTime();
+        long watched = plugin.getWatchdog().enter(MainThreadWatchdog.EntryPoint.STORAGE, uuid);
+        String deleteSQL = "DELETE FROM " + tablePrefix + "players WHERE uuid = ?";
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(deleteSQL)) {
 
-                pstmt.setString(1, uuid.toString());
-                pstmt.executeUpdate();
+            pstmt.setString(1, uuid.toString());
+            pstmt.executeUpdate();
 
-            } catch (SQLException e) {
-                plugin.getLogger().warning("Failed to remove player from database: " + e.getMessage());
-            }
+        } catch (SQLException e) {
+            metrics.getStorageErrors().increment();
+            plugin.getLogger().warning("Failed to remove player from database: " + e.getMessage());
+            throw new CompletionException(e);
+        } finally {
+            plugin.getWatchdog().exit(watched);
+            metrics.getStorageCall(MetricsRegistry.StorageCall.REMOVE_PLAYER).recordSince(start);
         }
+    }
 
-        lastSoundChange.remove(uuid);
-        lastJoinSound.remove(uuid);
+    /**
+     * Remove one player's sound and stored data in a single storage job
+     * @param uuid The player's UUID
+     * @return Future completed with 1 if the player had stored sounds, otherwise 0
+     */
+    public CompletableFuture<Integer> resetPlayer(UUID uuid) {
+        boolean stored = playerSounds.remove(uuid) != null | triggerSounds.remove(uuid) != null;
+        refreshOnline(uuid);
+        forgetTimestamps(uuid);
+
+        String key = uuid.toString();
+        return runStorageJob(stored ? 1 : 0, count -> { },
+                new Update("DELETE FROM " + tablePrefix + "players WHERE uuid = ?", List.of(key)),
+                new Update("DELETE FROM " + tablePrefix + "trigger_sounds WHERE uuid = ?", List.of(key)));
     }
 
-    public boolean isOnCooldown(UUID uuid, String cooldownType) {
-        if (!plugin.getConfigManager().areCooldownsEnabled()) {
-            return false;
+    /**
+     * Move every player using one sound to another
+     * @param fromOrdinal Ordinal of the sound to move players away from
+     * @param to The sound to give them
+     * @param progress Called off the main thread with the number of players written so far, on file storage
+     * @return Future completed with the number of players changed
+     */
+    public CompletableFuture<Integer> reassignSound(int fromOrdinal, JoinSound to, IntConsumer progress) {
+        Set<UUID> changed = new HashSet<>();
+        playerSounds.replaceAll((uuid, ordinal) -> {
+            if (ordinal != fromOrdinal) {
+                return ordinal;
+            }
+            changed.add(uuid);
+            return to.getOrdinal();
+        });
+        for (Map.Entry<UUID, int[]> entry : triggerSounds.entrySet()) {
+            int[] selections = entry.getValue();
+            for (int i = 0; i < selections.length; i++) {
+                if (selections[i] == fromOrdinal) {
+                    selections[i] = to.getOrdinal();
+                    changed.add(entry.getKey());
+                }
+            }
         }
 
-        Map<UUID, Long> cooldownMap;
-        int cooldownTime;
+        refreshOnline();
 
-        switch (cooldownType) {
-            case "change":
-                cooldownMap = lastSoundChange;
-                cooldownTime = plugin.getConfigManager().getChangeSoundCooldown();
-                break;
-            case "rejoin":
-                cooldownMap = lastJoinSound;
-                cooldownTime = plugin.getConfigManager().getRejoinCooldown();
-                break;
-            default:
+        List<Object> parameters = new ArrayList<>();
+        parameters.add(to.getId());
+        String where = " SET sound = ? WHERE " + storedSoundCondition(fromOrdinal, parameters);
+
+        return runStorageJob(changed.size(), progress,
+                new Update("UPDATE " + tablePrefix + "players" + where, parameters),
+                new Update("UPDATE " + tablePrefix + "trigger_sounds" + where, parameters));
+    }
+
+    /**
+     * Remove a sound from every player using it
+     * @param ordinal Ordinal of the sound to clear
+     * @param progress Called off the main thread with the number of players written so far, on file storage
+     * @return Future completed with the number of players changed
+     */
+    public CompletableFuture<Integer> clearSound(int ordinal, IntConsumer progress) {
+        Set<UUID> changed = new HashSet<>();
+        playerSounds.entrySet().removeIf(entry -> {
+            if (entry.getValue() != ordinal) {
                 return false;
+            }
+            forgetTimestamps(entry.getKey());
+            changed.add(entry.getKey());
+            return true;
+        });
+        for (Map.Entry<UUID, int[]> entry : triggerSounds.entrySet()) {
+            int[] selections = entry.getValue();
+            for (int i = 0; i < selections.length; i++) {
+                if (selections[i] == ordinal) {
+                    selections[i] = -1;
+                    changed.add(entry.getKey());
+                }
+            }
         }
 
-        Long lastTime = cooldownMap.get(uuid);
-        if (lastTime == null) {
-            return false;
-        }
+        refreshOnline();
 
-        long timeDiff = (System.currentTimeMillis() - lastTime) / 1000;
-        return timeDiff < cooldownTime;
+        List<Object> parameters = new ArrayList<>();
+        String where = " WHERE " + storedSoundCondition(ordinal, parameters);
+        return runStorageJob(changed.size(), progress,
+                new Update("DELETE FROM " + tablePrefix + "players" + where, parameters),
+                new Update("DELETE FROM " + tablePrefix + "trigger_sounds" + where, parameters));
     }
 
-    public long getRemainingCooldown(UUID uuid, String cooldownType) {
-        if (!plugin.getConfigManager().areCooldownsEnabled()) {
-            return 0;
+    /**
+     * Build a condition matching every stored row that loads as the ordinal: its IDs, past and present, exactly,
+     * and its current ID and aliases in any case, as older data may hold them. A form that an ID of another
+     * sound also matches ignoring case is left out, so the case-insensitive part cannot take that sound's rows.
+     * @param parameters Receives the condition's parameters
+     * @return The condition, in parentheses
+     */
+    private String storedSoundCondition(int ordinal, List<Object> parameters) {
+        List<String> ids = ordinals().idsOf(ordinal);
+        parameters.addAll(ids);
+
+        Set<String> forms = new LinkedHashSet<>();
+        SoundCatalog catalog = plugin.getSoundManager().getCatalog();
+        JoinSound sound = catalog.getSound(ordinal);
+        if (sound != null) {
+            forms.add(sound.getId().toLowerCase(Locale.ROOT));
+            for (Map.Entry<String, String> alias : catalog.getAliases().entrySet()) {
+                if (alias.getValue().equals(sound.getId())) {
+                    forms.add(alias.getKey());
+                }
+            }
         }
+        forms.removeIf(form -> ordinals().isClaimedIgnoreCase(form, ordinal));
+        parameters.addAll(forms);
 
-        Map<UUID, Long> cooldownMap;
-        int cooldownTime;
+        return "(sound IN (" + placeholders(ids.size()) + ") OR LOWER(sound) IN (" + placeholders(forms.size()) + "))";
+    }
 
-        switch (cooldownType) {
-            case "change":
-                cooldownMap = lastSoundChange;
-                cooldownTime = plugin.getConfigManager().getChangeSoundCooldown();
-                break;
-            case "rejoin":
-                cooldownMap = lastJoinSound;
-                cooldownTime = plugin.getConfigManager().getRejoinCooldown();
-                break;
-            default:
-                return 0;
+    /**
+     * Apply a bulk change to storage: one statement per table on a database, or a chunked rewrite of the YAML
+     * file from memory. Memory has already been updated by the caller; holding the save lock keeps a concurrent
+     * save from writing the old data back in between.
+     * @param players Number of players the change affects, counted by the caller from memory
+     * @param progress Called with the number of players written after each chunk of a YAML rewrite
+     * @return Future completed with the player count once the change is stored
+     */
+    private CompletableFuture<Integer> runStorageJob(int players, IntConsumer progress, Update... updates) {
+        return CompletableFuture.supplyAsync(() -> {
+            synchronized (this) {
+                long start = System.nanoTime();
+
+                if (useDatabase) {
+                    for (Update update : updates) {
+                        executeUpdate(update.sql, update.parameters);
+                    }
+                } else if (!saveToYaml(progress)) {
+                    throw new CompletionException(new IOException("Could not save " + playerDataFile.getName()));
+                }
+
+                metrics.getStorageCall(MetricsRegistry.StorageCall.BULK_JOB).recordSince(start);
+                if (plugin.getConfigManager().isDebugMode()) {
+                    plugin.getLogger().info("Storage job changed " + players + " players in " +
+                            (System.nanoTime() - start) / 1_000_000 + " ms");
+                }
+                return players;
+            }
+        }, asyncExecutor);
+    }
+
+    private int executeUpdate(String sql, List<?> parameters) {
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            for (int i = 0; i < parameters.size(); i++) {
+                pstmt.setObject(i + 1, parameters.get(i));
+            }
+            return pstmt.executeUpdate();
+
+        } catch (SQLException e) {
+            metrics.getStorageErrors().increment();
+            throw new CompletionException(e);
         }
+    }
+
+    private static final class Update {
+        private final String sql;
+        private final List<?> parameters;
 
-        Long lastTime = cooldownMap.get(uuid);
-        if (lastTime == null) {
-            return 0;
+        private Update(String sql, List<?> parameters) {
+            this.sql = sql;
+            this.parameters = parameters;
         }
+    }
+
+    private static String placeholders(int count) {
+        return count == 0 ? "NULL" : String.join(", ", Collections.nCopies(count, "?"));
+    }
 
-        long timeDiff = (System.currentTimeMillis() - lastTime) / 1000;
-        return Math.max(0, cooldownTime - timeDiff);
+    private void soundChanged(UUID uuid) {
+        long now = System.currentTimeMillis();
+        lastSoundChange.put(uuid, now);
+        cooldowns.start(CooldownKind.CHANGE, uuid, now);
+    }
+
+    /**
+     * Drop a player's change and join times, ending the cooldowns that run from them
+     */
+    private void forgetTimestamps(UUID uuid) {
+        lastSoundChange.remove(uuid);
+        lastJoinSound.remove(uuid);
+        cooldowns.clear(CooldownKind.CHANGE, uuid);
+        cooldowns.clear(CooldownKind.REJOIN, uuid);
     }
 
     public void setLastJoinSound(UUID uuid) {
-        lastJoinSound.put(uuid, System.currentTimeMillis());
+        long now = System.currentTimeMillis();
+        lastJoinSound.put(uuid, now);
+        cooldowns.start(CooldownKind.REJOIN, uuid, now);
     }
 
     public int getPlayerCount() {
         return playerSounds.size();
     }
 
+    private SoundOrdinalRegistry ordinals() {
+        return plugin.getSoundManager().getOrdinalRegistry();
+    }
+
     public String getStorageInfo() {
         if (useDatabase) {
             return plugin.getConfigManager().getStorageType() + " database";
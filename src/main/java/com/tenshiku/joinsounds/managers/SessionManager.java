@@ -0,0 +1,220 @@
+package com.tenshiku.joinsounds.managers;
+
+import com.tenshiku.joinsounds.JoinSounds;
+import com.tenshiku.joinsounds.models.PlayerSession;
+import org.bukkit.entity.Player;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.UUID;
+
+
+/**
+ * Tracks a session for every online player.
+ * Sessions are opened on join and closed on quit; closing cancels the player's pending
+ * plays and previews and writes their data if it changed. Each session owns a compact slot,
+ * handed out lowest first so slot-indexed tables stay as small as the peak player count;
+ * per-player hot-path state is kept in such tables rather than in UUID-keyed maps.
+ * A player's UUID is only turned into a slot here, through a primitive open-addressing index.
+ */
+public class SessionManager {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private final JoinSounds plugin;
+    private final BitSet usedSlots;
+    // Replaced rather than resized in place, so readers on other threads see a complete table
+    private volatile PlayerSession[] slots;
+
+    // UUID halves to slot + 1; 0 marks a free entry. Guarded by this
+    private long[] most;
+    private long[] least;
+    private int[] slotPlusOne;
+    private int size;
+
+    public SessionManager(JoinSounds plugin) {
+        this.plugin = plugin;
+        this.usedSlots = new BitSet();
+        this.slots = new PlayerSession[MIN_CAPACITY];
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * Open a session, or return the existing one
+     * @param player The player who joined
+     * @return The player's session
+     */
+    public PlayerSession open(Player player) {
+        UUID uuid = player.getUniqueId();
+        PlayerSession session;
+        synchronized (this) {
+            int existing = find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+            if (existing >= 0) {
+                return slots[slotPlusOne[existing] - 1];
+            }
+
+            int slot = usedSlots.nextClearBit(0);
+            usedSlots.set(slot);
+            PlayerSession[] table = slot < slots.length ? slots : Arrays.copyOf(slots, slots.length * 2);
+
+            session = new PlayerSession(uuid, slot);
+            table[slot] = session;
+            slots = table;
+            if ((size + 1) * 4 > slotPlusOne.length * 3) {
+                resize(slotPlusOne.length * 2);
+            }
+            insert(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), slot + 1);
+        }
+
+        plugin.getPlayerDataManager().attach(session);
+        if (plugin.getConfigManager().isDebugMode()) {
+            plugin.getLogger().info("Opened session for " + player.getName() + " in slot " + session.getSlot());
+        }
+        return session;
+    }
+
+    /**
+     * Close a player's session, cancelling pending work and flushing changed data
+     * @param uuid The player who left
+     */
+    public void close(UUID uuid) {
+        PlayerSession session;
+        synchronized (this) {
+            int index = find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+            if (index < 0) {
+                return;
+            }
+            session = slots[slotPlusOne[index] - 1];
+            remove(index);
+            slots[session.getSlot()] = null;
+            usedSlots.clear(session.getSlot());
+        }
+
+        session.close();
+        plugin.getPlayerDataManager().detach(session);
+        if (session.isDirty()) {
+            session.clearDirty();
+            plugin.getPlayerDataManager().savePlayerAsync(uuid);
+        }
+    }
+
+    /**
+     * Close every session; used on shutdown, where data is saved separately
+     */
+    public synchronized void closeAll() {
+        for (PlayerSession session : slots) {
+            if (session != null) {
+                session.close();
+            }
+        }
+        slots = new PlayerSession[MIN_CAPACITY];
+        usedSlots.clear();
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * @param player An online player
+     * @return The player's session, or null if none is open
+     */
+    public PlayerSession get(Player player) {
+        return get(player.getUniqueId());
+    }
+
+    /**
+     * @param uuid A player's UUID
+     * @return The player's session, or null if they are not online
+     */
+    public synchronized PlayerSession get(UUID uuid) {
+        int index = find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        return index >= 0 ? slots[slotPlusOne[index] - 1] : null;
+    }
+
+    /**
+     * @param slot A session slot
+     * @return The session in the slot, or null if the slot is free
+     */
+    public PlayerSession getBySlot(int slot) {
+        PlayerSession[] current = slots;
+        return slot >= 0 && slot < current.length ? current[slot] : null;
+    }
+
+    /**
+     * Drop every session's cached accessible set
+     */
+    public void invalidateAllAccess() {
+        for (PlayerSession session : slots) {
+            if (session != null) {
+                session.setAccessible(null);
+            }
+        }
+    }
+
+    public synchronized int getSessionCount() {
+        return size;
+    }
+
+    private void allocate(int capacity) {
+        most = new long[capacity];
+        least = new long[capacity];
+        slotPlusOne = new int[capacity];
+        size = 0;
+    }
+
+    private static int hash(long most, long least) {
+        long h = most ^ least;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    private int find(long hi, long lo) {
+        int mask = slotPlusOne.length - 1;
+        for (int i = hash(hi, lo) & mask; slotPlusOne[i] != 0; i = (i + 1) & mask) {
+            if (most[i] == hi && least[i] == lo) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void insert(long hi, long lo, int value) {
+        int mask = slotPlusOne.length - 1;
+        int i = hash(hi, lo) & mask;
+        while (slotPlusOne[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        most[i] = hi;
+        least[i] = lo;
+        slotPlusOne[i] = value;
+        size++;
+    }
+
+    private void remove(int index) {
+        int mask = slotPlusOne.length - 1;
+        int gap = index;
+        for (int i = (gap + 1) & mask; slotPlusOne[i] != 0; i = (i + 1) & mask) {
+            int home = hash(most[i], least[i]) & mask;
+            // Move the entry into the gap if the gap lies between its home slot and where it sits
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                most[gap] = most[i];
+                least[gap] = least[i];
+                slotPlusOne[gap] = slotPlusOne[i];
+                gap = i;
+            }
+        }
+        slotPlusOne[gap] = 0;
+        size--;
+    }
+
+    private void resize(int capacity) {
+        long[] oldMost = most;
+        long[] oldLeast = least;
+        int[] oldSlots = slotPlusOne;
+        allocate(capacity);
+        for (int i = 0; i < oldSlots.length; i++) {
+            if (oldSlots[i] != 0) {
+                insert(oldMost[i], oldLeast[i], oldSlots[i]);
+            }
+        }
+    }
+}
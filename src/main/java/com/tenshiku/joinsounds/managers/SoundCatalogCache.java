@@ -0,0 +1,237 @@
+package com.tenshiku.joinsounds.managers;
+
+import com.tenshiku.joinsounds.JoinSounds;
+import com.tenshiku.joinsounds.models.JoinSound;
+import com.tenshiku.joinsounds.models.SoundFile;
+import com.tenshiku.joinsounds.models.SoundVariant;
+import org.bukkit.Material;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Binary cache of parsed sounds files, so unchanged files can skip YAML parsing on startup.
+ * Each file is stored with a SHA-256 hash of its contents and is only used while the hash matches.
+ */
+public class SoundCatalogCache {
+
+    private static final String FILE_NAME = "catalog-cache.bin";
+    private static final int MAGIC = 0x4A534E44;
+    private static final int FORMAT_VERSION = 2;
+
+    private final JoinSounds plugin;
+    private final File file;
+
+    public SoundCatalogCache(JoinSounds plugin) {
+        this.plugin = plugin;
+        this.file = new File(plugin.getDataFolder(), FILE_NAME);
+    }
+
+    /**
+     * @return Cached files keyed by name; empty if there is no usable cache
+     */
+    public Map<String, SoundFile> read() {
+        Map<String, SoundFile> files = new HashMap<>();
+        if (!file.isFile()) {
+            return files;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION
+                    || !in.readUTF().equals(plugin.getDescription().getVersion())) {
+                return files;
+            }
+
+            int fileCount = in.readInt();
+            for (int i = 0; i < fileCount; i++) {
+                SoundFile soundFile = readFile(in);
+                files.put(soundFile.getName(), soundFile);
+            }
+        } catch (IOException | RuntimeException e) {
+            plugin.getLogger().warning("Ignoring unreadable " + FILE_NAME + ": " + e.getMessage());
+            files.clear();
+        }
+
+        return files;
+    }
+
+    /**
+     * Replace the cache with the given files
+     * @param files Parsed files to store
+     */
+    public void write(Collection<SoundFile> files) {
+        File temp = new File(file.getPath() + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp.toPath())))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(plugin.getDescription().getVersion());
+
+            out.writeInt(files.size());
+            for (SoundFile soundFile : files) {
+                writeFile(out, soundFile);
+            }
+        } catch (IOException e) {
+            plugin.getLogger().warning("Could not write " + FILE_NAME + ": " + e.getMessage());
+            return;
+        }
+
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Could not replace " + FILE_NAME + ": " + e.getMessage());
+        }
+    }
+
+    public void delete() {
+        if (file.exists() && !file.delete()) {
+            plugin.getLogger().warning("Could not delete " + FILE_NAME);
+        }
+    }
+
+    public static byte[] hash(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static void writeFile(DataOutputStream out, SoundFile soundFile) throws IOException {
+        out.writeUTF(soundFile.getName());
+        out.writeInt(soundFile.getContentHash().length);
+        out.write(soundFile.getContentHash());
+        out.writeInt(soundFile.getSkippedCount());
+
+        out.writeInt(soundFile.getSounds().size());
+        for (JoinSound sound : soundFile.getSounds()) {
+            writeSound(out, sound);
+        }
+
+        out.writeInt(soundFile.getAliases().size());
+        for (Map.Entry<String, String> alias : soundFile.getAliases().entrySet()) {
+            out.writeUTF(alias.getKey());
+            out.writeUTF(alias.getValue());
+        }
+    }
+
+    private static SoundFile readFile(DataInputStream in) throws IOException {
+        String name = in.readUTF();
+        byte[] contentHash = new byte[in.readInt()];
+        in.readFully(contentHash);
+        int skippedCount = in.readInt();
+
+        int soundCount = in.readInt();
+        List<JoinSound> sounds = new ArrayList<>(soundCount);
+        for (int i = 0; i < soundCount; i++) {
+            sounds.add(readSound(in));
+        }
+
+        int aliasCount = in.readInt();
+        Map<String, String> aliases = new LinkedHashMap<>();
+        for (int i = 0; i < aliasCount; i++) {
+            aliases.put(in.readUTF(), in.readUTF());
+        }
+
+        return new SoundFile(name, sounds, aliases, skippedCount, 0L, contentHash);
+    }
+
+    private static void writeSound(DataOutputStream out, JoinSound sound) throws IOException {
+        out.writeUTF(sound.getId());
+        out.writeUTF(sound.getDisplayName());
+        out.writeUTF(sound.getNexoSoundId());
+        out.writeUTF(sound.getPermission());
+        writeStrings(out, sound.getDescription());
+        out.writeUTF(sound.getGuiMaterial().name());
+        writeNullable(out, sound.getItemModel());
+        out.writeInt(sound.getCustomModelData());
+        out.writeBoolean(sound.isEnchanted());
+        out.writeDouble(sound.getVolume());
+        out.writeDouble(sound.getPitch());
+        out.writeInt(sound.getRadius());
+        out.writeBoolean(sound.isEnabled());
+        out.writeBoolean(sound.isHidden());
+        writeNullable(out, sound.getSeasonalStart());
+        writeNullable(out, sound.getSeasonalEnd());
+        writeStrings(out, sound.getRenamedFrom());
+
+        out.writeInt(sound.getVariants().size());
+        for (SoundVariant variant : sound.getVariants()) {
+            out.writeUTF(variant.getNexoSoundId());
+            out.writeDouble(variant.getWeight());
+            out.writeDouble(variant.getVolume());
+            out.writeDouble(variant.getPitch());
+        }
+    }
+
+    private static JoinSound readSound(DataInputStream in) throws IOException {
+        String id = in.readUTF();
+        String displayName = in.readUTF();
+        String nexoSoundId = in.readUTF();
+        String permission = in.readUTF();
+        List<String> description = readStrings(in);
+        Material material = Material.getMaterial(in.readUTF());
+        String itemModel = readNullable(in);
+        int customModelData = in.readInt();
+        boolean enchanted = in.readBoolean();
+        double volume = in.readDouble();
+        double pitch = in.readDouble();
+        int radius = in.readInt();
+        boolean enabled = in.readBoolean();
+        boolean hidden = in.readBoolean();
+        String seasonalStart = readNullable(in);
+        String seasonalEnd = readNullable(in);
+        List<String> renamedFrom = readStrings(in);
+
+        int variantCount = in.readInt();
+        List<SoundVariant> variants = new ArrayList<>(variantCount);
+        for (int i = 0; i < variantCount; i++) {
+            variants.add(new SoundVariant(in.readUTF(), in.readDouble(), in.readDouble(), in.readDouble()));
+        }
+
+        return new JoinSound(id, -1, displayName, nexoSoundId, permission, description,
+                material != null ? material : Material.NOTE_BLOCK, itemModel, customModelData, enchanted,
+                volume, pitch, radius, enabled, hidden, seasonalStart, seasonalEnd, renamedFrom, variants);
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(in.readUTF());
+        }
+        return values;
+    }
+}
@@ -0,0 +1,458 @@
+package com.tenshiku.joinsounds.managers;
+
+import com.tenshiku.joinsounds.JoinSounds;
+import com.tenshiku.joinsounds.models.JoinSound;
+import com.tenshiku.joinsounds.models.SoundCatalog;
+import com.tenshiku.joinsounds.models.SoundFile;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+
+/**
+ * Reads sounds.yml and every YAML file under sounds.d/, parses them in parallel
+ * and merges the results into a {@link SoundCatalog}.
+ */
+public class SoundCatalogLoader {
+
+    public static final String SOUNDS_FILE = "sounds.yml";
+    public static final String SOUNDS_DIRECTORY = "sounds.d";
+
+    private static final Comparator<String> FILE_ORDER = (a, b) -> {
+        if (a.equals(b)) {
+            return 0;
+        }
+        if (a.equals(SOUNDS_FILE)) {
+            return -1;
+        }
+        if (b.equals(SOUNDS_FILE)) {
+            return 1;
+        }
+        return a.compareTo(b);
+    };
+
+    private final JoinSounds plugin;
+    private final SoundOrdinalRegistry ordinalRegistry;
+    private final SoundCatalogCache cache;
+    private final Map<String, SoundFile> loadedFiles;
+
+    public SoundCatalogLoader(JoinSounds plugin, SoundOrdinalRegistry ordinalRegistry) {
+        this.plugin = plugin;
+        this.ordinalRegistry = ordinalRegistry;
+        this.cache = new SoundCatalogCache(plugin);
+        this.loadedFiles = new TreeMap<>(FILE_ORDER);
+    }
+
+    /**
+     * Parse every sounds file and build a catalog.
+     * Files whose contents match the binary cache are read from it instead of being parsed.
+     * @param keepOnError If true, return null when any file fails to parse so the caller can keep its current catalog
+     * @param publish Makes the new catalog live; called while the loader is still locked, so a reload that
+     *                finished earlier can never be published after this one
+     * @return The new catalog, or null if it should not replace the current one
+     */
+    public synchronized SoundCatalog load(boolean keepOnError, Consumer<SoundCatalog> publish) {
+        plugin.getLogger().info("Loading sounds from configuration...");
+        long start = System.nanoTime();
+
+        List<File> files = findSoundFiles();
+        boolean useCache = plugin.getConfigManager().isCatalogCacheEnabled();
+        Map<String, SoundFile> cached = useCache ? cache.read() : new HashMap<>();
+        List<SoundFile> parsed = parseAll(files, cached);
+
+        List<SoundFile> loaded = new ArrayList<>(parsed.size());
+        for (SoundFile file : parsed) {
+            if (file != null) {
+                loaded.add(file);
+            }
+        }
+
+        if (loaded.size() < files.size() && keepOnError) {
+            plugin.getLogger().warning((files.size() - loaded.size()) + " sounds file(s) could not be loaded");
+            return null;
+        }
+
+        loadedFiles.clear();
+        int cacheHits = 0;
+        for (SoundFile file : loaded) {
+            loadedFiles.put(file.getName(), file);
+            if (cached.get(file.getName()) != null && Arrays.equals(cached.get(file.getName()).getContentHash(), file.getContentHash())) {
+                cacheHits++;
+            }
+        }
+
+        SoundCatalog catalog = merge(loaded);
+        report(loaded, catalog, cacheHits, System.nanoTime() - start);
+        publish.accept(catalog);
+
+        if (!useCache) {
+            cache.delete();
+        } else if (cacheHits < loaded.size() || cached.size() != loaded.size()) {
+            cache.write(loaded);
+        }
+
+        return catalog;
+    }
+
+    /**
+     * Re-parse only the given files and merge them with the files parsed earlier.
+     * A file that fails to parse keeps its previous contents.
+     * @param files Changed, added or deleted files; anything that is not a sounds file is ignored
+     * @param publish Makes the new catalog live; called while the loader is still locked
+     * @return The new catalog, or null if no sounds file actually changed
+     */
+    public synchronized SoundCatalog reloadFiles(Collection<File> files, Consumer<SoundCatalog> publish) {
+        long start = System.nanoTime();
+        int reloaded = 0;
+
+        for (File file : files) {
+            if (!isSoundFile(file)) {
+                continue;
+            }
+
+            String name = getName(file);
+            if (!file.exists()) {
+                if (loadedFiles.remove(name) != null) {
+                    plugin.getLogger().info("Sounds file removed: " + name);
+                    reloaded++;
+                }
+                continue;
+            }
+
+            SoundFile parsed = parseFile(file);
+            if (parsed == null) {
+                plugin.getLogger().warning("Keeping the previous contents of " + name);
+                continue;
+            }
+
+            loadedFiles.put(name, parsed);
+            reloaded++;
+        }
+
+        if (reloaded == 0) {
+            return null;
+        }
+
+        SoundCatalog catalog = merge(new ArrayList<>(loadedFiles.values()));
+        plugin.getLogger().info("Reloaded " + reloaded + " sounds file(s) in " +
+                formatMillis(System.nanoTime() - start) + " ms");
+        publish.accept(catalog);
+
+        if (plugin.getConfigManager().isCatalogCacheEnabled()) {
+            cache.write(loadedFiles.values());
+        }
+
+        return catalog;
+    }
+
+    /**
+     * @param file Any file
+     * @return true if the file is sounds.yml or a YAML file under sounds.d/
+     */
+    public boolean isSoundFile(File file) {
+        String name = getName(file);
+        if (name.equals(SOUNDS_FILE)) {
+            return true;
+        }
+
+        String lowerName = name.toLowerCase(Locale.ROOT);
+        return name.startsWith(SOUNDS_DIRECTORY + "/") && (lowerName.endsWith(".yml") || lowerName.endsWith(".yaml"));
+    }
+
+    /**
+     * @return sounds.yml followed by every .yml file in sounds.d/, sorted by path
+     */
+    public List<File> findSoundFiles() {
+        List<File> files = new ArrayList<>();
+
+        File soundsFile = new File(plugin.getDataFolder(), SOUNDS_FILE);
+        if (soundsFile.isFile()) {
+            files.add(soundsFile);
+        }
+
+        Path directory = new File(plugin.getDataFolder(), SOUNDS_DIRECTORY).toPath();
+        if (Files.isDirectory(directory)) {
+            try (Stream<Path> paths = Files.walk(directory)) {
+                files.addAll(paths
+                        .filter(Files::isRegularFile)
+                        .map(Path::toFile)
+                        .filter(this::isSoundFile)
+                        .sorted(Comparator.comparing(this::getName, FILE_ORDER))
+                        .collect(Collectors.toList()));
+            } catch (IOException e) {
+                plugin.getLogger().severe("Could not list " + SOUNDS_DIRECTORY + ": " + e.getMessage());
+            }
+        }
+
+        return files;
+    }
+
+    private List<SoundFile> parseAll(List<File> files, Map<String, SoundFile> cached) {
+        int threads = Math.min(files.size(), plugin.getConfigManager().getCatalogParseThreads());
+        List<SoundFile> parsed = new ArrayList<>(files.size());
+
+        if (threads <= 1) {
+            for (File file : files) {
+                parsed.add(loadFile(file, cached));
+            }
+            return parsed;
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "JoinSounds-CatalogParser");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            List<Future<SoundFile>> futures = new ArrayList<>(files.size());
+            for (File file : files) {
+                futures.add(pool.submit(() -> loadFile(file, cached)));
+            }
+
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    parsed.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    plugin.getLogger().severe("Failed to parse " + getName(files.get(i)) + ": " + e.getCause());
+                    parsed.add(null);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            while (parsed.size() < files.size()) {
+                parsed.add(null);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        return parsed;
+    }
+
+    private SoundFile loadFile(File file, Map<String, SoundFile> cached) {
+        long start = System.nanoTime();
+        String name = getName(file);
+
+        byte[] content;
+        try {
+            content = Files.readAllBytes(file.toPath());
+        } catch (IOException e) {
+            plugin.getLogger().severe("Could not read " + name + ": " + e.getMessage());
+            return null;
+        }
+
+        byte[] contentHash = SoundCatalogCache.hash(content);
+        SoundFile cachedFile = cached.get(name);
+        if (cachedFile != null && Arrays.equals(cachedFile.getContentHash(), contentHash)) {
+            return cachedFile.withParseNanos(System.nanoTime() - start);
+        }
+
+        return parse(name, content, contentHash, start);
+    }
+
+    /**
+     * Parse a single sounds file. Safe to call from any thread.
+     * @param file The file to parse
+     * @return The parsed file, or null if it could not be read
+     */
+    public SoundFile parseFile(File file) {
+        return loadFile(file, new HashMap<>());
+    }
+
+    private SoundFile parse(String name, byte[] content, byte[] contentHash, long start) {
+        YamlConfiguration yaml = new YamlConfiguration();
+        try {
+            yaml.loadFromString(new String(content, StandardCharsets.UTF_8));
+        } catch (InvalidConfigurationException e) {
+            plugin.getLogger().severe("Could not load " + name + ": " + e.getMessage());
+            return null;
+        }
+
+        ConfigurationSection soundsSection = yaml.getConfigurationSection("sounds");
+        ConfigurationSection aliasSection = yaml.getConfigurationSection("aliases");
+
+        if (soundsSection == null) {
+            plugin.getLogger().warning("No 'sounds' section found in " + name + "!");
+            if (name.equals(SOUNDS_FILE) && aliasSection == null) {
+                return null;
+            }
+        }
+
+        List<JoinSound> sounds = new ArrayList<>();
+        int skippedCount = 0;
+
+        if (soundsSection != null) {
+            for (String soundId : soundsSection.getKeys(false)) {
+                ConfigurationSection soundSection = soundsSection.getConfigurationSection(soundId);
+                if (soundSection == null) {
+                    plugin.getLogger().warning("Invalid sound configuration for: " + soundId + " in " + name);
+                    skippedCount++;
+                    continue;
+                }
+
+                JoinSound sound = JoinSound.fromConfig(soundId, soundSection);
+                if (sound != null) {
+                    sounds.add(sound);
+                } else {
+                    plugin.getLogger().warning("Failed to load sound: " + soundId + " in " + name + " (missing required fields)");
+                    skippedCount++;
+                }
+            }
+        }
+
+        Map<String, String> aliases = new LinkedHashMap<>();
+        if (aliasSection != null) {
+            for (String alias : aliasSection.getKeys(false)) {
+                String soundId = aliasSection.getString(alias);
+                if (soundId != null) {
+                    aliases.put(alias.toLowerCase(), soundId);
+                } else {
+                    plugin.getLogger().warning("Invalid alias '" + alias + "' in " + name);
+                }
+            }
+        }
+
+        return new SoundFile(name, sounds, aliases, skippedCount, System.nanoTime() - start, contentHash);
+    }
+
+    /**
+     * Merge parsed files into a catalog. The first definition of a sound ID or alias wins.
+     * @param files Parsed files, in load order
+     * @return The merged catalog
+     */
+    public SoundCatalog merge(List<SoundFile> files) {
+        Map<String, JoinSound> definitions = new LinkedHashMap<>();
+        Map<String, String> origins = new HashMap<>();
+        int skippedCount = 0;
+
+        for (SoundFile file : files) {
+            skippedCount += file.getSkippedCount();
+
+            for (JoinSound sound : file.getSounds()) {
+                String origin = origins.putIfAbsent(sound.getId(), file.getName());
+                if (origin != null) {
+                    plugin.getLogger().warning("Duplicate sound '" + sound.getId() + "' in " + file.getName() +
+                            " (already defined in " + origin + "), ignoring");
+                    skippedCount++;
+                    continue;
+                }
+                definitions.put(sound.getId(), sound);
+            }
+        }
+
+        Map<String, Integer> soundOrdinals = assignOrdinals(definitions);
+        Map<String, JoinSound> sounds = new LinkedHashMap<>();
+        for (JoinSound definition : definitions.values()) {
+            JoinSound sound = definition.withOrdinal(soundOrdinals.get(definition.getId()));
+            sounds.put(sound.getId(), sound);
+
+            if (plugin.getConfigManager().isDebugMode()) {
+                plugin.getLogger().info("Loaded sound: " + sound.getId() +
+                        " (" + sound.getDisplayName() +
+                        ", enabled=" + sound.isEnabled() +
+                        ", hidden=" + sound.isHidden() + ")");
+            }
+        }
+
+        Map<String, String> aliases = new LinkedHashMap<>();
+        for (SoundFile file : files) {
+            for (Map.Entry<String, String> alias : file.getAliases().entrySet()) {
+                String soundId = alias.getValue();
+                if (!sounds.containsKey(soundId)) {
+                    plugin.getLogger().warning("Invalid alias '" + alias.getKey() + "' in " + file.getName() +
+                            ": sound '" + soundId + "' not found");
+                    continue;
+                }
+
+                String existing = aliases.putIfAbsent(alias.getKey(), soundId);
+                if (existing != null) {
+                    if (!existing.equals(soundId)) {
+                        plugin.getLogger().warning("Duplicate alias '" + alias.getKey() + "' in " + file.getName() +
+                                " (already points to " + existing + "), ignoring");
+                    }
+                } else if (plugin.getConfigManager().isDebugMode()) {
+                    plugin.getLogger().info("Loaded alias: " + alias.getKey() + " -> " + soundId);
+                }
+            }
+        }
+
+        SoundCatalog catalog = new SoundCatalog(sounds, aliases, skippedCount);
+        ordinalRegistry.save();
+        return catalog;
+    }
+
+    /**
+     * Resolve stable ordinals for every sound ID.
+     * IDs that already own an ordinal are claimed first so a rename can never take an ordinal still in use.
+     */
+    private Map<String, Integer> assignOrdinals(Map<String, JoinSound> definitions) {
+        Map<String, Integer> soundOrdinals = new HashMap<>();
+        BitSet claimed = new BitSet();
+
+        for (String soundId : definitions.keySet()) {
+            int ordinal = ordinalRegistry.canonicalOrdinal(soundId);
+            if (ordinal >= 0) {
+                soundOrdinals.put(soundId, ordinal);
+                claimed.set(ordinal);
+            }
+        }
+
+        for (JoinSound sound : definitions.values()) {
+            if (soundOrdinals.containsKey(sound.getId())) {
+                continue;
+            }
+
+            int ordinal = ordinalRegistry.ordinalFor(sound.getId(), sound.getRenamedFrom(), claimed);
+            soundOrdinals.put(sound.getId(), ordinal);
+            claimed.set(ordinal);
+        }
+
+        return soundOrdinals;
+    }
+
+    private void report(List<SoundFile> files, SoundCatalog catalog, int cacheHits, long totalNanos) {
+        if (files.size() > 1 || plugin.getConfigManager().isDebugMode()) {
+            for (SoundFile file : files) {
+                plugin.getLogger().info("  " + file.getName() + ": " + file.getSounds().size() + " sounds, " +
+                        file.getAliases().size() + " aliases in " + formatMillis(file.getParseNanos()) + " ms");
+            }
+        }
+
+        plugin.getLogger().info("Loaded " + catalog.size() + " sounds" +
+                (catalog.getSkippedCount() > 0 ? " (" + catalog.getSkippedCount() + " skipped)" : "") +
+                " and " + catalog.getAliases().size() + " aliases from " + files.size() + " file(s)" +
+                (cacheHits > 0 ? " (" + cacheHits + " cached)" : "") + " in " + formatMillis(totalNanos) + " ms");
+    }
+
+    private String getName(File file) {
+        return plugin.getDataFolder().toPath().relativize(file.toPath()).toString().replace(File.separatorChar, '/');
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0);
+    }
+}
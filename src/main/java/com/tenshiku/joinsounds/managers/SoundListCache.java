@@ -0,0 +1,220 @@
+package com.tenshiku.joinsounds.managers;
+
+import com.tenshiku.joinsounds.JoinSounds;
+import com.tenshiku.joinsounds.models.AccessibleSounds;
+import com.tenshiku.joinsounds.models.JoinSound;
+import com.tenshiku.joinsounds.models.PluginSettings;
+import com.tenshiku.joinsounds.models.SoundCatalog;
+import com.tenshiku.joinsounds.models.SoundSetFingerprint;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.regex.Pattern;
+
+
+/**
+ * Pre-rendered pages for /joinsound list.
+ * Pages are cached per accessible-set fingerprint and filter, so every player who can select
+ * the same sounds shares them. Each page is sent as a single component.
+ */
+public class SoundListCache {
+
+    private static final int MAX_ENTRIES = 256;
+    private static final Pattern COLOR_CODE = Pattern.compile("[&§][0-9a-fk-orA-FK-OR]");
+
+    private final JoinSounds plugin;
+    private final Map<Key, SoundList> lists;
+
+    public SoundListCache(JoinSounds plugin) {
+        this.plugin = plugin;
+        this.lists = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * @param accessible The player's accessible sounds
+     * @param filter Lowercase text to match against sound IDs and names, or empty for all sounds
+     * @param page Page number, starting at 1
+     * @return The rendered page, or null if no sounds match
+     */
+    public Page getPage(AccessibleSounds accessible, String filter, int page) {
+        SoundList list = list(accessible, filter);
+        if (list.sounds.isEmpty()) {
+            return null;
+        }
+
+        int pageCount = list.pageCount();
+        int index = Math.max(1, Math.min(page, pageCount)) - 1;
+        return new Page(list.render(index), index + 1, pageCount);
+    }
+
+    /**
+     * @param accessible The player's accessible sounds
+     * @param filter Lowercase text to match against sound IDs and names, or empty for all sounds
+     * @return Matching sounds sorted by ID; shared, so must not be modified
+     */
+    public List<JoinSound> getSounds(AccessibleSounds accessible, String filter) {
+        return list(accessible, filter).sounds;
+    }
+
+    private SoundList list(AccessibleSounds accessible, String filter) {
+        PluginSettings settings = plugin.getConfigManager().getSettings();
+        Key key = new Key(accessible.getFingerprint(), filter);
+        SoundList list = lists.get(key);
+        if (list == null || !list.isCurrent(accessible.getCatalog(), settings)) {
+            if (lists.size() >= MAX_ENTRIES) {
+                lists.clear();
+            }
+            list = new SoundList(accessible, filter, settings);
+            lists.put(key, list);
+        }
+        return list;
+    }
+
+    public void clear() {
+        lists.clear();
+    }
+
+    public static final class Page {
+        private final Component component;
+        private final int number;
+        private final int count;
+
+        private Page(Component component, int number, int count) {
+            this.component = component;
+            this.number = number;
+            this.count = count;
+        }
+
+        public Component getComponent() {
+            return component;
+        }
+
+        public int getNumber() {
+            return number;
+        }
+
+        public int getCount() {
+            return count;
+        }
+    }
+
+    private static final class Key {
+        private final SoundSetFingerprint fingerprint;
+        private final String filter;
+
+        private Key(SoundSetFingerprint fingerprint, String filter) {
+            this.fingerprint = fingerprint;
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return fingerprint.equals(other.fingerprint) && filter.equals(other.filter);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(fingerprint, filter);
+        }
+    }
+
+    /**
+     * Matching sounds in a fixed order, with each page rendered on first request
+     */
+    private static final class SoundList {
+        private final SoundCatalog catalog;
+        private final List<JoinSound> sounds;
+        private final String prefix;
+        private final int pageSize;
+        private final String filter;
+        private final AtomicReferenceArray<Component> pages;
+
+        private SoundList(AccessibleSounds accessible, String filter, PluginSettings settings) {
+            this.catalog = accessible.getCatalog();
+            this.filter = filter;
+            this.prefix = settings.getPrefix();
+            this.pageSize = settings.getListPageSize();
+
+            List<JoinSound> matches = new ArrayList<>();
+            for (int ordinal = accessible.nextOrdinal(0); ordinal >= 0; ordinal = accessible.nextOrdinal(ordinal + 1)) {
+                JoinSound sound = catalog.getSound(ordinal);
+                if (sound != null && matches(sound, filter)) {
+                    matches.add(sound);
+                }
+            }
+            matches.sort(Comparator.comparing(JoinSound::getId, String.CASE_INSENSITIVE_ORDER));
+
+            this.sounds = Collections.unmodifiableList(matches);
+            this.pages = new AtomicReferenceArray<>(Math.max(1, (matches.size() + pageSize - 1) / pageSize));
+        }
+
+        private static boolean matches(JoinSound sound, String filter) {
+            if (filter.isEmpty()) {
+                return true;
+            }
+            return sound.getId().toLowerCase().contains(filter)
+                    || stripColors(sound.getDisplayName()).toLowerCase().contains(filter);
+        }
+
+        private boolean isCurrent(SoundCatalog catalog, PluginSettings settings) {
+            return this.catalog == catalog && pageSize == settings.getListPageSize() && prefix.equals(settings.getPrefix());
+        }
+
+        private int pageCount() {
+            return pages.length();
+        }
+
+        private Component render(int index) {
+            Component page = pages.get(index);
+            if (page != null) {
+                return page;
+            }
+
+            StringBuilder text = new StringBuilder(prefix).append("§aAvailable sounds");
+            if (!filter.isEmpty()) {
+                text.append(" matching §6").append(filter);
+            }
+            text.append(" §7(page ").append(index + 1).append('/').append(pageCount()).append(", ")
+                    .append(sounds.size()).append(" total)");
+
+            int end = Math.min(sounds.size(), (index + 1) * pageSize);
+            for (int i = index * pageSize; i < end; i++) {
+                JoinSound sound = sounds.get(i);
+                text.append("\n§7- §6").append(sound.getId());
+                if (!sound.getDisplayName().equals(sound.getId())) {
+                    text.append(" §7(").append(sound.getDisplayName().replace("&", "§")).append("§7)");
+                }
+                if (!sound.getDescription().isEmpty()) {
+                    text.append(" §7- ").append(sound.getDescription().get(0).replace("&", "§"));
+                }
+            }
+
+            if (index + 1 < pageCount()) {
+                text.append("\n§7Use §6/joinsound list ").append(index + 2);
+                if (!filter.isEmpty()) {
+                    text.append(' ').append(filter);
+                }
+                text.append(" §7for the next page");
+            }
+            text.append("\n§7Use §6/joinsound set <sound> §7to select a sound");
+
+            page = LegacyComponentSerializer.legacySection().deserialize(text.toString());
+            pages.compareAndSet(index, null, page);
+            return pages.get(index);
+        }
+
+        private static String stripColors(String text) {
+            return COLOR_CODE.matcher(text).replaceAll("");
+        }
+    }
+}
@@ -1,200 +1,179 @@
 package com.tenshiku.joinsounds.managers;
 
 import com.tenshiku.joinsounds.JoinSounds;
+import com.tenshiku.joinsounds.models.AccessibleSounds;
 import com.tenshiku.joinsounds.models.JoinSound;
+import com.tenshiku.joinsounds.models.PlayerSession;
+import com.tenshiku.joinsounds.models.PluginSettings;
+import com.tenshiku.joinsounds.models.SoundCatalog;
+import com.tenshiku.joinsounds.models.SoundVariant;
 import org.bukkit.Location;
 import org.bukkit.Sound;
 import org.bukkit.entity.Player;
-import org.bukkit.configuration.ConfigurationSection;
-import java.util.HashMap;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 public class SoundManager {
 
     private final JoinSounds plugin;
-    private final Map<String, JoinSound> availableSounds;
-    private final Map<String, String> soundAliases;
+    private final SoundOrdinalRegistry ordinalRegistry;
+    private final SoundCatalogLoader catalogLoader;
+    private final SoundListCache listCache;
+    private volatile SoundCatalog catalog;
 
     public SoundManager(JoinSounds plugin) {
         this.plugin = plugin;
-        this.availableSounds = new HashMap<>();
-        this.soundAliases = new HashMap<>();
+        this.ordinalRegistry = new SoundOrdinalRegistry(plugin);
+        this.catalogLoader = new SoundCatalogLoader(plugin, ordinalRegistry);
+        this.listCache = new SoundListCache(plugin);
+        this.catalog = SoundCatalog.EMPTY;
+
+        ordinalRegistry.load();
     }
 
+    /**
+     * Load sounds synchronously from sounds.yml and sounds.d/
+     */
     public void loadSounds() {
-        plugin.getLogger().info("Loading sounds from configuration...");
+        catalogLoader.load(false, this::publish);
+    }
 
-        availableSounds.clear();
-        soundAliases.clear();
+    /**
+     * Re-read every sounds file and build a new catalog off the main thread.
+     * The current catalog stays visible until the new one is swapped in.
+     * @return Future completed with the catalog that is live after the reload
+     */
+    public CompletableFuture<SoundCatalog> reloadSounds() {
+        Executor async = task -> plugin.getServer().getScheduler().runTaskAsynchronously(plugin, task);
+
+        return CompletableFuture.supplyAsync(() -> {
+            SoundCatalog loaded = catalogLoader.load(true, this::publish);
+            if (loaded == null) {
+                plugin.getLogger().warning("Keeping the previously loaded sounds");
+                return catalog;
+            }
+            return loaded;
+        }, async);
+    }
 
-        ConfigurationSection soundsSection = plugin.getConfigManager().getSoundsConfig().getConfigurationSection("sounds");
-        if (soundsSection == null) {
-            plugin.getLogger().warning("No 'sounds' section found in sounds.yml!");
-            return;
-        }
+    /**
+     * Re-parse only the given sounds files and apply the result to the live catalog.
+     * Player data is left untouched. Must be called off the main thread.
+     * @param files Files that were created, modified or deleted
+     */
+    public void reloadChangedFiles(Collection<File> files) {
+        catalogLoader.reloadFiles(files, loaded -> {
+            // Read under the loader's lock, so the diff is against the catalog this one replaces
+            SoundCatalog previous = catalog;
+            publish(loaded);
+            logChanges(previous, loaded);
+        });
+    }
 
-        int loadedCount = 0;
-        int skippedCount = 0;
+    public boolean isSoundFile(File file) {
+        return catalogLoader.isSoundFile(file);
+    }
 
-        for (String soundId : soundsSection.getKeys(false)) {
-            ConfigurationSection soundSection = soundsSection.getConfigurationSection(soundId);
-            if (soundSection == null) {
-                plugin.getLogger().warning("Invalid sound configuration for: " + soundId);
-                skippedCount++;
-                continue;
+    private void logChanges(SoundCatalog previous, SoundCatalog current) {
+        List<String> added = new ArrayList<>();
+        List<String> changed = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+
+        for (JoinSound sound : current.getSounds().values()) {
+            JoinSound old = previous.getSounds().get(sound.getId());
+            if (old == null) {
+                added.add(sound.getId());
+            } else if (!old.hasSameDefinition(sound)) {
+                changed.add(sound.getId());
             }
+        }
 
-            JoinSound sound = JoinSound.fromConfig(soundId, soundSection);
-            if (sound != null) {
-                availableSounds.put(soundId, sound);
-                loadedCount++;
-
-                if (plugin.getConfigManager().isDebugMode()) {
-                    plugin.getLogger().info("Loaded sound: " + soundId +
-                            " (" + sound.getDisplayName() +
-                            ", enabled=" + sound.isEnabled() +
-                            ", hidden=" + sound.isHidden() + ")");
-                }
-            } else {
-                plugin.getLogger().warning("Failed to load sound: " + soundId + " (missing required fields)");
-                skippedCount++;
+        for (String soundId : previous.getSounds().keySet()) {
+            if (!current.getSounds().containsKey(soundId)) {
+                removed.add(soundId);
             }
         }
 
-        loadAliases();
-
-        plugin.getLogger().info("Loaded " + loadedCount + " sounds" +
-                (skippedCount > 0 ? " (" + skippedCount + " skipped)" : "") +
-                " and " + soundAliases.size() + " aliases");
-    }
-
-    private void loadAliases() {
-        ConfigurationSection aliasSection = plugin.getConfigManager().getSoundsConfig().getConfigurationSection("aliases");
-        if (aliasSection == null) {
-            if (plugin.getConfigManager().isDebugMode()) {
-                plugin.getLogger().info("No aliases section found in sounds.yml");
-            }
+        if (added.isEmpty() && changed.isEmpty() && removed.isEmpty()) {
+            plugin.getLogger().info("Sound catalog updated, no sounds were added, changed or removed" +
+                    (previous.getAliases().equals(current.getAliases()) ? "" : " (aliases changed)"));
             return;
         }
 
-        for (String alias : aliasSection.getKeys(false)) {
-            String soundId = aliasSection.getString(alias);
-            if (soundId != null && availableSounds.containsKey(soundId)) {
-                soundAliases.put(alias.toLowerCase(), soundId);
-                if (plugin.getConfigManager().isDebugMode()) {
-                    plugin.getLogger().info("Loaded alias: " + alias + " -> " + soundId);
-                }
-            } else {
-                plugin.getLogger().warning("Invalid alias '" + alias + "': sound '" + soundId + "' not found");
-            }
-        }
+        plugin.getLogger().info("Sound catalog updated: " +
+                added.size() + " added" + (added.isEmpty() ? "" : " " + added) + ", " +
+                changed.size() + " changed" + (changed.isEmpty() ? "" : " " + changed) + ", " +
+                removed.size() + " removed" + (removed.isEmpty() ? "" : " " + removed));
     }
 
+    private void publish(SoundCatalog loaded) {
+        catalog = loaded;
+        invalidateAllAccess();
+        listCache.clear();
+    }
 
-    public JoinSound getSound(String identifier) {
-        if (identifier == null) {
-            return null;
-        }
+    /**
+     * @return The catalog currently in use; never partially built
+     */
+    public SoundCatalog getCatalog() {
+        return catalog;
+    }
 
-        JoinSound sound = availableSounds.get(identifier);
-        if (sound != null) {
-            return sound;
-        }
+    public SoundOrdinalRegistry getOrdinalRegistry() {
+        return ordinalRegistry;
+    }
 
-        String soundId = soundAliases.get(identifier.toLowerCase());
-        if (soundId != null) {
-            return availableSounds.get(soundId);
-        }
+    public JoinSound getSound(String identifier) {
+        return catalog.getSound(identifier);
+    }
 
-        return null;
+    /**
+     * @param ordinal Sound ordinal
+     * @return The sound, or null if no sound currently has this ordinal
+     */
+    public JoinSound getSound(int ordinal) {
+        return catalog.getSound(ordinal);
     }
 
 
     public Set<String> getAvailableSoundIds() {
-        return availableSounds.keySet();
+        return catalog.getSounds().keySet();
     }
 
     public Map<String, JoinSound> getAvailableSounds() {
-        return availableSounds.entrySet().stream()
-                .filter(entry -> entry.getValue().isAvailableForSelection())
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        return catalog.getAvailableSounds();
     }
 
     public Map<String, JoinSound> getAllSounds() {
-        return new HashMap<>(availableSounds);
+        return catalog.getSounds();
     }
 
     public boolean hasSound(String identifier) {
         return getSound(identifier) != null;
     }
 
-    public void playJoinSound(Player player, String soundId) {
-        if (!plugin.getConfigManager().isPluginEnabled()) {
-            return;
-        }
-
-        if (!isWorldEnabled(player.getWorld().getName(), player)) {
-            if (plugin.getConfigManager().isDebugMode()) {
-                plugin.getLogger().info("Sounds disabled in world: " + player.getWorld().getName());
-            }
-            return;
-        }
-
-        JoinSound sound = getSound(soundId);
-        if (sound == null) {
-            if (plugin.getConfigManager().isDebugMode()) {
-                plugin.getLogger().warning("Attempted to play unknown sound: " + soundId);
-            }
-            return;
-        }
-
-        if (!sound.isEnabled()) {
-            if (plugin.getConfigManager().isDebugMode()) {
-                plugin.getLogger().info("Sound " + soundId + " is disabled");
-            }
-            return;
-        }
-
-        if (!sound.isSeasonallyAvailable()) {
-            if (plugin.getConfigManager().isDebugMode()) {
-                plugin.getLogger().info("Sound " + soundId + " is not seasonally available");
-            }
-            return;
-        }
-
-        if (!player.hasPermission(sound.getPermission())) {
-            if (plugin.getConfigManager().isDebugMode()) {
-                plugin.getLogger().info("Player " + player.getName() + " lacks permission for sound: " + soundId);
-            }
-            return;
-        }
-
-        if (plugin.getPlayerDataManager().isOnCooldown(player.getUniqueId(), "rejoin")) {
-            if (plugin.getConfigManager().isDebugMode()) {
-                plugin.getLogger().info("Player " + player.getName() + " is on rejoin cooldown");
-            }
-            return;
-        }
-
-        int delay = plugin.getConfigManager().getPlayDelay();
-        if (delay > 0) {
-            plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
-                playSound(player, sound);
-                plugin.getPlayerDataManager().setLastJoinSound(player.getUniqueId());
-            }, delay);
-        } else {
-            playSound(player, sound);
-            plugin.getPlayerDataManager().setLastJoinSound(player.getUniqueId());
-        }
-    }
-
-    private void playSound(Player player, JoinSound sound) {
+    /**
+     * Play a sound at a player's location to everyone in its radius
+     * @param player The player the sound is for
+     * @param sound The sound to play
+     */
+    public void playSound(Player player, JoinSound sound) {
+        long start = System.nanoTime();
+        MetricsRegistry metrics = plugin.getMetrics();
+        PluginSettings settings = plugin.getConfigManager().getSettings();
         Location location = player.getLocation();
-        String nexoSoundId = sound.getNexoSoundId();
-        float volume = (float) sound.getVolume();
-        float pitch = (float) sound.getPitch();
+        SoundVariant variant = sound.pickVariant();
+        String nexoSoundId = variant.getNexoSoundId();
+        float volume = (float) variant.getVolume();
+        float pitch = (float) variant.getPitch();
         int radius = sound.getRadius();
 
         try {
@@ -207,12 +186,13 @@ public class SoundManager {
                         nearbyPlayer.playSound(location, nexoSoundId, volume, pitch);
                         playersInRange++;
                     } catch (Exception e) {
-                        if (plugin.getConfigManager().isDebugMode()) {
+                        if (settings.isDebugMode()) {
                             plugin.getLogger().warning("Failed to play Nexo sound " + nexoSoundId +
                                     " to " + nearbyPlayer.getName() + ", trying fallback: " + e.getMessage());
                         }
                         try {
                             nearbyPlayer.playSound(location, Sound.BLOCK_NOTE_BLOCK_BELL, volume, pitch);
+                            metrics.getFallbackSounds().increment();
                             playersInRange++;
                         } catch (Exception e2) {
                             plugin.getLogger().warning("Failed to play fallback sound to " + nearbyPlayer.getName() + ": " + e2.getMessage());
@@ -221,23 +201,25 @@ public class SoundManager {
                 }
             }
 
-            if (plugin.getConfigManager().playToSelf()) {
+            if (settings.playToSelf()) {
                 try {
                     player.playSound(location, nexoSoundId, volume, pitch);
                 } catch (Exception e) {
-                    if (plugin.getConfigManager().isDebugMode()) {
+                    if (settings.isDebugMode()) {
                         plugin.getLogger().warning("Failed to play Nexo sound " + nexoSoundId +
                                 " to joining player, trying fallback: " + e.getMessage());
                     }
                     try {
                         player.playSound(location, Sound.BLOCK_NOTE_BLOCK_BELL, volume, pitch);
+                        metrics.getFallbackSounds().increment();
                     } catch (Exception e2) {
                         plugin.getLogger().warning("Failed to play fallback sound to joining player: " + e2.getMessage());
                     }
                 }
             }
 
-            if (plugin.getConfigManager().isDebugMode()) {
+            metrics.getListenersReached().record(playersInRange);
+            if (settings.isDebugMode()) {
                 plugin.getLogger().info("Played sound " + sound.getId() + " for player " + player.getName() +
                         " to " + playersInRange + " players in range");
             }
@@ -246,6 +228,7 @@ public class SoundManager {
             plugin.getLogger().severe("Error playing sound " + sound.getId() + ": " + e.getMessage());
             e.printStackTrace();
         }
+        metrics.getPlayTime().recordSince(start);
     }
 
     public void previewSound(Player player, String soundId) {
@@ -254,43 +237,139 @@ public class SoundManager {
             return;
         }
 
+        SoundVariant variant = sound.pickVariant();
         try {
-            player.playSound(player.getLocation(), sound.getNexoSoundId(),
-                    (float) sound.getVolume(), (float) sound.getPitch());
+            player.playSound(player.getLocation(), variant.getNexoSoundId(),
+                    (float) variant.getVolume(), (float) variant.getPitch());
         } catch (Exception e) {
             if (plugin.getConfigManager().isDebugMode()) {
                 plugin.getLogger().warning("Failed to preview Nexo sound, using fallback: " + e.getMessage());
             }
             try {
                 player.playSound(player.getLocation(), Sound.BLOCK_NOTE_BLOCK_BELL,
-                        (float) sound.getVolume(), (float) sound.getPitch());
+                        (float) variant.getVolume(), (float) variant.getPitch());
+                plugin.getMetrics().getFallbackSounds().increment();
             } catch (Exception e2) {
                 plugin.getLogger().warning("Failed to preview fallback sound: " + e2.getMessage());
             }
         }
     }
 
-    private boolean isWorldEnabled(String worldName, Player player) {
-        if (player.hasPermission(plugin.getConfigManager().getBypassWorldPermission())) {
-            return true;
-        }
+    /**
+     * @return Whether sounds play in the player's world, or the player bypasses the world list
+     */
+    public boolean isWorldEnabled(PluginSettings settings, Player player) {
+        // Table lookup first; the permission check only runs in disabled worlds
+        return plugin.getConfigManager().isWorldEnabled(player.getWorld())
+                || player.hasPermission(settings.getBypassWorldPermission());
+    }
+
+    /**
+     * @param player The player listing sounds
+     * @param filter Text to match against sound IDs and names, or empty for all sounds
+     * @param page Page number, starting at 1; clamped to the available pages
+     * @return The rendered page, or null if no accessible sounds match
+     */
+    public SoundListCache.Page getListPage(Player player, String filter, int page) {
+        return listCache.getPage(getAccessible(player), filter.toLowerCase(), page);
+    }
 
-        return plugin.getConfigManager().isWorldEnabled(worldName);
+    /**
+     * @param player The player
+     * @return Sounds the player can select, sorted by ID
+     */
+    public List<JoinSound> getSortedAccessibleSounds(Player player) {
+        return listCache.getSounds(getAccessible(player), "");
     }
 
+    /**
+     * Get the sounds a player can select, in catalog order.
+     * Prefer {@link #getAccessible(Player)} on hot paths, which does not allocate.
+     */
     public Map<String, JoinSound> getAccessibleSounds(Player player) {
-        return getAvailableSounds().entrySet().stream()
-                .filter(entry -> player.hasPermission(entry.getValue().getPermission()))
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        AccessibleSounds accessible = getAccessible(player);
+        SoundCatalog source = accessible.getCatalog();
+
+        Map<String, JoinSound> sounds = new LinkedHashMap<>();
+        for (int ordinal = accessible.nextOrdinal(0); ordinal >= 0; ordinal = accessible.nextOrdinal(ordinal + 1)) {
+            JoinSound sound = source.getSound(ordinal);
+            sounds.put(sound.getId(), sound);
+        }
+        return sounds;
+    }
+
+    /**
+     * Get the cached set of sounds a player can select.
+     * The set is recomputed after a catalog reload, a season change, a world change,
+     * or once the configured cache lifetime has passed.
+     * @param player The player
+     * @return Shared, read-only accessible set
+     */
+    public AccessibleSounds getAccessible(Player player) {
+        SoundCatalog current = catalog;
+        long now = System.currentTimeMillis();
+
+        PlayerSession session = plugin.getSessionManager().get(player);
+        AccessibleSounds accessible = session != null ? session.getAccessible() : null;
+        if (accessible != null && accessible.isValidFor(current, now)) {
+            return accessible;
+        }
+
+        int ttlSeconds = plugin.getConfigManager().getAccessCacheSeconds();
+        long expiresAt = ttlSeconds > 0 ? now + ttlSeconds * 1000L : Long.MAX_VALUE;
+
+        accessible = AccessibleSounds.compute(current, player::hasPermission, expiresAt);
+        if (session != null && !session.isClosed()) {
+            session.setAccessible(accessible);
+        }
+        return accessible;
+    }
+
+    /**
+     * Get a player's accessible set without computing it; safe to call from any thread.
+     * Permission checks are not thread-safe, so a missing or stale set is left for
+     * {@link #refreshAccess} to fill in on the main thread.
+     * @param player The player
+     * @return The cached set, or null if there is no current one
+     */
+    public AccessibleSounds getCachedAccessible(Player player) {
+        PlayerSession session = plugin.getSessionManager().get(player);
+        AccessibleSounds accessible = session != null ? session.getAccessible() : null;
+        if (accessible == null || !accessible.isValidFor(catalog, System.currentTimeMillis())) {
+            return null;
+        }
+        return accessible;
+    }
+
+    /**
+     * Compute a player's accessible set if it is missing or stale, so off-thread readers find it.
+     * Must be called on the main thread.
+     * @param player The player
+     */
+    public void refreshAccess(Player player) {
+        getAccessible(player);
+    }
+
+    /**
+     * Drop a player's cached accessible set, e.g. after their permissions changed
+     * @param uuid The player's UUID
+     */
+    public void invalidateAccess(UUID uuid) {
+        PlayerSession session = plugin.getSessionManager().get(uuid);
+        if (session != null) {
+            session.setAccessible(null);
+        }
+    }
+
+    public void invalidateAllAccess() {
+        plugin.getSessionManager().invalidateAllAccess();
     }
 
     public int getSoundCount() {
-        return availableSounds.size();
+        return catalog.size();
     }
 
     public int getEnabledSoundCount() {
-        return (int) availableSounds.values().stream()
-                .filter(JoinSound::isEnabled)
-                .count();
+        return catalog.getEnabledCount();
     }
 }
\ No newline at end of file
@@ -0,0 +1,272 @@
+package com.tenshiku.joinsounds.managers;
+
+import com.tenshiku.joinsounds.JoinSounds;
+import com.tenshiku.joinsounds.models.CooldownKind;
+import com.tenshiku.joinsounds.models.JoinSound;
+import com.tenshiku.joinsounds.models.PluginSettings;
+import com.tenshiku.joinsounds.models.SoundCatalog;
+import com.tenshiku.joinsounds.models.SoundMenu;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.TextDecoration;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemFlag;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * Builds and drives the sound selection menu.
+ * Display items for every sound are built once per catalog, config and messages load and shared
+ * by all viewers; the inventory copies an item when it is placed, so viewers never share state.
+ */
+public class SoundMenuManager {
+
+    private static final int MIN_SIZE = 18;
+
+    private final JoinSounds plugin;
+    private volatile Templates templates;
+
+    public SoundMenuManager(JoinSounds plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Open the menu on its first page
+     * @param player The player to open it for
+     */
+    public void open(Player player) {
+        PluginSettings settings = plugin.getConfigManager().getSettings();
+        List<JoinSound> sounds = plugin.getSoundManager().getSortedAccessibleSounds(player);
+
+        SoundMenu menu = new SoundMenu(sounds, Math.max(MIN_SIZE, settings.getGuiSize()));
+        Inventory inventory = plugin.getServer().createInventory(menu, menu.getSize(),
+                LegacyComponentSerializer.legacySection().deserialize(settings.getGuiTitle()));
+        menu.setInventory(inventory);
+
+        showPage(player, menu, 0);
+        player.openInventory(inventory);
+    }
+
+    /**
+     * Handle a click in the top inventory of an open menu
+     * @param player The clicking player
+     * @param menu The menu clicked in
+     * @param slot Raw slot that was clicked
+     * @param click The type of click
+     */
+    public void handleClick(Player player, SoundMenu menu, int slot, ClickType click) {
+        if (slot == menu.getPreviousSlot() && menu.getPage() > 0) {
+            showPage(player, menu, menu.getPage() - 1);
+            return;
+        }
+        if (slot == menu.getNextSlot() && menu.getPage() + 1 < menu.getPageCount()) {
+            showPage(player, menu, menu.getPage() + 1);
+            return;
+        }
+        if (slot == menu.getNoSoundSlot()) {
+            closeThen(player, () -> plugin.getJoinSoundCommand().removeSound(player));
+            return;
+        }
+
+        JoinSound sound = menu.getSoundAt(slot);
+        if (sound == null) {
+            return;
+        }
+
+        if (click.isRightClick() && plugin.getConfigManager().isPreviewEnabled()) {
+            long remaining = plugin.getCooldowns().getRemainingSeconds(CooldownKind.PREVIEW, player.getUniqueId());
+            if (remaining > 0) {
+                player.sendMessage(plugin.getConfigManager().getPrefix() + "§cYou must wait §6" + remaining + "s §cbefore previewing another sound.");
+                return;
+            }
+            plugin.getCooldowns().start(CooldownKind.PREVIEW, player.getUniqueId());
+            plugin.getSoundManager().previewSound(player, sound.getId());
+        } else if (click.isLeftClick()) {
+            closeThen(player, () -> plugin.getJoinSoundCommand().setSound(player, sound));
+        }
+    }
+
+    /**
+     * Close the menu and run the follow-up on the player's next tick; an inventory
+     * must not be closed from inside its own click event
+     */
+    private void closeThen(Player player, Runnable action) {
+        player.getScheduler().run(plugin, task -> {
+            player.closeInventory();
+            action.run();
+        }, null);
+    }
+
+    /**
+     * Fill the menu with a page, reusing its inventory and contents array
+     */
+    private void showPage(Player player, SoundMenu menu, int page) {
+        Templates current = templates();
+        ItemStack[] contents = menu.getContents();
+        Arrays.fill(contents, null);
+        menu.setPage(page);
+
+        int selected = plugin.getPlayerDataManager().getPlayerSoundOrdinal(player.getUniqueId());
+        for (int slot = 0; slot < menu.getSoundsPerPage(); slot++) {
+            JoinSound sound = menu.getSoundAt(slot);
+            if (sound == null) {
+                break;
+            }
+
+            ItemStack template = current.get(sound);
+            contents[slot] = sound.getOrdinal() == selected ? current.selected(template) : template;
+        }
+
+        if (page > 0) {
+            contents[menu.getPreviousSlot()] = current.previous;
+        }
+        if (page + 1 < menu.getPageCount()) {
+            contents[menu.getNextSlot()] = current.next;
+        }
+        contents[menu.getNoSoundSlot()] = current.noSound;
+
+        menu.getInventory().setContents(contents);
+    }
+
+    /**
+     * Close every open menu, so none outlive the plugin
+     */
+    public void closeAll() {
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            if (player.getOpenInventory().getTopInventory().getHolder(false) instanceof SoundMenu) {
+                player.closeInventory();
+            }
+        }
+        templates = null;
+    }
+
+    private Templates templates() {
+        SoundCatalog catalog = plugin.getSoundManager().getCatalog();
+        PluginSettings settings = plugin.getConfigManager().getSettings();
+        String selectLine = plugin.getConfigManager().getMessageWithoutPrefix("sound-select");
+        String previewLine = plugin.getConfigManager().getMessageWithoutPrefix("sound-preview");
+
+        Templates current = templates;
+        if (current == null || current.catalog != catalog || current.settings != settings
+                || !current.selectLine.equals(selectLine) || !current.previewLine.equals(previewLine)) {
+            current = new Templates(catalog, settings, selectLine, previewLine);
+            templates = current;
+        }
+        return current;
+    }
+
+    private static Component text(String legacy) {
+        return LegacyComponentSerializer.legacySection().deserialize(legacy).decoration(TextDecoration.ITALIC, false);
+    }
+
+    private static ItemStack item(Material material, String name, List<String> lore, int customModelData) {
+        ItemStack item = new ItemStack(material);
+        ItemMeta meta = item.getItemMeta();
+        if (meta == null) {
+            return item;
+        }
+
+        meta.displayName(text(name));
+        List<Component> loreComponents = new ArrayList<>(lore.size());
+        for (String line : lore) {
+            loreComponents.add(text(line));
+        }
+        meta.lore(loreComponents);
+        if (customModelData > 0) {
+            meta.setCustomModelData(customModelData);
+        }
+        meta.addItemFlags(ItemFlag.HIDE_ATTRIBUTES);
+
+        item.setItemMeta(meta);
+        return item;
+    }
+
+    /**
+     * Display items for one catalog, config and messages load, indexed by sound ordinal
+     */
+    private static final class Templates {
+        private final SoundCatalog catalog;
+        private final PluginSettings settings;
+        private final String selectLine;
+        private final String previewLine;
+        private final ItemStack[] sounds;
+        private final ItemStack noSound;
+        private final ItemStack previous;
+        private final ItemStack next;
+
+        private Templates(SoundCatalog catalog, PluginSettings settings, String selectLine, String previewLine) {
+            this.catalog = catalog;
+            this.settings = settings;
+            this.selectLine = selectLine;
+            this.previewLine = previewLine;
+            this.sounds = new ItemStack[catalog.getOrdinalCount()];
+
+            for (int ordinal = 0; ordinal < sounds.length; ordinal++) {
+                JoinSound sound = catalog.getSound(ordinal);
+                if (sound != null && !sound.isHidden()) {
+                    sounds[ordinal] = build(sound);
+                }
+            }
+
+            this.noSound = item(settings.getNoSoundMaterial(), settings.getNoSoundName(),
+                    settings.getNoSoundLore(), settings.getNoSoundCustomModelData());
+            this.previous = item(Material.ARROW, "§6Previous page", List.of(), 0);
+            this.next = item(Material.ARROW, "§6Next page", List.of(), 0);
+        }
+
+        private ItemStack build(JoinSound sound) {
+            List<String> lore = new ArrayList<>();
+            for (String line : sound.getDescription()) {
+                lore.add(line.replace("&", "§"));
+            }
+            lore.add("");
+            lore.add(selectLine);
+            if (settings.isPreviewEnabled()) {
+                lore.add(previewLine);
+            }
+
+            ItemStack item = item(sound.getGuiMaterial(), sound.getDisplayName().replace("&", "§"),
+                    lore, sound.getCustomModelData());
+            if (sound.isEnchanted()) {
+                ItemMeta meta = item.getItemMeta();
+                if (meta != null) {
+                    meta.setEnchantmentGlintOverride(true);
+                    item.setItemMeta(meta);
+                }
+            }
+            return item;
+        }
+
+        private ItemStack get(JoinSound sound) {
+            ItemStack item = sound.getOrdinal() < sounds.length ? sounds[sound.getOrdinal()] : null;
+            return item != null ? item : build(sound);
+        }
+
+        /**
+         * @return A copy of the template marked as the player's current sound
+         */
+        private ItemStack selected(ItemStack template) {
+            ItemStack item = template.clone();
+            ItemMeta meta = item.getItemMeta();
+            if (meta != null) {
+                meta.setEnchantmentGlintOverride(true);
+                List<Component> lore = new ArrayList<>();
+                lore.add(text("§a✔ Currently selected"));
+                List<Component> existing = meta.lore();
+                if (existing != null) {
+                    lore.addAll(existing);
+                }
+                meta.lore(lore);
+                item.setItemMeta(meta);
+            }
+            return item;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.tenshiku.joinsounds.managers;
+
+import com.tenshiku.joinsounds.JoinSounds;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Persistent mapping between sound IDs and integer ordinals.
+ * Ordinals are never reused: a removed sound keeps its ordinal so stored selections
+ * cannot silently point at a different sound, and a renamed sound can inherit the
+ * ordinal of its old ID through the 'renamed-from' setting.
+ */
+public class SoundOrdinalRegistry {
+
+    private static final String FILE_NAME = "sound-ordinals.yml";
+
+    private final JoinSounds plugin;
+    private final File file;
+    private final Map<String, Integer> ordinals;
+    private final List<String> ids;
+    private boolean dirty;
+
+    public SoundOrdinalRegistry(JoinSounds plugin) {
+        this.plugin = plugin;
+        this.file = new File(plugin.getDataFolder(), FILE_NAME);
+        this.ordinals = new HashMap<>();
+        this.ids = new ArrayList<>();
+    }
+
+    public synchronized void load() {
+        ordinals.clear();
+        ids.clear();
+        dirty = false;
+
+        if (!file.exists()) {
+            return;
+        }
+
+        FileConfiguration registryConfig = YamlConfiguration.loadConfiguration(file);
+
+        // Current ID of each ordinal; renamed sounds keep their old IDs in the mapping below
+        ids.addAll(registryConfig.getStringList("names"));
+        for (int ordinal = 0; ordinal < ids.size(); ordinal++) {
+            if (ids.get(ordinal).isEmpty()) {
+                ids.set(ordinal, null);
+            }
+        }
+
+        ConfigurationSection section = registryConfig.getConfigurationSection("ordinals");
+        if (section != null) {
+            for (String id : section.getKeys(false)) {
+                int ordinal = section.getInt(id, -1);
+                if (ordinal < 0) {
+                    plugin.getLogger().warning("Invalid ordinal for '" + id + "' in " + FILE_NAME);
+                    continue;
+                }
+
+                ordinals.put(id, ordinal);
+                while (ids.size() <= ordinal) {
+                    ids.add(null);
+                }
+                if (ids.get(ordinal) == null) {
+                    ids.set(ordinal, id);
+                }
+            }
+        }
+
+        if (plugin.getConfigManager().isDebugMode()) {
+            plugin.getLogger().info("Loaded " + ids.size() + " sound ordinals");
+        }
+    }
+
+    public synchronized void save() {
+        if (!dirty) {
+            return;
+        }
+
+        FileConfiguration registryConfig = new YamlConfiguration();
+        List<String> names = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            names.add(id == null ? "" : id);
+        }
+        registryConfig.set("names", names);
+        for (Map.Entry<String, Integer> entry : ordinals.entrySet()) {
+            registryConfig.set("ordinals." + entry.getKey(), entry.getValue());
+        }
+
+        try {
+            registryConfig.save(file);
+            dirty = false;
+        } catch (IOException e) {
+            plugin.getLogger().severe("Could not save " + FILE_NAME + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Get the ordinal for an ID, assigning a new one if the ID is unknown
+     * @param id Sound ID
+     * @return The ID's ordinal
+     */
+    public synchronized int ordinalFor(String id) {
+        Integer ordinal = ordinals.get(id);
+        if (ordinal != null) {
+            return ordinal;
+        }
+
+        return assign(id, ids.size());
+    }
+
+    /**
+     * @param id Sound ID, current or previous
+     * @return The ID's ordinal, or -1 if the ID has never been seen
+     */
+    public synchronized int ordinalOf(String id) {
+        Integer ordinal = ordinals.get(id);
+        return ordinal != null ? ordinal : -1;
+    }
+
+    /**
+     * @param ordinal Sound ordinal
+     * @return Every ID that maps to the ordinal, including IDs it was renamed from
+     */
+    public synchronized List<String> idsOf(int ordinal) {
+        List<String> result = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : ordinals.entrySet()) {
+            if (entry.getValue() == ordinal) {
+                result.add(entry.getKey());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param id Sound ID in any case
+     * @param ordinal An ordinal
+     * @return Whether an ID that maps to a different ordinal equals the given ID, ignoring case
+     */
+    public synchronized boolean isClaimedIgnoreCase(String id, int ordinal) {
+        for (Map.Entry<String, Integer> entry : ordinals.entrySet()) {
+            if (entry.getValue() != ordinal && entry.getKey().equalsIgnoreCase(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param id Sound ID
+     * @return The ordinal whose current ID is this ID, or -1 if there is none
+     */
+    public synchronized int canonicalOrdinal(String id) {
+        Integer ordinal = ordinals.get(id);
+        if (ordinal == null || !id.equals(ids.get(ordinal))) {
+            return -1;
+        }
+        return ordinal;
+    }
+
+    /**
+     * Get the ordinal for a sound being loaded into the catalog.
+     * Sounds that already own their ordinal should be claimed before calling this.
+     * @param id Sound ID
+     * @param previousIds IDs this sound was renamed from
+     * @param claimed Ordinals already taken by other sounds in the catalog being built
+     * @return The sound's ordinal
+     */
+    public synchronized int ordinalFor(String id, List<String> previousIds, BitSet claimed) {
+        Integer ordinal = ordinals.get(id);
+        if (ordinal != null) {
+            if (!claimed.get(ordinal)) {
+                // An old ID whose replacement is gone takes its ordinal back
+                ids.set(ordinal, id);
+                dirty = true;
+                return ordinal;
+            }
+
+            plugin.getLogger().warning("Sound '" + id + "' was renamed to '" + ids.get(ordinal) +
+                    "' but both now exist; '" + id + "' gets a new ordinal");
+            return assign(id, ids.size());
+        }
+
+        for (String previousId : previousIds) {
+            Integer previous = ordinals.get(previousId);
+            if (previous != null && !claimed.get(previous)) {
+                plugin.getLogger().info("Sound '" + previousId + "' renamed to '" + id + "'");
+                ordinals.put(id, previous);
+                ids.set(previous, id);
+                dirty = true;
+                return previous;
+            }
+        }
+
+        return assign(id, ids.size());
+    }
+
+    private int assign(String id, int ordinal) {
+        ordinals.put(id, ordinal);
+        ids.add(id);
+        dirty = true;
+        return ordinal;
+    }
+
+    /**
+     * @param ordinal Sound ordinal
+     * @return The current ID for the ordinal, or null if unknown
+     */
+    public synchronized String idOf(int ordinal) {
+        if (ordinal < 0 || ordinal >= ids.size()) {
+            return null;
+        }
+        return ids.get(ordinal);
+    }
+
+    public synchronized int size() {
+        return ids.size();
+    }
+}
@@ -0,0 +1,331 @@
+package com.tenshiku.joinsounds.managers;
+
+import com.tenshiku.joinsounds.JoinSounds;
+import com.tenshiku.joinsounds.models.CooldownKind;
+import com.tenshiku.joinsounds.models.JoinOutcome;
+import com.tenshiku.joinsounds.models.JoinSound;
+import com.tenshiku.joinsounds.models.PlayerSession;
+import com.tenshiku.joinsounds.models.PluginSettings;
+import com.tenshiku.joinsounds.models.TriggerSettings;
+import com.tenshiku.joinsounds.models.TriggerType;
+import org.bukkit.entity.Player;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+
+/**
+ * Decides whether a trigger plays a player's sound, and plays it.
+ * The checks for each trigger are compiled into a chain of rules once per settings snapshot,
+ * so checks a trigger does not use are left out of its chain instead of being skipped per event.
+ */
+public class TriggerEngine {
+
+    private final JoinSounds plugin;
+    private volatile Compiled compiled;
+
+    public TriggerEngine(JoinSounds plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Run a trigger for a player, playing their sound if every check passes.
+     * Join triggers are recorded by the join tracer, once per join; a delayed play updates
+     * its SCHEDULED entry to PLAYED rather than adding a second one.
+     * @param type The trigger that fired
+     * @param player The player it fired for
+     * @param startNanos System.nanoTime() when the event was first seen, for tracing
+     * @return The decision; PLAYED or SCHEDULED if the sound plays
+     */
+    public JoinOutcome fire(TriggerType type, Player player, long startNanos) {
+        PluginSettings settings = plugin.getConfigManager().getSettings();
+        JoinOutcome outcome;
+        try {
+            outcome = run(type, player, settings, startNanos);
+        } catch (Exception e) {
+            outcome = JoinOutcome.ERROR;
+            plugin.getLogger().severe("Error playing " + type.getKey() + " sound for " + player.getName() + ": " + e.getMessage());
+            if (settings.isDebugMode()) {
+                e.printStackTrace();
+            }
+        }
+
+        plugin.getMetrics().countOutcome(type, outcome);
+        if (type.isJoin() && outcome != JoinOutcome.SCHEDULED) {
+            plugin.getJoinTracer().record(player.getUniqueId(), outcome, startNanos);
+        }
+        if (settings.isDebugMode() && outcome != JoinOutcome.TRIGGER_DISABLED) {
+            plugin.getLogger().info("Trigger " + type.getKey() + " for player " + player.getName() + ": " + outcome);
+        }
+        return outcome;
+    }
+
+    private JoinOutcome run(TriggerType type, Player player, PluginSettings settings, long startNanos) {
+        if (!settings.isPluginEnabled()) {
+            return JoinOutcome.PLUGIN_DISABLED;
+        }
+
+        TriggerSettings trigger = settings.getTrigger(type);
+        if (!trigger.isEnabled()) {
+            return JoinOutcome.TRIGGER_DISABLED;
+        }
+
+        Firing firing = new Firing(type, trigger, settings, player, plugin.getSessionManager().get(player));
+        for (Rule rule : chain(settings, type)) {
+            JoinOutcome outcome = rule.check(firing);
+            if (outcome != null) {
+                return outcome;
+            }
+        }
+
+        return play(firing, startNanos);
+    }
+
+    private Rule[] chain(PluginSettings settings, TriggerType type) {
+        Compiled current = compiled;
+        if (current == null || current.settings != settings) {
+            current = new Compiled(settings, compile(settings));
+            compiled = current;
+        }
+        return current.chains[type.ordinal()];
+    }
+
+    private Rule[][] compile(PluginSettings settings) {
+        Rule[][] chains = new Rule[TriggerType.count()][];
+        for (int i = 0; i < chains.length; i++) {
+            TriggerType type = TriggerType.byOrdinal(i);
+            TriggerSettings trigger = settings.getTrigger(type);
+
+            List<Rule> rules = new ArrayList<>();
+            rules.add(this::checkSelection);
+            rules.add(this::checkUsePermission);
+            if (!trigger.getPermission().isEmpty()) {
+                rules.add(this::checkTriggerPermission);
+            }
+            if (trigger.shouldCheckWorld()) {
+                rules.add(this::checkWorld);
+            }
+            rules.add(this::checkSound);
+            if (settings.areCooldownsEnabled()) {
+                if (type.isJoin() && settings.getRejoinCooldown() > 0) {
+                    rules.add(this::checkRejoinCooldown);
+                } else if (!type.isJoin() && trigger.getCooldown() > 0) {
+                    rules.add(this::checkTriggerCooldown);
+                }
+            }
+            chains[i] = rules.toArray(new Rule[0]);
+        }
+        return chains;
+    }
+
+    /**
+     * Pick the sound to play: the player's choice for the trigger, their join sound, then the trigger's default
+     */
+    private JoinOutcome checkSelection(Firing firing) {
+        UUID uuid = firing.player.getUniqueId();
+        PlayerDataManager data = plugin.getPlayerDataManager();
+
+        // Online players are read from their session slot
+        PlayerSession session = firing.session;
+        TriggerType source = firing.type;
+        int ordinal = session != null
+                ? data.getPlayerSoundOrdinal(session, source) : data.getPlayerSoundOrdinal(uuid, source);
+        if (ordinal < 0 && firing.trigger.shouldFallBackToJoin()) {
+            source = TriggerType.JOIN;
+            ordinal = session != null
+                    ? data.getPlayerSoundOrdinal(session, source) : data.getPlayerSoundOrdinal(uuid);
+        }
+
+        if (ordinal >= 0) {
+            firing.sound = plugin.getSoundManager().getSound(ordinal);
+            if (firing.sound != null) {
+                return null;
+            }
+
+            if (firing.settings.isDebugMode()) {
+                plugin.getLogger().warning("Player " + firing.player.getName() + " has invalid " + source.getKey() + " sound: " +
+                        plugin.getSoundManager().getOrdinalRegistry().idOf(ordinal));
+            }
+            data.setPlayerSound(uuid, source, null);
+            return JoinOutcome.INVALID_SOUND;
+        }
+
+        String defaultId = firing.trigger.getDefaultSound();
+        if (!defaultId.isEmpty()) {
+            firing.sound = plugin.getSoundManager().getSound(defaultId);
+            if (firing.sound != null) {
+                firing.serverDefault = true;
+                return null;
+            }
+            plugin.getLogger().warning("Default sound '" + defaultId + "' for trigger " + firing.type.getKey() + " does not exist");
+        }
+
+        if (firing.settings.isDebugMode()) {
+            plugin.getLogger().info("Player " + firing.player.getName() + " has no " + firing.type.getKey() + " sound set");
+        }
+        return JoinOutcome.NO_SOUND_SET;
+    }
+
+    private JoinOutcome checkUsePermission(Firing firing) {
+        String usePermission = firing.settings.getUsePermission();
+        if (firing.player.hasPermission(usePermission)) {
+            return null;
+        }
+
+        if (firing.settings.isDebugMode()) {
+            plugin.getLogger().info("Player " + firing.player.getName() + " lacks basic use permission: " + usePermission);
+        }
+        return JoinOutcome.NO_USE_PERMISSION;
+    }
+
+    private JoinOutcome checkTriggerPermission(Firing firing) {
+        String permission = firing.trigger.getPermission();
+        if (firing.player.hasPermission(permission)) {
+            return null;
+        }
+
+        if (firing.settings.isDebugMode()) {
+            plugin.getLogger().info("Player " + firing.player.getName() + " lacks trigger permission: " + permission);
+        }
+        return JoinOutcome.NO_TRIGGER_PERMISSION;
+    }
+
+    private JoinOutcome checkWorld(Firing firing) {
+        if (plugin.getSoundManager().isWorldEnabled(firing.settings, firing.player)) {
+            return null;
+        }
+
+        if (firing.settings.isDebugMode()) {
+            plugin.getLogger().info("Sounds disabled in world: " + firing.player.getWorld().getName());
+        }
+        return JoinOutcome.WORLD_DISABLED;
+    }
+
+    private JoinOutcome checkSound(Firing firing) {
+        JoinSound sound = firing.sound;
+
+        if (!sound.isEnabled()) {
+            if (firing.settings.isDebugMode()) {
+                plugin.getLogger().info("Sound " + sound.getId() + " is disabled");
+            }
+            return JoinOutcome.SOUND_DISABLED;
+        }
+
+        if (!sound.isSeasonallyAvailable()) {
+            if (firing.settings.isDebugMode()) {
+                plugin.getLogger().info("Sound " + sound.getId() + " is not seasonally available");
+            }
+            return JoinOutcome.OUT_OF_SEASON;
+        }
+
+        // A trigger's default sound is chosen by the server, not the player
+        if (!firing.serverDefault && !firing.player.hasPermission(sound.getPermission())) {
+            if (firing.settings.isDebugMode()) {
+                plugin.getLogger().info("Player " + firing.player.getName() + " lacks permission for sound: " + sound.getId());
+            }
+            return JoinOutcome.NO_SOUND_PERMISSION;
+        }
+        return null;
+    }
+
+    private JoinOutcome checkRejoinCooldown(Firing firing) {
+        if (!plugin.getCooldowns().isActive(CooldownKind.REJOIN, firing.player.getUniqueId())) {
+            return null;
+        }
+
+        if (firing.settings.isDebugMode()) {
+            plugin.getLogger().info("Player " + firing.player.getName() + " is on rejoin cooldown");
+        }
+        return JoinOutcome.REJOIN_COOLDOWN;
+    }
+
+    private JoinOutcome checkTriggerCooldown(Firing firing) {
+        if (firing.session == null || System.currentTimeMillis() - firing.session.getLastTriggered(firing.type)
+                >= firing.trigger.getCooldown() * 1000L) {
+            return null;
+        }
+
+        if (firing.settings.isDebugMode()) {
+            plugin.getLogger().info("Player " + firing.player.getName() + " is on " + firing.type.getKey() + " cooldown");
+        }
+        return JoinOutcome.TRIGGER_COOLDOWN;
+    }
+
+    private JoinOutcome play(Firing firing, long startNanos) {
+        PlayerSession session = firing.session;
+        int delay = firing.trigger.getDelay();
+        if (delay > 0 && session != null) {
+            JoinTracer tracer = plugin.getJoinTracer();
+            long trace = firing.type.isJoin()
+                    ? tracer.record(firing.player.getUniqueId(), JoinOutcome.SCHEDULED, startNanos) : -1;
+
+            // Cancelled by the session if the player leaves first, leaving the entry as SCHEDULED
+            session.setPendingPlay(firing.type, plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
+                session.clearPendingPlay(firing.type);
+                played(firing, startNanos);
+                tracer.update(trace, JoinOutcome.PLAYED, startNanos);
+            }, delay));
+            return JoinOutcome.SCHEDULED;
+        }
+
+        played(firing, startNanos);
+        return JoinOutcome.PLAYED;
+    }
+
+    private void played(Firing firing, long startNanos) {
+        plugin.getSoundManager().playSound(firing.player, firing.sound);
+        plugin.getMetrics().getTriggerToPlay(firing.type).recordSince(startNanos);
+
+        PlayerSession session = firing.session;
+        if (firing.type.isJoin()) {
+            plugin.getPlayerDataManager().setLastJoinSound(firing.player.getUniqueId());
+            if (session != null) {
+                session.markDirty();
+            }
+        } else if (session != null) {
+            session.setLastTriggered(firing.type, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * One check in a trigger's chain
+     */
+    @FunctionalInterface
+    private interface Rule {
+        /**
+         * @return The outcome that stops the chain, or null to continue
+         */
+        JoinOutcome check(Firing firing);
+    }
+
+    /**
+     * State for one trigger as it passes through its chain
+     */
+    private static final class Firing {
+        final TriggerType type;
+        final TriggerSettings trigger;
+        final PluginSettings settings;
+        final Player player;
+        final PlayerSession session;
+        JoinSound sound;
+        boolean serverDefault;
+
+        Firing(TriggerType type, TriggerSettings trigger, PluginSettings settings, Player player, PlayerSession session) {
+            this.type = type;
+            this.trigger = trigger;
+            this.settings = settings;
+            this.player = player;
+            this.session = session;
+        }
+    }
+
+    private static final class Compiled {
+        final PluginSettings settings;
+        final Rule[][] chains;
+
+        Compiled(PluginSettings settings, Rule[][] chains) {
+            this.settings = settings;
+            this.chains = chains;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.tenshiku.joinsounds.managers;
+
+import com.tenshiku.joinsounds.JoinSounds;
+import com.tenshiku.joinsounds.models.PluginSettings;
+import org.bukkit.World;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * Whether join sounds play in each loaded world, keyed by world UID.
+ * World names are matched against the configured lists once per world when the config
+ * is loaded or the world is loaded, so a join only needs a single map lookup.
+ */
+public class WorldEligibilityTable {
+
+    private final JoinSounds plugin;
+    private volatile PluginSettings settings;
+    private volatile Map<UUID, Boolean> table;
+
+    public WorldEligibilityTable(JoinSounds plugin) {
+        this.plugin = plugin;
+        this.table = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Resolve every loaded world against new settings
+     * @param settings The newly compiled settings
+     */
+    public void rebuild(PluginSettings settings) {
+        Map<UUID, Boolean> rebuilt = new ConcurrentHashMap<>();
+        for (World world : plugin.getServer().getWorlds()) {
+            rebuilt.put(world.getUID(), settings.isWorldEnabled(world.getName()));
+        }
+
+        this.settings = settings;
+        this.table = rebuilt;
+
+        if (settings.isDebugMode()) {
+            long enabled = rebuilt.values().stream().filter(Boolean::booleanValue).count();
+            plugin.getLogger().info("Join sounds enabled in " + enabled + " of " + rebuilt.size() + " worlds");
+        }
+    }
+
+    public void addWorld(World world) {
+        PluginSettings current = settings;
+        if (current != null) {
+            table.put(world.getUID(), current.isWorldEnabled(world.getName()));
+        }
+    }
+
+    public void removeWorld(World world) {
+        table.remove(world.getUID());
+    }
+
+    /**
+     * @param world The world to check
+     * @return true if join sounds play in the world
+     */
+    public boolean isEnabled(World world) {
+        Boolean enabled = table.get(world.getUID());
+        if (enabled == null) {
+            // World loaded before we could see it; resolve it now and remember the answer
+            PluginSettings current = settings;
+            enabled = current == null || current.isWorldEnabled(world.getName());
+            table.put(world.getUID(), enabled);
+        }
+        return enabled;
+    }
+}
@@ -0,0 +1,114 @@
+package com.tenshiku.joinsounds.models;
+
+import java.util.Map;
+import java.util.function.Predicate;
+
+
+/**
+ * Read-only set of sound ordinals a player can currently select.
+ * Instances are cached per player and shared; none of the read methods allocate.
+ */
+public final class AccessibleSounds {
+
+    private final SoundCatalog catalog;
+    private final Map<String, JoinSound> source;
+    private final long[] words;
+    private final int size;
+    private final long expiresAt;
+    private final SoundSetFingerprint fingerprint;
+
+    AccessibleSounds(SoundCatalog catalog, Map<String, JoinSound> source, long[] words, int size, long expiresAt) {
+        this.catalog = catalog;
+        this.source = source;
+        this.words = words;
+        this.size = size;
+        this.expiresAt = expiresAt;
+        this.fingerprint = new SoundSetFingerprint(words);
+    }
+
+    /**
+     * Build the accessible set from the catalog's currently selectable sounds
+     * @param catalog The catalog to read from
+     * @param permissionCheck Returns true if the player holds the given permission
+     * @param expiresAt Epoch millis after which the set should be recomputed
+     * @return The accessible set
+     */
+    public static AccessibleSounds compute(SoundCatalog catalog, Predicate<String> permissionCheck, long expiresAt) {
+        Map<String, JoinSound> available = catalog.getAvailableSounds();
+        long[] words = new long[(catalog.getOrdinalCount() + 63) >>> 6];
+        int size = 0;
+
+        for (JoinSound sound : available.values()) {
+            if (permissionCheck.test(sound.getPermission())) {
+                int ordinal = sound.getOrdinal();
+                words[ordinal >>> 6] |= 1L << ordinal;
+                size++;
+            }
+        }
+
+        return new AccessibleSounds(catalog, available, words, size, expiresAt);
+    }
+
+    /**
+     * @param catalog The live catalog
+     * @param now Current epoch millis
+     * @return true if this set still reflects the given catalog and season
+     */
+    public boolean isValidFor(SoundCatalog catalog, long now) {
+        return this.catalog == catalog && source == catalog.getAvailableSounds() && now < expiresAt;
+    }
+
+    public boolean contains(int ordinal) {
+        int word = ordinal >>> 6;
+        return ordinal >= 0 && word < words.length && (words[word] & (1L << ordinal)) != 0;
+    }
+
+    public boolean contains(JoinSound sound) {
+        return sound != null && catalog.getSound(sound.getOrdinal()) == sound && contains(sound.getOrdinal());
+    }
+
+    /**
+     * @param fromOrdinal Ordinal to start searching from (inclusive)
+     * @return The next accessible ordinal, or -1 if there are no more
+     */
+    public int nextOrdinal(int fromOrdinal) {
+        if (fromOrdinal < 0) {
+            fromOrdinal = 0;
+        }
+
+        int word = fromOrdinal >>> 6;
+        if (word >= words.length) {
+            return -1;
+        }
+
+        long bits = words[word] & (-1L << fromOrdinal);
+        while (true) {
+            if (bits != 0) {
+                return (word << 6) + Long.numberOfTrailingZeros(bits);
+            }
+            if (++word == words.length) {
+                return -1;
+            }
+            bits = words[word];
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public SoundCatalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * @return Key equal for every player who can select exactly these sounds
+     */
+    public SoundSetFingerprint getFingerprint() {
+        return fingerprint;
+    }
+}
@@ -0,0 +1,25 @@
+package com.tenshiku.joinsounds.models;
+
+
+/**
+ * Things a player must wait between, each with its own length under 'cooldowns' in config.yml
+ */
+public enum CooldownKind {
+
+    // Between two sound selections
+    CHANGE,
+    // Between two join sounds for the same player
+    REJOIN,
+    // Between two previews from the command or the menu
+    PREVIEW;
+
+    private static final CooldownKind[] VALUES = values();
+
+    public static int count() {
+        return VALUES.length;
+    }
+
+    public static CooldownKind byOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+}
@@ -0,0 +1,59 @@
+package com.tenshiku.joinsounds.models;
+
+
+/**
+ * Why a trigger did or did not play a sound, and the pipeline stage where that was decided
+ */
+public enum JoinOutcome {
+
+    PLAYED(Stage.PLAY),
+    SCHEDULED(Stage.PLAY),
+    PLUGIN_DISABLED(Stage.START),
+    TRIGGER_DISABLED(Stage.START),
+    NO_SOUND_SET(Stage.SELECTION),
+    INVALID_SOUND(Stage.SELECTION),
+    NO_USE_PERMISSION(Stage.PERMISSION),
+    NO_TRIGGER_PERMISSION(Stage.PERMISSION),
+    WORLD_DISABLED(Stage.WORLD),
+    SOUND_DISABLED(Stage.SOUND),
+    OUT_OF_SEASON(Stage.SOUND),
+    NO_SOUND_PERMISSION(Stage.PERMISSION),
+    REJOIN_COOLDOWN(Stage.COOLDOWN),
+    TRIGGER_COOLDOWN(Stage.COOLDOWN),
+    ERROR(Stage.PLAY);
+
+    private static final JoinOutcome[] VALUES = values();
+
+    private final Stage stage;
+
+    JoinOutcome(Stage stage) {
+        this.stage = stage;
+    }
+
+    public Stage getStage() {
+        return stage;
+    }
+
+    public static JoinOutcome byOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    /**
+     * Pipeline stages, in the order a join passes through them
+     */
+    public enum Stage {
+        START,
+        SELECTION,
+        PERMISSION,
+        WORLD,
+        SOUND,
+        COOLDOWN,
+        PLAY;
+
+        private static final Stage[] VALUES = values();
+
+        public static Stage byOrdinal(int ordinal) {
+            return VALUES[ordinal];
+        }
+    }
+}
@@ -2,14 +2,22 @@ package com.tenshiku.joinsounds.models;
 
 import org.bukkit.Material;
 import org.bukkit.configuration.ConfigurationSection;
-import java.time.LocalDate;
+import java.time.MonthDay;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
 
 
 public class JoinSound {
 
+    private static final DateTimeFormatter SEASON_FORMAT = DateTimeFormatter.ofPattern("MM-dd");
+
     private final String id;
+    private final int ordinal;
     private final String displayName;
     private final String nexoSoundId;
     private final String permission;
@@ -25,14 +33,25 @@ public class JoinSound {
     private final boolean hidden;
     private final String seasonalStart;
     private final String seasonalEnd;
+    private final int seasonStartDay;
+    private final int seasonEndDay;
+    private final List<String> renamedFrom;
+    private final List<SoundVariant> variants;
+    private final AliasTable variantTable;
 
-    public JoinSound(String id, String displayName, String nexoSoundId, String permission,
+    public JoinSound(String id, int ordinal, String displayName, String nexoSoundId, String permission,
                      List<String> description, Material guiMaterial, String itemModel,
                      int customModelData, boolean enchanted, double volume, double pitch,
-                     int radius, boolean enabled, boolean hidden, String seasonalStart, String seasonalEnd) {
+                     int radius, boolean enabled, boolean hidden, String seasonalStart, String seasonalEnd,
+                     List<String> renamedFrom, List<SoundVariant> variants) {
+        if (variants.isEmpty()) {
+            variants = List.of(new SoundVariant(nexoSoundId, 1.0, volume, pitch));
+        }
+
         this.id = id;
+        this.ordinal = ordinal;
         this.displayName = displayName;
-        this.nexoSoundId = nexoSoundId;
+        this.nexoSoundId = nexoSoundId != null ? nexoSoundId : variants.get(0).getNexoSoundId();
         this.permission = permission;
         this.description = description;
         this.guiMaterial = guiMaterial;
@@ -46,10 +65,43 @@ public class JoinSound {
         this.hidden = hidden;
         this.seasonalStart = seasonalStart;
         this.seasonalEnd = seasonalEnd;
+        this.renamedFrom = renamedFrom;
+        this.variants = List.copyOf(variants);
+
+        double[] weights = new double[this.variants.size()];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = this.variants.get(i).getWeight();
+        }
+        this.variantTable = AliasTable.build(weights);
+
+        int startDay = parseSeasonDay(seasonalStart);
+        int endDay = parseSeasonDay(seasonalEnd);
+        boolean seasonal = startDay > 0 && endDay > 0;
+        this.seasonStartDay = seasonal ? startDay : -1;
+        this.seasonEndDay = seasonal ? endDay : -1;
+    }
+
+    /**
+     * Compile an MM-DD date into a day of the (leap) year
+     * @param date The configured date
+     * @return Day of year, or -1 if missing or invalid
+     */
+    private static int parseSeasonDay(String date) {
+        if (date == null) {
+            return -1;
+        }
+
+        try {
+            return SeasonCalendar.dayOfYear(MonthDay.parse(date, SEASON_FORMAT));
+        } catch (DateTimeParseException e) {
+            // If seasonal parsing fails, default to available
+            return -1;
+        }
     }
 
     /**
      * Create a JoinSound from a configuration section
+     * The returned sound has no ordinal yet; see {@link #withOrdinal(int)}
      * @param id The sound ID
      * @param section The configuration section
      * @return JoinSound instance or null if invalid
@@ -61,7 +113,7 @@ public class JoinSound {
             String nexoSoundId = section.getString("nexo-sound-id");
             String permission = section.getString("permission");
 
-            if (nexoSoundId == null || permission == null) {
+            if ((nexoSoundId == null && !section.isList("variants")) || permission == null) {
                 return null; // Required fields missing
             }
 
@@ -96,6 +148,22 @@ public class JoinSound {
             boolean enabled = section.getBoolean("enabled", true);
             boolean hidden = section.getBoolean("hidden", false);
 
+            // Optional weighted pool of Nexo sounds; one is picked per play
+            List<SoundVariant> variants = new ArrayList<>();
+            for (Map<?, ?> variant : section.getMapList("variants")) {
+                Object variantSoundId = variant.get("nexo-sound-id");
+                double weight = toDouble(variant.get("weight"), 1.0);
+                if (variantSoundId == null || weight <= 0) {
+                    continue; // Skip incomplete or zero-weight variants
+                }
+                variants.add(new SoundVariant(variantSoundId.toString(), weight,
+                        toDouble(variant.get("volume"), volume), toDouble(variant.get("pitch"), pitch)));
+            }
+
+            if (nexoSoundId == null && variants.isEmpty()) {
+                return null; // No playable sound
+            }
+
             // Seasonal settings
             String seasonalStart = null;
             String seasonalEnd = null;
@@ -105,44 +173,123 @@ public class JoinSound {
                 seasonalEnd = seasonalSection.getString("end-date");
             }
 
-            return new JoinSound(id, displayName, nexoSoundId, permission, description,
+            // Previous IDs, so selections survive a rename
+            List<String> renamedFrom = new ArrayList<>();
+            if (section.isList("renamed-from")) {
+                renamedFrom.addAll(section.getStringList("renamed-from"));
+            } else if (section.isString("renamed-from")) {
+                renamedFrom.add(section.getString("renamed-from"));
+            }
+
+            return new JoinSound(id, -1, displayName, nexoSoundId, permission, description,
                     material, itemModel, customModelData, enchanted,
-                    volume, pitch, radius, enabled, hidden, seasonalStart, seasonalEnd);
+                    volume, pitch, radius, enabled, hidden, seasonalStart, seasonalEnd, renamedFrom, variants);
 
         } catch (Exception e) {
             return null;
         }
     }
 
+    private static double toDouble(Object value, double def) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (value != null) {
+            try {
+                return Double.parseDouble(value.toString());
+            } catch (NumberFormatException e) {
+                return def;
+            }
+        }
+        return def;
+    }
+
+    /**
+     * @param ordinal The ordinal assigned by the catalog
+     * @return A copy of this sound with the given ordinal
+     */
+    public JoinSound withOrdinal(int ordinal) {
+        return new JoinSound(id, ordinal, displayName, nexoSoundId, permission, description,
+                guiMaterial, itemModel, customModelData, enchanted,
+                volume, pitch, radius, enabled, hidden, seasonalStart, seasonalEnd, renamedFrom, variants);
+    }
+
+    /**
+     * Compare everything loaded from configuration, ignoring the ordinal
+     * @param other Another sound
+     * @return true if both sounds were defined identically
+     */
+    public boolean hasSameDefinition(JoinSound other) {
+        return id.equals(other.id) &&
+                Objects.equals(displayName, other.displayName) &&
+                Objects.equals(nexoSoundId, other.nexoSoundId) &&
+                Objects.equals(permission, other.permission) &&
+                Objects.equals(description, other.description) &&
+                guiMaterial == other.guiMaterial &&
+                Objects.equals(itemModel, other.itemModel) &&
+                customModelData == other.customModelData &&
+                enchanted == other.enchanted &&
+                volume == other.volume &&
+                pitch == other.pitch &&
+                radius == other.radius &&
+                enabled == other.enabled &&
+                hidden == other.hidden &&
+                Objects.equals(seasonalStart, other.seasonalStart) &&
+                Objects.equals(seasonalEnd, other.seasonalEnd) &&
+                Objects.equals(renamedFrom, other.renamedFrom) &&
+                variants.equals(other.variants);
+    }
+
+    /**
+     * Pick the variant to play, weighted by each variant's weight. Constant time regardless of pool size.
+     * @return The variant to play
+     */
+    public SoundVariant pickVariant() {
+        if (variants.size() == 1) {
+            return variants.get(0);
+        }
+        return variants.get(variantTable.sample(ThreadLocalRandom.current()));
+    }
+
+    public List<SoundVariant> getVariants() {
+        return variants;
+    }
+
+    /**
+     * @return true if this sound picks from more than one Nexo sound
+     */
+    public boolean isPool() {
+        return variants.size() > 1;
+    }
+
     /**
      * Check if this sound is currently available based on seasonal settings
      * @return true if available, false if out of season
      */
     public boolean isSeasonallyAvailable() {
-        if (seasonalStart == null || seasonalEnd == null) {
+        return isInSeason(SeasonCalendar.today());
+    }
+
+    /**
+     * Check seasonal availability for a given day
+     * @param dayOfYear Day of the leap year, as returned by {@link SeasonCalendar}
+     * @return true if available on that day
+     */
+    public boolean isInSeason(int dayOfYear) {
+        if (seasonStartDay < 0) {
             return true; // Not seasonal
         }
 
-        try {
-            LocalDate now = LocalDate.now();
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM-dd");
-
-            LocalDate startDate = LocalDate.parse(now.getYear() + "-" + seasonalStart, DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-            LocalDate endDate = LocalDate.parse(now.getYear() + "-" + seasonalEnd, DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-
-            // Handle year wrap-around (e.g., Dec 28 to Jan 5)
-            if (startDate.isAfter(endDate)) {
-                // Season crosses year boundary
-                return now.isAfter(startDate) || now.isBefore(endDate);
-            } else {
-                // Normal season within same year
-                return (now.isEqual(startDate) || now.isAfter(startDate)) &&
-                        (now.isEqual(endDate) || now.isBefore(endDate));
-            }
-        } catch (Exception e) {
-            // If seasonal parsing fails, default to available
-            return true;
+        // Handle year wrap-around (e.g., Dec 28 to Jan 5)
+        if (seasonStartDay > seasonEndDay) {
+            return dayOfYear >= seasonStartDay || dayOfYear <= seasonEndDay;
         }
+
+        return dayOfYear >= seasonStartDay && dayOfYear <= seasonEndDay;
+    }
+
+    public boolean isSeasonal() {
+        return seasonStartDay >= 0;
     }
 
     /**
@@ -159,6 +306,10 @@ public class JoinSound {
         return id;
     }
 
+    public int getOrdinal() {
+        return ordinal;
+    }
+
     public String getDisplayName() {
         return displayName;
     }
@@ -219,6 +370,10 @@ public class JoinSound {
         return seasonalEnd;
     }
 
+    public List<String> getRenamedFrom() {
+        return renamedFrom;
+    }
+
     @Override
     public String toString() {
         return "JoinSound{" +
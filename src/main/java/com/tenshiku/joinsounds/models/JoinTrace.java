@@ -0,0 +1,54 @@
+package com.tenshiku.joinsounds.models;
+
+import java.util.UUID;
+
+
+/**
+ * One recorded join decision, copied out of the trace buffer for display
+ */
+public final class JoinTrace {
+
+    private final long sequence;
+    private final long timeMillis;
+    private final UUID player;
+    private final JoinOutcome outcome;
+    private final JoinOutcome.Stage stage;
+    private final long elapsedNanos;
+
+    public JoinTrace(long sequence, long timeMillis, UUID player, JoinOutcome outcome,
+                     JoinOutcome.Stage stage, long elapsedNanos) {
+        this.sequence = sequence;
+        this.timeMillis = timeMillis;
+        this.player = player;
+        this.outcome = outcome;
+        this.stage = stage;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public UUID getPlayer() {
+        return player;
+    }
+
+    public JoinOutcome getOutcome() {
+        return outcome;
+    }
+
+    public JoinOutcome.Stage getStage() {
+        return stage;
+    }
+
+    /**
+     * @return Time from the join event to this decision; includes the play delay for delayed plays
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+}
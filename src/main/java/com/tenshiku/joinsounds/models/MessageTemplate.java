@@ -0,0 +1,137 @@
+package com.tenshiku.joinsounds.models;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * A message from messages.yml, split once into literal text and {placeholder} slots.
+ * Legacy '&' colour codes are translated when the template is compiled, and messages
+ * without placeholders are rendered once and reused.
+ */
+public final class MessageTemplate {
+
+    private final String prefix;
+    private final Component prefixComponent;
+    private final boolean miniMessage;
+    private final String[] literals;
+    private final String[] placeholders;
+
+    // Only set for messages without placeholders
+    private final String rendered;
+    private final Component component;
+
+    private MessageTemplate(String prefix, boolean miniMessage, String[] literals, String[] placeholders) {
+        this.prefix = prefix;
+        this.prefixComponent = LegacyComponentSerializer.legacySection().deserialize(prefix);
+        this.miniMessage = miniMessage;
+        this.literals = literals;
+        this.placeholders = placeholders;
+
+        if (placeholders.length == 0) {
+            this.component = toComponent(literals[0]);
+            this.rendered = miniMessage ? LegacyComponentSerializer.legacySection().serialize(component) : literals[0];
+        } else {
+            this.component = null;
+            this.rendered = null;
+        }
+    }
+
+    /**
+     * @param raw Message text as written in messages.yml
+     * @param prefix Translated prefix to show before the message
+     * @param miniMessage Whether the text uses MiniMessage tags instead of '&' colour codes
+     * @return The compiled template
+     */
+    public static MessageTemplate compile(String raw, String prefix, boolean miniMessage) {
+        List<String> literals = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+
+        int i = 0;
+        while (i < raw.length()) {
+            char c = raw.charAt(i);
+            int close = c == '{' ? raw.indexOf('}', i + 1) : -1;
+            if (close > i + 1) {
+                literals.add(translate(literal.toString(), miniMessage));
+                placeholders.add(raw.substring(i + 1, close));
+                literal.setLength(0);
+                i = close + 1;
+            } else {
+                literal.append(c);
+                i++;
+            }
+        }
+        literals.add(translate(literal.toString(), miniMessage));
+
+        return new MessageTemplate(prefix, miniMessage,
+                literals.toArray(new String[0]), placeholders.toArray(new String[0]));
+    }
+
+    private static String translate(String text, boolean miniMessage) {
+        return miniMessage ? text : text.replace("&", "§");
+    }
+
+    /**
+     * @param withPrefix Whether to put the plugin prefix in front
+     * @param replacements Placeholder names and values, in pairs
+     * @return The message as a legacy formatted string
+     */
+    public String render(boolean withPrefix, String... replacements) {
+        String body;
+        if (rendered != null) {
+            body = rendered;
+        } else if (miniMessage) {
+            body = LegacyComponentSerializer.legacySection().serialize(toComponent(fill(replacements)));
+        } else {
+            body = fill(replacements);
+        }
+        return withPrefix ? prefix + body : body;
+    }
+
+    /**
+     * @param replacements Placeholder names and values, in pairs
+     * @return The message with the plugin prefix as a component
+     */
+    public Component toComponent(String... replacements) {
+        Component body = component != null ? component : toComponent(fill(replacements));
+        return prefixComponent.append(body);
+    }
+
+    public boolean hasPlaceholders() {
+        return placeholders.length > 0;
+    }
+
+    private String fill(String... replacements) {
+        StringBuilder message = new StringBuilder(literals[0]);
+        for (int slot = 0; slot < placeholders.length; slot++) {
+            String value = lookup(placeholders[slot], replacements);
+            if (value == null) {
+                message.append('{').append(placeholders[slot]).append('}');
+            } else {
+                message.append(miniMessage ? MiniMessage.miniMessage().escapeTags(value) : value);
+            }
+            message.append(literals[slot + 1]);
+        }
+        return message.toString();
+    }
+
+    private static String lookup(String name, String... replacements) {
+        for (int i = 0; i + 1 < replacements.length; i += 2) {
+            if (replacements[i].equals(name)) {
+                return replacements[i + 1];
+            }
+        }
+        return null;
+    }
+
+    private Component toComponent(String text) {
+        if (miniMessage) {
+            return MiniMessage.miniMessage().deserialize(text);
+        }
+        return LegacyComponentSerializer.legacySection().deserialize(text);
+    }
+}
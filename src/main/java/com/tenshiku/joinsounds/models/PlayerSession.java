@@ -0,0 +1,138 @@
+package com.tenshiku.joinsounds.models;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.scheduler.BukkitTask;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+
+/**
+ * Per-player state that only exists while the player is online.
+ * Each session owns a small slot number that is reused once the player leaves.
+ */
+public final class PlayerSession {
+
+    private final UUID uuid;
+    private final int slot;
+    private final AtomicBoolean commandRunning;
+
+    private volatile AccessibleSounds accessible;
+    private volatile boolean dirty;
+    private volatile boolean closed;
+
+    // Only touched on the player's own thread
+    private final BukkitTask[] pendingPlays;
+    private ScheduledTask pendingPreview;
+    private final long[] lastTriggered;
+
+    public PlayerSession(UUID uuid, int slot) {
+        this.uuid = uuid;
+        this.slot = slot;
+        this.commandRunning = new AtomicBoolean();
+        this.pendingPlays = new BukkitTask[TriggerType.count()];
+        this.lastTriggered = new long[TriggerType.count()];
+    }
+
+    public UUID getUuid() {
+        return uuid;
+    }
+
+    /**
+     * @return Index of this session in slot-indexed tables; only valid while the session is open
+     */
+    public int getSlot() {
+        return slot;
+    }
+
+    /**
+     * @return The cached accessible set, or null if it must be computed
+     */
+    public AccessibleSounds getAccessible() {
+        return accessible;
+    }
+
+    public void setAccessible(AccessibleSounds accessible) {
+        this.accessible = accessible;
+    }
+
+    /**
+     * @return Whether the player has data that changed since it was last written
+     */
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    public void markDirty() {
+        dirty = true;
+    }
+
+    public void clearDirty() {
+        dirty = false;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Claim the player's single slot for a command doing storage or catalog work
+     * @return false if another such command is still running
+     */
+    public boolean tryStartCommand() {
+        return commandRunning.compareAndSet(false, true);
+    }
+
+    public void finishCommand() {
+        commandRunning.set(false);
+    }
+
+    /**
+     * @param type A trigger
+     * @return When the trigger last played a sound this session, in milliseconds, or 0 if it has not
+     */
+    public long getLastTriggered(TriggerType type) {
+        return lastTriggered[type.ordinal()];
+    }
+
+    public void setLastTriggered(TriggerType type, long millis) {
+        lastTriggered[type.ordinal()] = millis;
+    }
+
+    /**
+     * Track a trigger's delayed sound, cancelling an earlier one for the same trigger.
+     * Other triggers keep theirs, so a world change during the join delay does not drop the join sound.
+     */
+    public void setPendingPlay(TriggerType type, BukkitTask task) {
+        BukkitTask pending = pendingPlays[type.ordinal()];
+        if (pending != null) {
+            pending.cancel();
+        }
+        pendingPlays[type.ordinal()] = task;
+    }
+
+    public void clearPendingPlay(TriggerType type) {
+        pendingPlays[type.ordinal()] = null;
+    }
+
+    /**
+     * Track a delayed preview, cancelling any earlier one
+     */
+    public void setPendingPreview(ScheduledTask task) {
+        if (pendingPreview != null) {
+            pendingPreview.cancel();
+        }
+        pendingPreview = task;
+    }
+
+    /**
+     * Cancel pending work and drop cached state
+     */
+    public void close() {
+        closed = true;
+        for (TriggerType type : TriggerType.values()) {
+            setPendingPlay(type, null);
+        }
+        setPendingPreview(null);
+        accessible = null;
+    }
+}
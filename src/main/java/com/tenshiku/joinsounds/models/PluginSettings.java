@@ -0,0 +1,643 @@
+package com.tenshiku.joinsounds.models;
+
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * Immutable, validated view of config.yml.
+ * Every value is read, clamped and checked once when the config is loaded,
+ * so hot paths only read plain fields instead of looking up configuration paths.
+ */
+public final class PluginSettings {
+
+    private static final List<String> STORAGE_TYPES = List.of("YAML", "H2", "MYSQL", "MARIADB");
+
+    // General
+    private final boolean pluginEnabled;
+    private final String prefix;
+    private final boolean debug;
+
+    // Sounds
+    private final int defaultRadius;
+    private final int maxRadius;
+    private final int minRadius;
+    private final double defaultVolume;
+    private final double defaultPitch;
+    private final int playDelay;
+    private final boolean playToSelf;
+
+    // Worlds
+    private final List<String> enabledWorlds;
+    private final List<String> disabledWorlds;
+    private final WorldFilter enabledWorldFilter;
+    private final WorldFilter disabledWorldFilter;
+
+    // Permissions
+    private final String usePermission;
+    private final String adminPermission;
+    private final String bypassWorldPermission;
+    private final String customRadiusPermission;
+
+    // GUI
+    private final String guiTitle;
+    private final int guiSize;
+    private final boolean previewEnabled;
+    private final Material noSoundMaterial;
+    private final int noSoundCustomModelData;
+    private final String noSoundName;
+    private final List<String> noSoundLore;
+
+    // Storage
+    private final String storageType;
+    private final String yamlFileName;
+    private final String h2FileName;
+    private final String h2Username;
+    private final String h2Password;
+    private final String mySQLHost;
+    private final int mySQLPort;
+    private final String mySQLDatabase;
+    private final String mySQLUsername;
+    private final String mySQLPassword;
+    private final String mySQLTablePrefix;
+    private final boolean mySQLUseSSL;
+    private final int mySQLConnectionTimeout;
+    private final String mariaDBHost;
+    private final int mariaDBPort;
+    private final String mariaDBDatabase;
+    private final String mariaDBUsername;
+    private final String mariaDBPassword;
+    private final String mariaDBTablePrefix;
+    private final boolean mariaDBUseSSL;
+    private final int mariaDBConnectionTimeout;
+
+    // Cooldowns
+    private final boolean cooldownsEnabled;
+    private final int changeSoundCooldown;
+    private final int rejoinCooldown;
+    private final int previewCooldown;
+
+    // Advanced
+    private final int accessCacheSeconds;
+    private final boolean watchFiles;
+    private final int watchDebounceMillis;
+    private final boolean catalogCacheEnabled;
+    private final int catalogParseThreads;
+    private final int maxTabCompletions;
+    private final boolean checkUpdates;
+    private final boolean sendMetrics;
+    private final int maxSoundsPerPlayer;
+    private final int joinTraceSize;
+    private final int listPageSize;
+    private final TriggerSettings[] triggers;
+
+    // Stats
+    private final boolean statsExportEnabled;
+    private final String statsExportFile;
+    private final int statsExportIntervalSeconds;
+
+    // Watchdog
+    private final boolean watchdogEnabled;
+    private final double watchdogBudgetMillis;
+    private final int watchdogStallMillis;
+    private final int watchdogWindowSeconds;
+    private final int watchdogLogIntervalSeconds;
+
+    private PluginSettings(Reader config) {
+        pluginEnabled = config.bool("general.enabled", true);
+        prefix = config.string("general.prefix", "&6[JoinSounds] &f").replace("&", "§");
+        debug = config.bool("general.debug", false);
+
+        defaultRadius = config.integer("sounds.default-radius", 16, 1, Integer.MAX_VALUE);
+        maxRadius = config.integer("sounds.max-radius", 32, defaultRadius, Integer.MAX_VALUE);
+        minRadius = config.integer("sounds.min-radius", 5, 1, Integer.MAX_VALUE);
+        defaultVolume = config.decimal("sounds.volume", 0.8, 0.0, 1.0);
+        defaultPitch = config.decimal("sounds.pitch", 1.0, 0.5, 2.0);
+        playDelay = config.integer("sounds.play-delay", 20, 0, Integer.MAX_VALUE);
+        playToSelf = config.bool("sounds.play-to-self", true);
+
+        enabledWorlds = config.strings("worlds.enabled-worlds");
+        disabledWorlds = config.strings("worlds.disabled-worlds");
+        enabledWorldFilter = WorldFilter.compile("worlds.enabled-worlds", enabledWorlds, config.errors);
+        disabledWorldFilter = WorldFilter.compile("worlds.disabled-worlds", disabledWorlds, config.errors);
+
+        usePermission = config.string("permissions.use-permission", "joinsounds.use");
+        adminPermission = config.string("permissions.admin-permission", "joinsounds.admin");
+        bypassWorldPermission = config.string("permissions.bypass-world-permission", "joinsounds.bypass.world");
+        customRadiusPermission = config.string("permissions.custom-radius-permission", "joinsounds.radius.custom");
+
+        guiTitle = config.string("gui.title", "&6Choose Your Join Sound").replace("&", "§");
+        int size = config.integer("gui.size", 27, 9, 54);
+        if (size % 9 != 0) {
+            config.error("gui.size", "must be a multiple of 9, using 27");
+            size = 27;
+        }
+        guiSize = size;
+        previewEnabled = config.bool("gui.enable-preview", true);
+        String materialName = config.string("gui.no-sound-item.material", "BARRIER");
+        Material material = Material.matchMaterial(materialName);
+        if (material == null) {
+            config.error("gui.no-sound-item.material", "unknown material '" + materialName + "', using BARRIER");
+            material = Material.BARRIER;
+        }
+        noSoundMaterial = material;
+        noSoundCustomModelData = config.integer("gui.no-sound-item.custom-model-data", 0, 0, Integer.MAX_VALUE);
+        noSoundName = config.string("gui.no-sound-item.name", "&cNo Sound").replace("&", "§");
+        List<String> lore = new ArrayList<>();
+        for (String line : config.strings("gui.no-sound-item.lore")) {
+            lore.add(line.replace("&", "§"));
+        }
+        noSoundLore = Collections.unmodifiableList(lore);
+
+        String type = config.string("storage.type", "YAML").toUpperCase();
+        if (!STORAGE_TYPES.contains(type)) {
+            config.error("storage.type", "unknown storage type '" + type + "', using YAML");
+            type = "YAML";
+        }
+        storageType = type;
+        yamlFileName = config.string("storage.yaml.file-name", "playerdata.yml");
+        h2FileName = config.string("storage.h2.file-name", "joinsounds.db");
+        h2Username = config.string("storage.h2.username", "sa");
+        h2Password = config.string("storage.h2.password", "");
+        mySQLHost = config.string("storage.mysql.host", "localhost");
+        mySQLPort = config.integer("storage.mysql.port", 3306, 1, 65535);
+        mySQLDatabase = config.string("storage.mysql.database", "minecraft");
+        mySQLUsername = config.string("storage.mysql.username", "root");
+        mySQLPassword = config.string("storage.mysql.password", "password");
+        mySQLTablePrefix = config.string("storage.mysql.table-prefix", "joinsounds_");
+        mySQLUseSSL = config.bool("storage.mysql.use-ssl", false);
+        mySQLConnectionTimeout = config.integer("storage.mysql.connection-timeout", 30000, 0, Integer.MAX_VALUE);
+        mariaDBHost = config.string("storage.mariadb.host", mySQLHost);
+        mariaDBPort = config.integer("storage.mariadb.port", mySQLPort, 1, 65535);
+        mariaDBDatabase = config.string("storage.mariadb.database", mySQLDatabase);
+        mariaDBUsername = config.string("storage.mariadb.username", mySQLUsername);
+        mariaDBPassword = config.string("storage.mariadb.password", mySQLPassword);
+        mariaDBTablePrefix = config.string("storage.mariadb.table-prefix", mySQLTablePrefix);
+        mariaDBUseSSL = config.bool("storage.mariadb.use-ssl", mySQLUseSSL);
+        mariaDBConnectionTimeout = config.integer("storage.mariadb.connection-timeout", mySQLConnectionTimeout, 0, Integer.MAX_VALUE);
+
+        cooldownsEnabled = config.bool("cooldowns.enabled", true);
+        changeSoundCooldown = config.integer("cooldowns.change-sound-cooldown", 30, 0, Integer.MAX_VALUE);
+        rejoinCooldown = config.integer("cooldowns.rejoin-cooldown", 5, 0, Integer.MAX_VALUE);
+        previewCooldown = config.integer("cooldowns.preview-cooldown", 2, 0, Integer.MAX_VALUE);
+
+        accessCacheSeconds = config.integer("advanced.access-cache-seconds", 30, 0, Integer.MAX_VALUE);
+        watchFiles = config.bool("advanced.watch-files", false);
+        watchDebounceMillis = config.integer("advanced.watch-debounce-ms", 500, 50, Integer.MAX_VALUE);
+        catalogCacheEnabled = config.bool("advanced.catalog-cache", true);
+        int threads = config.integer("advanced.catalog-parse-threads", 0, 0, 64);
+        catalogParseThreads = threads > 0 ? threads : Math.min(4, Runtime.getRuntime().availableProcessors());
+        maxTabCompletions = config.integer("advanced.max-tab-completions", 50, 1, Integer.MAX_VALUE);
+        checkUpdates = config.bool("advanced.check-updates", true);
+        sendMetrics = config.bool("advanced.metrics", true);
+        maxSoundsPerPlayer = config.integer("advanced.max-sounds-per-player", -1, -1, Integer.MAX_VALUE);
+        joinTraceSize = config.integer("advanced.join-trace-size", 256, 0, 65536);
+        listPageSize = config.integer("advanced.list-page-size", 10, 1, 100);
+
+        triggers = new TriggerSettings[TriggerType.count()];
+        for (int i = 0; i < triggers.length; i++) {
+            triggers[i] = trigger(config, TriggerType.byOrdinal(i));
+        }
+
+        statsExportEnabled = config.bool("stats.export.enabled", false);
+        statsExportFile = config.string("stats.export.file", "stats/joinsounds.prom");
+        statsExportIntervalSeconds = config.integer("stats.export.interval-seconds", 15, 1, 3600);
+
+        watchdogEnabled = config.bool("watchdog.enabled", true);
+        watchdogBudgetMillis = config.decimal("watchdog.budget-ms", 2.0, 0.1, 10000.0);
+        watchdogStallMillis = config.integer("watchdog.stall-ms", 1000, 1, 600000);
+        watchdogWindowSeconds = config.integer("watchdog.window-seconds", 60, 1, 3600);
+        watchdogLogIntervalSeconds = config.integer("watchdog.log-interval-seconds", 10, 0, 3600);
+    }
+
+    private TriggerSettings trigger(Reader config, TriggerType type) {
+        String path = "triggers." + type.getKey() + ".";
+        boolean join = type.isJoin();
+
+        int delay = config.integer(path + "delay", join ? playDelay : 0, 0, Integer.MAX_VALUE);
+        if (type == TriggerType.QUIT && delay > 0) {
+            config.error(path + "delay", "quit sounds cannot be delayed, using 0");
+            delay = 0;
+        }
+
+        return new TriggerSettings(type,
+                config.bool(path + "enabled", type == TriggerType.JOIN),
+                delay,
+                config.bool(path + "check-world", true),
+                config.integer(path + "cooldown", type == TriggerType.WORLD_CHANGE ? 10 : 0, 0, Integer.MAX_VALUE),
+                config.string(path + "permission", ""),
+                config.bool(path + "fallback-to-join", type != TriggerType.JOIN),
+                config.string(path + "default-sound", ""));
+    }
+
+    /**
+     * Compile config.yml into settings. Invalid values are replaced with a clamped or default value.
+     * @param config The loaded config.yml
+     * @param errors Receives one line per invalid value
+     * @return The compiled settings
+     */
+    public static PluginSettings compile(ConfigurationSection config, List<String> errors) {
+        return new PluginSettings(new Reader(config, errors));
+    }
+
+    public boolean isPluginEnabled() {
+        return pluginEnabled;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public boolean isDebugMode() {
+        return debug;
+    }
+
+    public int getDefaultRadius() {
+        return defaultRadius;
+    }
+
+    public int getMaxRadius() {
+        return maxRadius;
+    }
+
+    public int getMinRadius() {
+        return minRadius;
+    }
+
+    public double getDefaultVolume() {
+        return defaultVolume;
+    }
+
+    public double getDefaultPitch() {
+        return defaultPitch;
+    }
+
+    public int getPlayDelay() {
+        return playDelay;
+    }
+
+    public boolean playToSelf() {
+        return playToSelf;
+    }
+
+    public List<String> getEnabledWorlds() {
+        return enabledWorlds;
+    }
+
+    public List<String> getDisabledWorlds() {
+        return disabledWorlds;
+    }
+
+    /**
+     * Match a world name against the world lists. This is not cached; use the world table for lookups by world.
+     * @param worldName World name
+     * @return true if join sounds play in this world
+     */
+    public boolean isWorldEnabled(String worldName) {
+        if (!enabledWorldFilter.isEmpty()) {
+            return enabledWorldFilter.matches(worldName);
+        }
+        return !disabledWorldFilter.matches(worldName);
+    }
+
+    public String getUsePermission() {
+        return usePermission;
+    }
+
+    public String getAdminPermission() {
+        return adminPermission;
+    }
+
+    public String getBypassWorldPermission() {
+        return bypassWorldPermission;
+    }
+
+    public String getCustomRadiusPermission() {
+        return customRadiusPermission;
+    }
+
+    public String getGuiTitle() {
+        return guiTitle;
+    }
+
+    public int getGuiSize() {
+        return guiSize;
+    }
+
+    public boolean isPreviewEnabled() {
+        return previewEnabled;
+    }
+
+    public Material getNoSoundMaterial() {
+        return noSoundMaterial;
+    }
+
+    public int getNoSoundCustomModelData() {
+        return noSoundCustomModelData;
+    }
+
+    public String getNoSoundName() {
+        return noSoundName;
+    }
+
+    public List<String> getNoSoundLore() {
+        return noSoundLore;
+    }
+
+    public String getStorageType() {
+        return storageType;
+    }
+
+    public String getYamlFileName() {
+        return yamlFileName;
+    }
+
+    public String getH2FileName() {
+        return h2FileName;
+    }
+
+    public String getH2Username() {
+        return h2Username;
+    }
+
+    public String getH2Password() {
+        return h2Password;
+    }
+
+    public String getMySQLHost() {
+        return mySQLHost;
+    }
+
+    public int getMySQLPort() {
+        return mySQLPort;
+    }
+
+    public String getMySQLDatabase() {
+        return mySQLDatabase;
+    }
+
+    public String getMySQLUsername() {
+        return mySQLUsername;
+    }
+
+    public String getMySQLPassword() {
+        return mySQLPassword;
+    }
+
+    public String getMySQLTablePrefix() {
+        return mySQLTablePrefix;
+    }
+
+    public boolean getMySQLUseSSL() {
+        return mySQLUseSSL;
+    }
+
+    public int getMySQLConnectionTimeout() {
+        return mySQLConnectionTimeout;
+    }
+
+    public String getMariaDBHost() {
+        return mariaDBHost;
+    }
+
+    public int getMariaDBPort() {
+        return mariaDBPort;
+    }
+
+    public String getMariaDBDatabase() {
+        return mariaDBDatabase;
+    }
+
+    public String getMariaDBUsername() {
+        return mariaDBUsername;
+    }
+
+    public String getMariaDBPassword() {
+        return mariaDBPassword;
+    }
+
+    public String getMariaDBTablePrefix() {
+        return mariaDBTablePrefix;
+    }
+
+    public boolean getMariaDBUseSSL() {
+        return mariaDBUseSSL;
+    }
+
+    public int getMariaDBConnectionTimeout() {
+        return mariaDBConnectionTimeout;
+    }
+
+    public boolean areCooldownsEnabled() {
+        return cooldownsEnabled;
+    }
+
+    public int getChangeSoundCooldown() {
+        return changeSoundCooldown;
+    }
+
+    public int getRejoinCooldown() {
+        return rejoinCooldown;
+    }
+
+    public int getPreviewCooldown() {
+        return previewCooldown;
+    }
+
+    public int getAccessCacheSeconds() {
+        return accessCacheSeconds;
+    }
+
+    public boolean shouldWatchFiles() {
+        return watchFiles;
+    }
+
+    public int getWatchDebounceMillis() {
+        return watchDebounceMillis;
+    }
+
+    public boolean isCatalogCacheEnabled() {
+        return catalogCacheEnabled;
+    }
+
+    public int getCatalogParseThreads() {
+        return catalogParseThreads;
+    }
+
+    public int getMaxTabCompletions() {
+        return maxTabCompletions;
+    }
+
+    public boolean shouldCheckUpdates() {
+        return checkUpdates;
+    }
+
+    public boolean shouldSendMetrics() {
+        return sendMetrics;
+    }
+
+    public int getMaxSoundsPerPlayer() {
+        return maxSoundsPerPlayer;
+    }
+
+    public int getJoinTraceSize() {
+        return joinTraceSize;
+    }
+
+    /**
+     * @param type A trigger
+     * @return The trigger's settings
+     */
+    public TriggerSettings getTrigger(TriggerType type) {
+        return triggers[type.ordinal()];
+    }
+
+    public int getListPageSize() {
+        return listPageSize;
+    }
+
+    public boolean isStatsExportEnabled() {
+        return statsExportEnabled;
+    }
+
+    /**
+     * @return Path of the Prometheus text file, relative to the plugin folder unless absolute
+     */
+    public String getStatsExportFile() {
+        return statsExportFile;
+    }
+
+    public int getStatsExportIntervalSeconds() {
+        return statsExportIntervalSeconds;
+    }
+
+    public boolean isWatchdogEnabled() {
+        return watchdogEnabled;
+    }
+
+    /**
+     * @return Main thread time a single call may take before it is logged, in milliseconds
+     */
+    public double getWatchdogBudgetMillis() {
+        return watchdogBudgetMillis;
+    }
+
+    /**
+     * @return Time after which a call that is still running is reported, in milliseconds
+     */
+    public int getWatchdogStallMillis() {
+        return watchdogStallMillis;
+    }
+
+    public int getWatchdogWindowSeconds() {
+        return watchdogWindowSeconds;
+    }
+
+    /**
+     * @return Least time between two slow-call reports for the same entry point, in seconds
+     */
+    public int getWatchdogLogIntervalSeconds() {
+        return watchdogLogIntervalSeconds;
+    }
+
+    /**
+     * Typed config reads that record a problem instead of silently falling back
+     */
+    private static final class Reader {
+        private final ConfigurationSection config;
+        private final List<String> errors;
+
+        private Reader(ConfigurationSection config, List<String> errors) {
+            this.config = config;
+            this.errors = errors;
+        }
+
+        private void error(String path, String problem) {
+            errors.add(path + ": " + problem);
+        }
+
+        private boolean bool(String path, boolean def) {
+            Object value = config.get(path);
+            if (value == null) {
+                return def;
+            }
+            if (!(value instanceof Boolean)) {
+                error(path, "expected true or false but found '" + value + "', using " + def);
+                return def;
+            }
+            return (Boolean) value;
+        }
+
+        private String string(String path, String def) {
+            Object value = config.get(path);
+            if (value == null) {
+                return def;
+            }
+            if (value instanceof ConfigurationSection || value instanceof List) {
+                error(path, "expected text, using '" + def + "'");
+                return def;
+            }
+            return value.toString();
+        }
+
+        private int integer(String path, int def, int min, int max) {
+            Object value = config.get(path);
+            if (value == null) {
+                return def;
+            }
+            if (!(value instanceof Integer) && !(value instanceof Long)) {
+                error(path, "expected a whole number but found '" + value + "', using " + def);
+                return def;
+            }
+
+            long number = ((Number) value).longValue();
+            if (number < min || number > max) {
+                int clamped = (int) Math.max(min, Math.min(max, number));
+                error(path, number + " is out of range (" + min + " to " + max + "), using " + clamped);
+                return clamped;
+            }
+            return (int) number;
+        }
+
+        private double decimal(String path, double def, double min, double max) {
+            Object value = config.get(path);
+            if (value == null) {
+                return def;
+            }
+            if (!(value instanceof Number)) {
+                error(path, "expected a number but found '" + value + "', using " + def);
+                return def;
+            }
+
+            double number = ((Number) value).doubleValue();
+            if (number < min || number > max) {
+                double clamped = Math.max(min, Math.min(max, number));
+                error(path, number + " is out of range (" + min + " to " + max + "), using " + clamped);
+                return clamped;
+            }
+            return number;
+        }
+
+        private List<String> strings(String path) {
+            Object value = config.get(path);
+            if (value == null) {
+                return List.of();
+            }
+            if (!(value instanceof List)) {
+                error(path, "expected a list, ignoring it");
+                return List.of();
+            }
+
+            List<String> values = new ArrayList<>();
+            for (Object element : (List<?>) value) {
+                if (element != null) {
+                    values.add(element.toString());
+                }
+            }
+            return Collections.unmodifiableList(values);
+        }
+    }
+}
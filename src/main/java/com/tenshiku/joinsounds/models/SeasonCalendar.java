@@ -0,0 +1,55 @@
+package com.tenshiku.joinsounds.models;
+
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.ZoneId;
+
+
+/**
+ * Caches the current day for seasonal checks until the next local midnight.
+ * Days are numbered within a leap year so 02-29 keeps a stable position.
+ */
+public final class SeasonCalendar {
+
+    private static final int REFERENCE_YEAR = 2000;
+
+    private static volatile Day current = new Day(0, 0L);
+
+    private SeasonCalendar() {
+    }
+
+    /**
+     * @return Today's day of the leap year (1-366)
+     */
+    public static int today() {
+        Day day = current;
+        if (System.currentTimeMillis() >= day.expiresAt) {
+            day = refresh();
+        }
+        return day.dayOfYear;
+    }
+
+    public static int dayOfYear(MonthDay monthDay) {
+        return monthDay.atYear(REFERENCE_YEAR).getDayOfYear();
+    }
+
+    private static Day refresh() {
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDate date = LocalDate.now(zone);
+        long midnight = date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+
+        Day day = new Day(dayOfYear(MonthDay.from(date)), midnight);
+        current = day;
+        return day;
+    }
+
+    private static final class Day {
+        private final int dayOfYear;
+        private final long expiresAt;
+
+        private Day(int dayOfYear, long expiresAt) {
+            this.dayOfYear = dayOfYear;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.tenshiku.joinsounds.models;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * Immutable snapshot of every loaded sound and alias.
+ * A new catalog is built on each (re)load and published as a whole,
+ * so readers never observe a partially built catalog and never need to lock.
+ */
+public final class SoundCatalog {
+
+    public static final SoundCatalog EMPTY = new SoundCatalog(new LinkedHashMap<>(), new LinkedHashMap<>(), 0);
+
+    private final Map<String, JoinSound> sounds;
+    private final JoinSound[] soundArray;
+    private final Map<String, String> aliases;
+    private final SoundCompletionIndex completionIndex;
+    private final int enabledCount;
+    private final int skippedCount;
+
+    private volatile SeasonView seasonView;
+
+    /**
+     * @param sounds Sounds keyed by ID, in configuration order
+     * @param aliases Lowercase aliases mapped to sound IDs
+     * @param skippedCount Number of entries that failed to load
+     */
+    public SoundCatalog(Map<String, JoinSound> sounds, Map<String, String> aliases, int skippedCount) {
+        this.sounds = Collections.unmodifiableMap(new LinkedHashMap<>(sounds));
+        this.aliases = Collections.unmodifiableMap(new LinkedHashMap<>(aliases));
+        this.skippedCount = skippedCount;
+
+        int ordinalCount = 0;
+        for (JoinSound sound : this.sounds.values()) {
+            ordinalCount = Math.max(ordinalCount, sound.getOrdinal() + 1);
+        }
+
+        this.soundArray = new JoinSound[ordinalCount];
+        int enabled = 0;
+        for (JoinSound sound : this.sounds.values()) {
+            soundArray[sound.getOrdinal()] = sound;
+            if (sound.isEnabled()) {
+                enabled++;
+            }
+        }
+        this.enabledCount = enabled;
+        this.completionIndex = SoundCompletionIndex.build(this.sounds, this.aliases);
+    }
+
+    /**
+     * Look up a sound by ID, falling back to a case-insensitive alias
+     * @param identifier Sound ID or alias
+     * @return JoinSound or null if unknown
+     */
+    public JoinSound getSound(String identifier) {
+        if (identifier == null) {
+            return null;
+        }
+
+        JoinSound sound = sounds.get(identifier);
+        if (sound != null) {
+            return sound;
+        }
+
+        String soundId = aliases.get(identifier.toLowerCase());
+        if (soundId != null) {
+            return sounds.get(soundId);
+        }
+
+        return null;
+    }
+
+    /**
+     * @param ordinal Sound ordinal
+     * @return The sound with that ordinal, or null if none
+     */
+    public JoinSound getSound(int ordinal) {
+        if (ordinal < 0 || ordinal >= soundArray.length) {
+            return null;
+        }
+        return soundArray[ordinal];
+    }
+
+    /**
+     * @return One past the highest ordinal in this catalog
+     */
+    public int getOrdinalCount() {
+        return soundArray.length;
+    }
+
+    public Map<String, JoinSound> getSounds() {
+        return sounds;
+    }
+
+    /**
+     * Sounds that are enabled, not hidden and in season today.
+     * The view is computed once per day and only rebuilt when the set of in-season sounds changes.
+     * @return Unmodifiable map of selectable sounds, in configuration order
+     */
+    public Map<String, JoinSound> getAvailableSounds() {
+        return currentSeason().available;
+    }
+
+    private SeasonView currentSeason() {
+        int today = SeasonCalendar.today();
+        SeasonView view = seasonView;
+        if (view == null || view.day != today) {
+            view = computeSeason(today, view);
+            seasonView = view;
+        }
+        return view;
+    }
+
+    private SeasonView computeSeason(int today, SeasonView previous) {
+        BitSet selectable = new BitSet(soundArray.length);
+        for (int i = 0; i < soundArray.length; i++) {
+            JoinSound sound = soundArray[i];
+            if (sound != null && sound.isEnabled() && !sound.isHidden() && sound.isInSeason(today)) {
+                selectable.set(i);
+            }
+        }
+
+        if (previous != null && previous.selectable.equals(selectable)) {
+            return new SeasonView(today, selectable, previous.available);
+        }
+
+        Map<String, JoinSound> available = new LinkedHashMap<>();
+        for (int i = selectable.nextSetBit(0); i >= 0; i = selectable.nextSetBit(i + 1)) {
+            available.put(soundArray[i].getId(), soundArray[i]);
+        }
+        return new SeasonView(today, selectable, Collections.unmodifiableMap(available));
+    }
+
+    public Map<String, String> getAliases() {
+        return aliases;
+    }
+
+    public SoundCompletionIndex getCompletionIndex() {
+        return completionIndex;
+    }
+
+    public int size() {
+        return sounds.size();
+    }
+
+    public int getEnabledCount() {
+        return enabledCount;
+    }
+
+    public int getSkippedCount() {
+        return skippedCount;
+    }
+
+    private static final class SeasonView {
+        private final int day;
+        private final BitSet selectable;
+        private final Map<String, JoinSound> available;
+
+        private SeasonView(int day, BitSet selectable, Map<String, JoinSound> available) {
+            this.day = day;
+            this.selectable = selectable;
+            this.available = available;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.tenshiku.joinsounds.models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+
+/**
+ * Sorted index of sound IDs and aliases used for tab completion.
+ * A prefix maps to a contiguous range of entries, found with a binary search.
+ */
+public final class SoundCompletionIndex {
+
+    private final String[] keys;
+    private final String[] labels;
+    private final int[] ordinals;
+
+    private SoundCompletionIndex(String[] keys, String[] labels, int[] ordinals) {
+        this.keys = keys;
+        this.labels = labels;
+        this.ordinals = ordinals;
+    }
+
+    /**
+     * @param sounds Sounds keyed by ID
+     * @param aliases Lowercase aliases mapped to sound IDs
+     * @return Index over every ID and alias
+     */
+    public static SoundCompletionIndex build(Map<String, JoinSound> sounds, Map<String, String> aliases) {
+        List<Entry> entries = new ArrayList<>(sounds.size() + aliases.size());
+
+        for (JoinSound sound : sounds.values()) {
+            entries.add(new Entry(sound.getId(), sound.getOrdinal()));
+        }
+
+        for (Map.Entry<String, String> alias : aliases.entrySet()) {
+            JoinSound sound = sounds.get(alias.getValue());
+            if (sound != null && !sounds.containsKey(alias.getKey())) {
+                entries.add(new Entry(alias.getKey(), sound.getOrdinal()));
+            }
+        }
+
+        entries.sort((a, b) -> {
+            int result = a.key.compareTo(b.key);
+            return result != 0 ? result : a.label.compareTo(b.label);
+        });
+
+        String[] keys = new String[entries.size()];
+        String[] labels = new String[entries.size()];
+        int[] ordinals = new int[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            keys[i] = entry.key;
+            labels[i] = entry.label;
+            ordinals[i] = entry.ordinal;
+        }
+
+        return new SoundCompletionIndex(keys, labels, ordinals);
+    }
+
+    /**
+     * Add IDs and aliases starting with the given prefix, in sorted order
+     * @param prefix Text typed so far (case-insensitive)
+     * @param accessible Only entries whose sound is in this set are added
+     * @param limit Maximum number of entries to add
+     * @param completions Collection to add to
+     */
+    public void complete(String prefix, AccessibleSounds accessible, int limit, Collection<String> completions) {
+        String lowerPrefix = prefix.toLowerCase(Locale.ROOT);
+
+        int index = Arrays.binarySearch(keys, lowerPrefix);
+        if (index < 0) {
+            index = -index - 1;
+        } else {
+            // Binary search may land anywhere in a run of equal keys
+            while (index > 0 && keys[index - 1].equals(lowerPrefix)) {
+                index--;
+            }
+        }
+
+        int added = 0;
+        for (; index < keys.length && added < limit && keys[index].startsWith(lowerPrefix); index++) {
+            if (accessible.contains(ordinals[index])) {
+                completions.add(labels[index]);
+                added++;
+            }
+        }
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    private static final class Entry {
+        private final String key;
+        private final String label;
+        private final int ordinal;
+
+        private Entry(String label, int ordinal) {
+            this.key = label.toLowerCase(Locale.ROOT);
+            this.label = label;
+            this.ordinal = ordinal;
+        }
+    }
+}
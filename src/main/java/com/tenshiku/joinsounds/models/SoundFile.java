@@ -0,0 +1,70 @@
+package com.tenshiku.joinsounds.models;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Sounds and aliases parsed from a single sounds file, before they are merged into a catalog.
+ * Sounds in a SoundFile do not have ordinals yet.
+ */
+public final class SoundFile {
+
+    private final String name;
+    private final List<JoinSound> sounds;
+    private final Map<String, String> aliases;
+    private final int skippedCount;
+    private final long parseNanos;
+    private final byte[] contentHash;
+
+    /**
+     * @param name Path of the file relative to the plugin folder
+     * @param sounds Parsed sounds, in file order
+     * @param aliases Lowercase aliases mapped to sound IDs
+     * @param skippedCount Number of entries that failed to load
+     * @param parseNanos Time spent reading and parsing the file
+     * @param contentHash Hash of the file contents this was parsed from
+     */
+    public SoundFile(String name, List<JoinSound> sounds, Map<String, String> aliases, int skippedCount,
+                     long parseNanos, byte[] contentHash) {
+        this.name = name;
+        this.sounds = Collections.unmodifiableList(sounds);
+        this.aliases = Collections.unmodifiableMap(aliases);
+        this.skippedCount = skippedCount;
+        this.parseNanos = parseNanos;
+        this.contentHash = contentHash;
+    }
+
+    /**
+     * @param parseNanos Time spent loading this file
+     * @return A copy with a different load time, e.g. when loaded from the cache
+     */
+    public SoundFile withParseNanos(long parseNanos) {
+        return new SoundFile(name, sounds, aliases, skippedCount, parseNanos, contentHash);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<JoinSound> getSounds() {
+        return sounds;
+    }
+
+    public Map<String, String> getAliases() {
+        return aliases;
+    }
+
+    public int getSkippedCount() {
+        return skippedCount;
+    }
+
+    public long getParseNanos() {
+        return parseNanos;
+    }
+
+    public byte[] getContentHash() {
+        return contentHash;
+    }
+}
@@ -0,0 +1,91 @@
+package com.tenshiku.joinsounds.models;
+
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.inventory.ItemStack;
+import java.util.List;
+
+
+/**
+ * One player's open sound selection menu.
+ * The bottom row holds navigation; every other slot shows a sound.
+ * The inventory and contents array are reused when the page changes.
+ */
+public final class SoundMenu implements InventoryHolder {
+
+    private final List<JoinSound> sounds;
+    private final int size;
+    private final ItemStack[] contents;
+    private Inventory inventory;
+    private int page;
+
+    public SoundMenu(List<JoinSound> sounds, int size) {
+        this.sounds = sounds;
+        this.size = size;
+        this.contents = new ItemStack[size];
+    }
+
+    public void setInventory(Inventory inventory) {
+        this.inventory = inventory;
+    }
+
+    @Override
+    public Inventory getInventory() {
+        return inventory;
+    }
+
+    public List<JoinSound> getSounds() {
+        return sounds;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return The contents array to fill for the current page
+     */
+    public ItemStack[] getContents() {
+        return contents;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getSoundsPerPage() {
+        return size - 9;
+    }
+
+    public int getPageCount() {
+        return Math.max(1, (sounds.size() + getSoundsPerPage() - 1) / getSoundsPerPage());
+    }
+
+    public int getPreviousSlot() {
+        return size - 9;
+    }
+
+    public int getNoSoundSlot() {
+        return size - 5;
+    }
+
+    public int getNextSlot() {
+        return size - 1;
+    }
+
+    /**
+     * @param slot Raw slot in the menu
+     * @return The sound shown in the slot on the current page, or null if none
+     */
+    public JoinSound getSoundAt(int slot) {
+        if (slot < 0 || slot >= getSoundsPerPage()) {
+            return null;
+        }
+        int index = page * getSoundsPerPage() + slot;
+        return index < sounds.size() ? sounds.get(index) : null;
+    }
+}
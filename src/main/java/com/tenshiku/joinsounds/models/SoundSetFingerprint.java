@@ -0,0 +1,32 @@
+package com.tenshiku.joinsounds.models;
+
+import java.util.Arrays;
+
+
+/**
+ * Value key for a set of sound ordinals, so players who can select exactly
+ * the same sounds can share anything rendered from that set
+ */
+public final class SoundSetFingerprint {
+
+    private final long[] words;
+    private final int hash;
+
+    SoundSetFingerprint(long[] words) {
+        this.words = words;
+        this.hash = Arrays.hashCode(words);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SoundSetFingerprint)) return false;
+        SoundSetFingerprint other = (SoundSetFingerprint) o;
+        return hash == other.hash && Arrays.equals(words, other.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
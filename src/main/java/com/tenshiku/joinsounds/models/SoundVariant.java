@@ -0,0 +1,58 @@
+package com.tenshiku.joinsounds.models;
+
+import java.util.Objects;
+
+
+/**
+ * One Nexo sound in a join sound's weighted pool
+ */
+public final class SoundVariant {
+
+    private final String nexoSoundId;
+    private final double weight;
+    private final double volume;
+    private final double pitch;
+
+    public SoundVariant(String nexoSoundId, double weight, double volume, double pitch) {
+        this.nexoSoundId = nexoSoundId;
+        this.weight = weight;
+        this.volume = volume;
+        this.pitch = pitch;
+    }
+
+    public String getNexoSoundId() {
+        return nexoSoundId;
+    }
+
+    public double getWeight() {
+        return weight;
+    }
+
+    public double getVolume() {
+        return volume;
+    }
+
+    public double getPitch() {
+        return pitch;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SoundVariant)) {
+            return false;
+        }
+        SoundVariant other = (SoundVariant) o;
+        return nexoSoundId.equals(other.nexoSoundId) &&
+                weight == other.weight &&
+                volume == other.volume &&
+                pitch == other.pitch;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(nexoSoundId, weight, volume, pitch);
+    }
+}
@@ -0,0 +1,76 @@
+package com.tenshiku.joinsounds.models;
+
+
+/**
+ * Settings for one trigger from the 'triggers' section of config.yml
+ */
+public final class TriggerSettings {
+
+    private final TriggerType type;
+    private final boolean enabled;
+    private final int delay;
+    private final boolean checkWorld;
+    private final int cooldown;
+    private final String permission;
+    private final boolean fallbackToJoin;
+    private final String defaultSound;
+
+    public TriggerSettings(TriggerType type, boolean enabled, int delay, boolean checkWorld, int cooldown,
+                           String permission, boolean fallbackToJoin, String defaultSound) {
+        this.type = type;
+        this.enabled = enabled;
+        this.delay = delay;
+        this.checkWorld = checkWorld;
+        this.cooldown = cooldown;
+        this.permission = permission;
+        this.fallbackToJoin = fallbackToJoin;
+        this.defaultSound = defaultSound;
+    }
+
+    public TriggerType getType() {
+        return type;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return Ticks to wait before playing; always 0 for quit, since the player is gone afterwards
+     */
+    public int getDelay() {
+        return delay;
+    }
+
+    public boolean shouldCheckWorld() {
+        return checkWorld;
+    }
+
+    /**
+     * @return Seconds before the trigger can play again for the same player; join triggers use the rejoin cooldown
+     */
+    public int getCooldown() {
+        return cooldown;
+    }
+
+    /**
+     * @return Extra permission the player needs for this trigger, or empty for none
+     */
+    public String getPermission() {
+        return permission;
+    }
+
+    /**
+     * @return Whether players without a selection for this trigger use their join sound
+     */
+    public boolean shouldFallBackToJoin() {
+        return fallbackToJoin;
+    }
+
+    /**
+     * @return Sound played for players without any selection, or empty for none
+     */
+    public String getDefaultSound() {
+        return defaultSound;
+    }
+}
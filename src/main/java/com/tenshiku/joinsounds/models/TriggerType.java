@@ -0,0 +1,64 @@
+package com.tenshiku.joinsounds.models;
+
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * Events that can play a player's sound. Each has its own section under 'triggers' in config.yml
+ * and its own selection per player.
+ */
+public enum TriggerType {
+
+    JOIN("join", true),
+    FIRST_JOIN("first-join", true),
+    QUIT("quit", false),
+    WORLD_CHANGE("world-change", false);
+
+    private static final TriggerType[] VALUES = values();
+    private static final Map<String, TriggerType> BY_KEY = new HashMap<>();
+
+    static {
+        for (TriggerType type : VALUES) {
+            BY_KEY.put(type.key, type);
+        }
+    }
+
+    private final String key;
+    private final boolean join;
+
+    TriggerType(String key, boolean join) {
+        this.key = key;
+        this.join = join;
+    }
+
+    /**
+     * @return The name used in config.yml, storage and commands
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @return Whether this trigger is a kind of join, which shares the rejoin cooldown and is traced
+     */
+    public boolean isJoin() {
+        return join;
+    }
+
+    /**
+     * @param key A trigger name such as "world-change"
+     * @return The trigger, or null if unknown
+     */
+    public static TriggerType byKey(String key) {
+        return BY_KEY.get(key.toLowerCase());
+    }
+
+    public static TriggerType byOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    public static int count() {
+        return VALUES.length;
+    }
+}
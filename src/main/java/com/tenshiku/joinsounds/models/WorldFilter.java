@@ -0,0 +1,91 @@
+package com.tenshiku.joinsounds.models;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+
+/**
+ * Compiled list of world names and patterns.
+ * Entries may be exact names, wildcards using '*' and '?', or 'regex:' followed by a regular expression.
+ */
+public final class WorldFilter {
+
+    private static final String REGEX_PREFIX = "regex:";
+
+    private final Set<String> names;
+    private final List<Pattern> patterns;
+
+    private WorldFilter(Set<String> names, List<Pattern> patterns) {
+        this.names = names;
+        this.patterns = patterns;
+    }
+
+    /**
+     * @param path Config path the entries came from, used in error messages
+     * @param entries World names and patterns
+     * @param errors Receives one line per invalid pattern
+     * @return The compiled filter
+     */
+    public static WorldFilter compile(String path, List<String> entries, List<String> errors) {
+        Set<String> names = new HashSet<>();
+        List<Pattern> patterns = new ArrayList<>();
+
+        for (String entry : entries) {
+            if (entry.startsWith(REGEX_PREFIX)) {
+                try {
+                    patterns.add(Pattern.compile(entry.substring(REGEX_PREFIX.length())));
+                } catch (PatternSyntaxException e) {
+                    errors.add(path + ": invalid pattern '" + entry + "' (" + e.getDescription() + "), ignoring it");
+                }
+            } else if (entry.indexOf('*') >= 0 || entry.indexOf('?') >= 0) {
+                patterns.add(Pattern.compile(globToRegex(entry)));
+            } else {
+                names.add(entry);
+            }
+        }
+
+        return new WorldFilter(names, List.copyOf(patterns));
+    }
+
+    private static String globToRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+
+        for (char c : glob.toCharArray()) {
+            if (c == '*' || c == '?') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '*' ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return regex.toString();
+    }
+
+    public boolean matches(String worldName) {
+        if (names.contains(worldName)) {
+            return true;
+        }
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(worldName).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isEmpty() {
+        return names.isEmpty() && patterns.isEmpty();
+    }
+}